@@ -0,0 +1,157 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** Per-vertex growable lists of adjacent vertices, held in primitive
+ *  int arrays.  Each entry is paired with the number of the edge record
+ *  it represents, so that the owner can find and delete entries in
+ *  constant time.  Order within a list is not preserved by deletion.
+ *  @author Mina Kim
+ */
+class AdjacencyLists {
+
+    /** Empty lists for vertices 0 .. MAXVERTEX. */
+    AdjacencyLists(int maxVertex) {
+        _adj = new int[maxVertex + 1][];
+        _edge = new int[maxVertex + 1][];
+        _size = new int[maxVertex + 1];
+        Arrays.fill(_adj, EMPTY);
+        Arrays.fill(_edge, EMPTY);
+    }
+
+    /** Make room for lists of vertices up to V. */
+    void ensureVertex(int v) {
+        if (v >= _size.length) {
+            int n = Math.max(v + 1, 2 * _size.length);
+            int old = _size.length;
+            _adj = Arrays.copyOf(_adj, n);
+            _edge = Arrays.copyOf(_edge, n);
+            _size = Arrays.copyOf(_size, n);
+            Arrays.fill(_adj, old, n, EMPTY);
+            Arrays.fill(_edge, old, n, EMPTY);
+        }
+    }
+
+    /** Returns the number of entries in V's list. */
+    int size(int v) {
+        return v < _size.length ? _size[v] : 0;
+    }
+
+    /** Returns the sum of size(V) over the vertices V in VS[FROM .. TO-1].
+     *  Vertices without lists contribute 0. */
+    long totalSize(int[] vs, int from, int to) {
+        long sum;
+        sum = 0;
+        for (int k = from; k < to; k += 1) {
+            int v = vs[k];
+            if (v >= 0 && v < _size.length) {
+                sum += _size[v];
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the array holding V's adjacent vertices, valid in positions
+     *  0 .. size(V)-1.  The array is shared and must not be modified. */
+    int[] vertices(int v) {
+        return _adj[v];
+    }
+
+    /** Returns the edge record of the entry at POS in V's list. */
+    int edgeAt(int v, int pos) {
+        return _edge[v][pos];
+    }
+
+    /** Append W, the end of edge record E, to V's list.  Returns its
+     *  position. */
+    int append(int v, int w, int e) {
+        int n = _size[v];
+        if (n == _adj[v].length) {
+            int cap = Math.max(INITIAL_LIST, 2 * n);
+            _adj[v] = Arrays.copyOf(_adj[v], cap);
+            _edge[v] = Arrays.copyOf(_edge[v], cap);
+        }
+        _adj[v][n] = w;
+        _edge[v][n] = e;
+        _size[v] = n + 1;
+        return n;
+    }
+
+    /** Delete the entry at POS in V's list by moving the last entry into
+     *  its place.  Returns the edge record of the entry that moved to POS,
+     *  or -1 if none did. */
+    int removeAt(int v, int pos) {
+        int last = _size[v] - 1;
+        _size[v] = last;
+        if (pos == last) {
+            return -1;
+        }
+        _adj[v][pos] = _adj[v][last];
+        _edge[v][pos] = _edge[v][last];
+        return _edge[v][pos];
+    }
+
+    /** Make V's list the first N entries of ADJ, with corresponding edge
+     *  records EDGE.  Both arrays become mine. */
+    void setList(int v, int[] adj, int[] edge, int n) {
+        _adj[v] = adj;
+        _edge[v] = edge;
+        _size[v] = n;
+    }
+
+    /** Discard V's list and its storage. */
+    void clear(int v) {
+        if (v < _size.length) {
+            _adj[v] = EMPTY;
+            _edge[v] = EMPTY;
+            _size[v] = 0;
+        }
+    }
+
+    /** Returns an iteration over a copy of V's list. */
+    Iteration<Integer> iteration(int v) {
+        return new IntIteration(Arrays.copyOf(_adj[v], _size[v]));
+    }
+
+    /** An Iteration over the elements of an int array. */
+    static class IntIteration extends Iteration<Integer> {
+        /** An iteration over the contents of VALS. */
+        IntIteration(int[] vals) {
+            _vals = vals;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _k < _vals.length;
+        }
+
+        @Override
+        public Integer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _k += 1;
+            return _vals[_k - 1];
+        }
+
+        /** The values iterated over. */
+        private final int[] _vals;
+        /** Index of the next value. */
+        private int _k;
+    }
+
+    /** Shared storage for empty lists. */
+    static final int[] EMPTY = new int[0];
+    /** Capacity allocated for a list on its first entry. */
+    private static final int INITIAL_LIST = 4;
+
+    /** Adjacent vertices, indexed by vertex. */
+    private int[][] _adj;
+    /** Edge records corresponding to the entries of _adj. */
+    private int[][] _edge;
+    /** Number of entries in each list. */
+    private int[] _size;
+}
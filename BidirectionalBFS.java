@@ -0,0 +1,198 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A bidirectional breadth-first search for the distance and a shortest
+ *  path between two vertices.  It grows one frontier forward from the
+ *  start along successors and another backward from the goal along
+ *  predecessors, each a level at a time, always expanding the smaller
+ *  of the two.  As soon as a level expansion touches a vertex reached
+ *  from the other side, the best meeting found in that level gives a
+ *  shortest path, so that on graphs with small diameter and many
+ *  high-degree vertices (such as social graphs), the search reaches a
+ *  small fraction of the vertices that a one-sided search would.
+ *
+ *  The per-vertex state is marked with an epoch number, so it is not
+ *  cleared between searches, and a search costs time only in proportion
+ *  to the vertices it reaches.  The graph must not change during a
+ *  search.
+ *  @author Mina Kim
+ */
+final class BidirectionalBFS {
+
+    /** A search of G. */
+    BidirectionalBFS(Graph G) {
+        _G = G;
+        _succs = G.successorCursor();
+        _preds = G.predecessorCursor();
+        _forward = new Side();
+        _backward = new Side();
+        _path = AdjacencyLists.EMPTY;
+    }
+
+    /** Returns the number of edges on a shortest path from START to GOAL,
+     *  or -1 if there is none, recording the path (see path()). */
+    int distance(int start, int goal) {
+        _G.checkMyVertex(start);
+        _G.checkMyVertex(goal);
+        if (_epoch == Integer.MAX_VALUE) {
+            _forward.reset();
+            _backward.reset();
+            _epoch = 0;
+        }
+        _epoch += 1;
+        int size = _G.maxVertex() + 1;
+        _forward.start(start, size);
+        _backward.start(goal, size);
+        _reached = 1;
+        _meeting = 0;
+        if (start == goal) {
+            _meeting = start;
+        } else {
+            _reached += 1;
+        }
+        int best;
+        best = _meeting == 0 ? Integer.MAX_VALUE : 0;
+        while (best == Integer.MAX_VALUE && _forward._n > 0
+               && _backward._n > 0) {
+            if (_forward._n <= _backward._n) {
+                best = expand(_forward, _backward, _succs);
+            } else {
+                best = expand(_backward, _forward, _preds);
+            }
+        }
+        if (best == Integer.MAX_VALUE) {
+            _path = AdjacencyLists.EMPTY;
+            return -1;
+        }
+        _path = new int[best + 1];
+        int k;
+        k = _forward._dist[_meeting];
+        for (int v = _meeting; k >= 0; v = _forward._parents[v], k -= 1) {
+            _path[k] = v;
+        }
+        k = _forward._dist[_meeting];
+        for (int v = _meeting; k < best; k += 1) {
+            v = _backward._parents[v];
+            _path[k + 1] = v;
+        }
+        return best;
+    }
+
+    /** Returns true iff there is a path from START to GOAL. */
+    boolean reachable(int start, int goal) {
+        return distance(start, goal) >= 0;
+    }
+
+    /** Returns the vertices on the shortest path found by the last call
+     *  of distance, from start to goal, or an empty array if there was
+     *  none. */
+    int[] path() {
+        return _path;
+    }
+
+    /** Returns the number of vertices reached by the last search, from
+     *  either side. */
+    int reached() {
+        return _reached;
+    }
+
+    /** Expand the frontier of NEAR by one level, following edges through
+     *  EDGES, and return the length of the shortest path through a vertex
+     *  reached by FAR found in the process, or Integer.MAX_VALUE if there
+     *  is none.  Sets _meeting to that vertex. */
+    private int expand(Side near, Side far, IntCursor edges) {
+        int best;
+        best = Integer.MAX_VALUE;
+        int m;
+        m = 0;
+        int[] next = near._next;
+        for (int i = 0; i < near._n; i += 1) {
+            int u = near._frontier[i];
+            int d = near._dist[u] + 1;
+            edges.start(u);
+            while (edges.hasNext()) {
+                int w = edges.next();
+                if (near._stamps[w] == _epoch) {
+                    continue;
+                }
+                near._stamps[w] = _epoch;
+                near._dist[w] = d;
+                near._parents[w] = u;
+                if (far._stamps[w] == _epoch) {
+                    if (d + far._dist[w] < best) {
+                        best = d + far._dist[w];
+                        _meeting = w;
+                    }
+                } else {
+                    _reached += 1;
+                }
+                if (m == next.length) {
+                    next = Arrays.copyOf(next, 2 * m);
+                }
+                next[m] = w;
+                m += 1;
+            }
+        }
+        near._next = near._frontier;
+        near._frontier = next;
+        near._n = m;
+        return best;
+    }
+
+    /** The state of the search from one end. */
+    private final class Side {
+
+        /** Start a search of a graph with SIZE - 1 vertices from V. */
+        void start(int v, int size) {
+            if (_stamps.length < size) {
+                _stamps = Arrays.copyOf(_stamps, size);
+                _dist = new int[size];
+                _parents = new int[size];
+            }
+            _stamps[v] = _epoch;
+            _dist[v] = 0;
+            _parents[v] = 0;
+            _frontier[0] = v;
+            _n = 1;
+        }
+
+        /** Clear my stamps, for reuse of the epoch numbers. */
+        void reset() {
+            Arrays.fill(_stamps, 0);
+        }
+
+        /** Epoch in which each vertex was last reached from this end. */
+        private int[] _stamps = AdjacencyLists.EMPTY;
+        /** Distance of each reached vertex from this end. */
+        private int[] _dist = AdjacencyLists.EMPTY;
+        /** Vertex through which each vertex was reached. */
+        private int[] _parents = AdjacencyLists.EMPTY;
+        /** The current frontier. */
+        private int[] _frontier = new int[INITIAL_FRONTIER];
+        /** Buffer for the next frontier. */
+        private int[] _next = new int[INITIAL_FRONTIER];
+        /** Size of _frontier. */
+        private int _n;
+    }
+
+    /** Initial capacity of the frontiers. */
+    private static final int INITIAL_FRONTIER = 16;
+
+    /** The graph searched. */
+    private final Graph _G;
+    /** Cursors over successors and predecessors. */
+    private final IntCursor _succs, _preds;
+    /** The two ends of the search. */
+    private final Side _forward, _backward;
+    /** Number of the current search. */
+    private int _epoch;
+    /** Vertices reached by the last search. */
+    private int _reached;
+    /** Vertex at which the two sides of the shortest path met. */
+    private int _meeting;
+    /** Path found by the last search. */
+    private int[] _path;
+}
@@ -0,0 +1,99 @@
+package graph;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for bidirectional breadth-first search.
+ *  @author Mina Kim
+ */
+public class BidirectionalBFSTest {
+
+    /** Check that PATH is a path in G from START to GOAL with DIST
+     *  edges. */
+    private static void checkPath(Graph G, int[] path, int start, int goal,
+                                  int dist) {
+        assertEquals("wrong path length", dist + 1, path.length);
+        assertEquals("path starts wrongly", start, path[0]);
+        assertEquals("path ends wrongly", goal, path[dist]);
+        for (int k = 0; k < dist; k += 1) {
+            assertTrue("missing edge", G.contains(path[k], path[k + 1]));
+        }
+    }
+
+    /** Check distances and paths against a one-sided search. */
+    @Test(timeout = 10000)
+    public void matchesSequential() {
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph G = ParallelBFSTest.random(directed, 2000, 3000, 12);
+            BidirectionalBFS search = new BidirectionalBFS(G);
+            for (int start = 1; start <= 40; start += 3) {
+                if (!G.contains(start)) {
+                    continue;
+                }
+                int[] dist = ParallelBFSTest.distances(G, start);
+                for (int goal = 1; goal <= G.maxVertex(); goal += 7) {
+                    if (!G.contains(goal)) {
+                        continue;
+                    }
+                    assertEquals("wrong distance from " + start + " to "
+                                 + goal, dist[goal],
+                                 search.distance(start, goal));
+                    if (dist[goal] >= 0) {
+                        checkPath(G, search.path(), start, goal,
+                                  dist[goal]);
+                    } else {
+                        assertEquals("path to unreachable vertex", 0,
+                                     search.path().length);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Check trivial and unreachable queries. */
+    @Test(timeout = 1000)
+    public void edgeCases() {
+        Graph G = CSRGraphTest.fill(new DirectedGraph());
+        BidirectionalBFS search = new BidirectionalBFS(G);
+        assertEquals("wrong distance to self", 0, search.distance(3, 3));
+        assertArrayEquals("wrong path to self", new int[] { 3 },
+                          search.path());
+        for (int v = 1; v <= G.maxVertex(); v += 1) {
+            if (G.contains(v) && G.outDegree(v) == 0) {
+                assertFalse("reached from sink", search.reachable(v, 1));
+            }
+        }
+    }
+
+    /** Check that on a graph of small diameter, the search reaches far
+     *  fewer vertices than a one-sided search. */
+    @Test(timeout = 10000)
+    public void reachesFewer() {
+        Graph G = ParallelBFSTest.random(false, 50000, 200000, 13);
+        BidirectionalBFS search = new BidirectionalBFS(G);
+        int[] dist = ParallelBFSTest.distances(G, 1);
+        int reached, total;
+        reached = total = 0;
+        for (int goal = 3; goal <= 50000; goal += 997) {
+            if (dist[goal] > 0) {
+                search.distance(1, goal);
+                reached += search.reached();
+                total += 1;
+            }
+        }
+        assertTrue("no queries", total > 0);
+        assertTrue("reached too many", reached / total < 50000 / 4);
+    }
+
+    /** Check that vertices not in the graph are rejected. */
+    @Test(timeout = 1000, expected = IllegalArgumentException.class)
+    public void badVertex() {
+        new BidirectionalBFS(CSRGraphTest.fill(new DirectedGraph()))
+            .distance(1, 4);
+    }
+}
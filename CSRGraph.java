@@ -0,0 +1,448 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/** An immutable graph in compressed sparse row (CSR) form.  The
+ *  successors of vertex v are targets()[offsets()[v] .. offsets()[v+1]-1],
+ *  in increasing order.  For an undirected graph, each edge appears in
+ *  the rows of both its ends (a self edge, once).  Predecessors of a
+ *  directed graph come from a second, reversed CSR, built when the graph
+ *  is frozen or on first use.  Edge ids are positions in targets() plus 1;
+ *  an undirected edge takes the id of its entry in the row of its smaller
+ *  end.  All modifying operations throw UnsupportedOperationException.
+ *  @author Mina Kim
+ */
+final class CSRGraph extends Graph {
+
+    /** Returns an immutable copy of G, or G's own CSR form if it already
+     *  has one (see Graph.csr).  The reverse CSR of a directed result is
+     *  built now iff PREDECESSORS. */
+    static CSRGraph freeze(Graph G, boolean predecessors) {
+        CSRGraph result = G.csr();
+        if (result == null) {
+            result = new CSRGraph(G);
+        }
+        if (predecessors) {
+            result.reverse();
+        }
+        return result;
+    }
+
+    /** Returns freeze(G, true). */
+    static CSRGraph freeze(Graph G) {
+        return freeze(G, true);
+    }
+
+    /** Returns a labeled graph over an immutable copy of G's structure,
+     *  carrying the same vertex and edge labels as G. */
+    static <VL, EL> LabeledGraph<VL, EL> freeze(LabeledGraph<VL, EL> G) {
+        LabeledGraph<VL, EL> result =
+            new LabeledGraph<VL, EL>(freeze(G, true));
+        for (int v = G.nextVertex(0); v != 0; v = G.nextVertex(v)) {
+            result.setLabel(v, G.getLabel(v));
+        }
+        for (int[] e : G.edges()) {
+            result.setLabel(e[0], e[1], G.getLabel(e[0], e[1]));
+        }
+        return result;
+    }
+
+    /** A CSR copy of G. */
+    private CSRGraph(Graph G) {
+        _directed = G.isDirected();
+        _maxVertex = G.maxVertex();
+        _vertices = new BitSet(_maxVertex + 1);
+        _offsets = new int[_maxVertex + 2];
+        int[] targets = new int[Math.max(16, 2 * G.edgeSize())];
+        int n, count;
+        n = count = 0;
+        IntCursor succs = G.successorCursor();
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            _offsets[v] = n;
+            if (G.contains(v)) {
+                _vertices.set(v);
+                count += 1;
+                succs.start(v);
+                while (succs.hasNext()) {
+                    if (n == targets.length) {
+                        targets = Arrays.copyOf(targets, 2 * n);
+                    }
+                    targets[n] = succs.next();
+                    n += 1;
+                }
+                Arrays.sort(targets, _offsets[v], n);
+            }
+        }
+        _offsets[_maxVertex + 1] = n;
+        _vertexCount = count;
+        _targets = Arrays.copyOf(targets, n);
+        _edgeCount = G.edgeSize();
+        if (!_directed) {
+            _roffsets = _offsets;
+            _rtargets = _targets;
+        }
+    }
+
+    /** A CSR graph with the given contents, which become mine.  DIRECTED
+     *  indicates directedness, VERTICES my vertex set, MAXVERTEX its
+     *  largest member, OFFSETS and TARGETS my successor rows (sorted), and
+     *  EDGES my edge count.  For use by other builders in this package. */
+    CSRGraph(boolean directed, BitSet vertices, int maxVertex,
+             int[] offsets, int[] targets, int edges) {
+        _directed = directed;
+        _vertices = vertices;
+        _maxVertex = maxVertex;
+        _vertexCount = vertices.cardinality();
+        _offsets = offsets;
+        _targets = targets;
+        _edgeCount = edges;
+        if (!_directed) {
+            _roffsets = _offsets;
+            _rtargets = _targets;
+        }
+    }
+
+    /** Returns the row offsets of my successor lists. */
+    int[] offsets() {
+        return _offsets;
+    }
+
+    /** Returns the concatenated successor lists. */
+    int[] targets() {
+        return _targets;
+    }
+
+    /** Returns the row offsets of my predecessor lists. */
+    int[] reverseOffsets() {
+        reverse();
+        return _roffsets;
+    }
+
+    /** Returns the concatenated predecessor lists. */
+    int[] reverseTargets() {
+        reverse();
+        return _rtargets;
+    }
+
+    /** Returns my vertex set.  Must not be modified. */
+    BitSet vertexSet() {
+        return _vertices;
+    }
+
+    @Override
+    CSRGraph csr() {
+        return this;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexCount;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _offsets[v + 1] - _offsets[v] : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        }
+        reverse();
+        return _roffsets[v + 1] - _roffsets[v];
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= _maxVertex && _vertices.get(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw frozen();
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return new Iteration<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return _next != 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v);
+                return v;
+            }
+
+            /** The next vertex to return, or 0 if none. */
+            private int _next = nextVertex(0);
+        };
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        if (!contains(v)) {
+            return new AdjacencyLists.IntIteration(AdjacencyLists.EMPTY);
+        }
+        return new AdjacencyLists.IntIteration(
+            Arrays.copyOfRange(_targets, _offsets[v], _offsets[v + 1]));
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        if (!contains(v)) {
+            return new AdjacencyLists.IntIteration(AdjacencyLists.EMPTY);
+        }
+        reverse();
+        return new AdjacencyLists.IntIteration(
+            Arrays.copyOfRange(_rtargets, _roffsets[v], _roffsets[v + 1]));
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_k < _targets.length) {
+                    while (_offsets[_u + 1] <= _k) {
+                        _u += 1;
+                    }
+                    if (_directed || _u <= _targets[_k]) {
+                        return true;
+                    }
+                    _k += 1;
+                }
+                return false;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _targets[_k];
+                _k += 1;
+                return _edge;
+            }
+
+            /** Position in _targets of the next candidate edge. */
+            private int _k;
+            /** Row containing position _k. */
+            private int _u;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u) || !contains(v)) {
+            return 0;
+        }
+        if (!_directed && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        int k = Arrays.binarySearch(_targets, _offsets[u], _offsets[u + 1],
+                                    v);
+        return k < 0 ? 0 : k + 1;
+    }
+
+    @Override
+    int edgeIdBound() {
+        return _targets.length + 1;
+    }
+
+    @Override
+    int nextVertex(int v) {
+        int w = _vertices.nextSetBit(Math.max(v, 0) + 1);
+        return w < 0 ? 0 : w;
+    }
+
+    @Override
+    void forEachSuccessor(int v, IntConsumer action) {
+        if (contains(v)) {
+            for (int k = _offsets[v]; k < _offsets[v + 1]; k += 1) {
+                action.accept(_targets[k]);
+            }
+        }
+    }
+
+    @Override
+    void forEachPredecessor(int v, IntConsumer action) {
+        if (contains(v)) {
+            reverse();
+            for (int k = _roffsets[v]; k < _roffsets[v + 1]; k += 1) {
+                action.accept(_rtargets[k]);
+            }
+        }
+    }
+
+    @Override
+    int copySuccessors(int v, int[] buf) {
+        int n = outDegree(v);
+        if (n > 0) {
+            System.arraycopy(_targets, _offsets[v], buf, 0, n);
+        }
+        return n;
+    }
+
+    @Override
+    int copyPredecessors(int v, int[] buf) {
+        int n = inDegree(v);
+        if (n > 0) {
+            System.arraycopy(_rtargets, _roffsets[v], buf, 0, n);
+        }
+        return n;
+    }
+
+    @Override
+    long totalOutDegree(int[] vs, int from, int to) {
+        long sum;
+        sum = 0;
+        for (int k = from; k < to; k += 1) {
+            sum += outDegree(vs[k]);
+        }
+        return sum;
+    }
+
+    @Override
+    IntCursor successorCursor() {
+        return new RowCursor(false);
+    }
+
+    @Override
+    IntCursor predecessorCursor() {
+        return new RowCursor(true);
+    }
+
+    /** A cursor over one of my rows. */
+    private class RowCursor extends IntCursor.ArrayCursor {
+        /** A cursor over predecessor rows if REVERSE, else successor
+         *  rows. */
+        RowCursor(boolean reverse) {
+            _reverse = reverse;
+        }
+
+        @Override
+        IntCursor start(int v) {
+            if (!contains(v)) {
+                reset(AdjacencyLists.EMPTY, 0, 0);
+            } else if (_reverse) {
+                reverse();
+                reset(_rtargets, _roffsets[v], _roffsets[v + 1]);
+            } else {
+                reset(_targets, _offsets[v], _offsets[v + 1]);
+            }
+            return this;
+        }
+
+        /** True iff I deliver predecessors. */
+        private final boolean _reverse;
+    }
+
+    /** Build the reverse CSR, if not yet done. */
+    private void reverse() {
+        if (_rtargets == null) {
+            buildReverse();
+        }
+    }
+
+    /** Build the reverse CSR, unless another thread has done so. */
+    private synchronized void buildReverse() {
+        if (_rtargets != null) {
+            return;
+        }
+        int[] roffsets = new int[_maxVertex + 2];
+        for (int w : _targets) {
+            roffsets[w + 1] += 1;
+        }
+        for (int v = 1; v <= _maxVertex + 1; v += 1) {
+            roffsets[v] += roffsets[v - 1];
+        }
+        int[] fill = Arrays.copyOf(roffsets, _maxVertex + 1);
+        int[] rtargets = new int[_targets.length];
+        for (int u = 1; u <= _maxVertex; u += 1) {
+            for (int k = _offsets[u]; k < _offsets[u + 1]; k += 1) {
+                int w = _targets[k];
+                rtargets[fill[w]] = u;
+                fill[w] += 1;
+            }
+        }
+        _roffsets = roffsets;
+        _rtargets = rtargets;
+    }
+
+    /** Returns the exception thrown by attempts to modify me. */
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("graph is frozen");
+    }
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** My vertex set. */
+    private final BitSet _vertices;
+    /** My largest vertex. */
+    private final int _maxVertex;
+    /** Number of my vertices. */
+    private final int _vertexCount;
+    /** Number of my edges. */
+    private final int _edgeCount;
+    /** Start of each vertex's row in _targets; _offsets[v+1] ends it. */
+    private final int[] _offsets;
+    /** Concatenated successor rows. */
+    private final int[] _targets;
+    /** As for _offsets, for predecessors.  Valid once _rtargets is set. */
+    private int[] _roffsets;
+    /** As for _targets, for predecessors, or null if not yet built. */
+    private volatile int[] _rtargets;
+}
@@ -0,0 +1,187 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for frozen (CSR) graphs.
+ *  @author Mina Kim
+ */
+public class CSRGraphTest {
+
+    /*===== Test Graphs =====*/
+
+    /** Vertex count for the test graph. */
+    static final int NV = 10;
+    /** Edges for the test graph, including self edges. */
+    static final int[][] EDGES = {
+        { 2, 5 }, { 2, 3 },
+        { 2, 6 }, { 3, 7 }, { 3, 8 }, { 8, 1 }, { 8, 9 },
+        { 1, 1 }, { 8, 8 }, { 2, 2 },
+        { 1, 2 }, { 1, 3 }, { 1, 4 },
+        { 8, 10 }, { 10, 7 } };
+
+    /*===== Utilities =====*/
+
+    /** Returns G filled with NV vertices and EDGES, less vertex 4. */
+    static Graph fill(Graph G) {
+        for (int i = 1; i <= NV; i += 1) {
+            G.add();
+        }
+        for (int[] e : EDGES) {
+            G.add(e[0], e[1]);
+        }
+        G.remove(4);
+        return G;
+    }
+
+    /** Returns the contents of IT, sorted. */
+    static List<Integer> sorted(Iteration<Integer> it) {
+        ArrayList<Integer> result = new ArrayList<>();
+        for (int v : it) {
+            result.add(v);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    /** Returns the edges of G as strings, canonically ordered if G is
+     *  undirected. */
+    static HashSet<String> edgeSet(Graph G) {
+        HashSet<String> result = new HashSet<>();
+        for (int[] e : G.edges()) {
+            if (G.isDirected() || e[0] <= e[1]) {
+                result.add(e[0] + "-" + e[1]);
+            } else {
+                result.add(e[1] + "-" + e[0]);
+            }
+        }
+        return result;
+    }
+
+    /** Check that FROZEN has the same structure as G. */
+    static void checkSame(Graph G, Graph frozen) {
+        assertEquals("directedness", G.isDirected(), frozen.isDirected());
+        assertEquals("vertex count", G.vertexSize(), frozen.vertexSize());
+        assertEquals("edge count", G.edgeSize(), frozen.edgeSize());
+        assertEquals("max vertex", G.maxVertex(), frozen.maxVertex());
+        assertEquals("vertices", sorted(G.vertices()),
+                     sorted(frozen.vertices()));
+        assertEquals("edges", edgeSet(G), edgeSet(frozen));
+        for (int u = 0; u <= NV + 1; u += 1) {
+            assertEquals("contains " + u, G.contains(u), frozen.contains(u));
+            assertEquals("successors of " + u, sorted(G.successors(u)),
+                         sorted(frozen.successors(u)));
+            assertEquals("predecessors of " + u, sorted(G.predecessors(u)),
+                         sorted(frozen.predecessors(u)));
+            assertEquals("out degree of " + u, G.outDegree(u),
+                         frozen.outDegree(u));
+            assertEquals("in degree of " + u, G.inDegree(u),
+                         frozen.inDegree(u));
+            for (int v = 0; v <= NV + 1; v += 1) {
+                assertEquals(String.format("contains(%d, %d)", u, v),
+                             G.contains(u, v), frozen.contains(u, v));
+            }
+        }
+    }
+
+    /*===== Tests =====*/
+
+    /** Check a frozen directed graph against its source. */
+    @Test(timeout = 1000)
+    public void frozenDirected() {
+        Graph G = fill(new DirectedGraph());
+        checkSame(G, CSRGraph.freeze(G));
+        checkSame(G, CSRGraph.freeze(G, false));
+    }
+
+    /** Check a frozen undirected graph against its source. */
+    @Test(timeout = 1000)
+    public void frozenUndirected() {
+        Graph G = fill(new UndirectedGraph());
+        checkSame(G, CSRGraph.freeze(G));
+    }
+
+    /** Check that edge ids of a frozen graph are distinct, positive, and
+     *  bounded by edgeIdBound(). */
+    @Test(timeout = 1000)
+    public void frozenEdgeIds() {
+        for (Graph G : new Graph[] { fill(new DirectedGraph()),
+                                     fill(new UndirectedGraph()) }) {
+            Graph frozen = CSRGraph.freeze(G);
+            HashSet<Integer> ids = new HashSet<>();
+            for (int[] e : frozen.edges()) {
+                int id = frozen.edgeId(e[0], e[1]);
+                assertTrue("bad edge id", id > 0 && id < frozen.edgeIdBound());
+                assertTrue("duplicate edge id", ids.add(id));
+                if (!G.isDirected()) {
+                    assertEquals("asymmetric edge id", id,
+                                 frozen.edgeId(e[1], e[0]));
+                }
+            }
+            assertEquals("missing edge has id", 0, frozen.edgeId(5, 7));
+        }
+    }
+
+    /** Check that frozen graphs reject modification. */
+    @Test(timeout = 1000, expected = UnsupportedOperationException.class)
+    public void frozenIsImmutable() {
+        CSRGraph.freeze(fill(new DirectedGraph())).add(1, 5);
+    }
+
+    /** Check that freezing a labeled graph keeps its labels. */
+    @Test(timeout = 1000)
+    public void frozenLabeled() {
+        LabeledGraph<String, String> G =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 1; i <= NV; i += 1) {
+            G.add("V" + i);
+        }
+        for (int[] e : EDGES) {
+            G.add(e[0], e[1], "E" + e[0] + "-" + e[1]);
+        }
+        LabeledGraph<String, String> frozen = CSRGraph.freeze(G);
+        assertNotNull("labeled graph has no CSR form", frozen.csr());
+        checkSame(G, frozen);
+        for (int v : frozen.vertices()) {
+            assertEquals("vertex label", "V" + v, frozen.getLabel(v));
+        }
+        for (int[] e : frozen.edges()) {
+            assertEquals("edge label", "E" + e[0] + "-" + e[1],
+                         frozen.getLabel(e[0], e[1]));
+        }
+    }
+
+    /** Check that a traversal of a frozen graph reaches the same vertices
+     *  as one of its source. */
+    @Test(timeout = 1000)
+    public void frozenTraversal() {
+        Graph G = fill(new DirectedGraph());
+        assertEquals("wrong vertices reached", reached(G, 2),
+                     reached(CSRGraph.freeze(G), 2));
+    }
+
+    /** Returns the vertices reached by a breadth-first traversal of G
+     *  from V0, sorted. */
+    private List<Integer> reached(Graph G, int v0) {
+        final ArrayList<Integer> result = new ArrayList<>();
+        new BreadthFirstTraversal(G) {
+            @Override
+            protected boolean visit(int v) {
+                result.add(v);
+                return true;
+            }
+        }.traverse(v0);
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,819 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/** An immutable graph whose sorted adjacency lists are compressed in the
+ *  manner of the WebGraph framework.  Each list is encoded as a byte
+ *  string of variable-length integers (7 bits per byte, high bit set on
+ *  all but the last byte), consisting of
+ *
+ *     reference   (only if the window is positive) r, 0 <= r <= window:
+ *                 if r > 0, some of the list is copied from the list of
+ *                 vertex v - r, given by
+ *     blocks      a count, then the lengths of alternating runs of the
+ *                 referenced list to copy and to skip, starting with a
+ *                 copy run (the first length as is, the others less 1);
+ *                 the rest of the referenced list is skipped;
+ *     intervals   (only if minInterval is positive) a count, then for
+ *                 each run of at least minInterval consecutive vertices
+ *                 among the entries not copied, its start (relative to v
+ *                 for the first and to the end of the previous run for
+ *                 the others) and its length less minInterval;
+ *     residuals   the remaining entries, as gaps: the first relative to
+ *                 v, the others less 1 relative to their predecessors.
+ *
+ *  Differences that may be negative are zig-zag encoded.  Lists are
+ *  reached through an index of byte positions, and their lengths come
+ *  from row offsets as for CSRGraph, which also give edge ids (an edge's
+ *  id is its position in the concatenated rows plus 1, an undirected edge
+ *  taking that of its entry in the row of its smaller end).  A list may
+ *  refer only to one within window vertices before it, and chains of
+ *  references are at most maxRefs long, which bounds decoding work.
+ *  Directed graphs carry a second, compressed list of predecessors.
+ *  All modifying operations throw UnsupportedOperationException.
+ *  @author Mina Kim
+ */
+final class CompressedGraph extends Graph {
+
+    /** Returns a compressed copy of G, using the default parameters. */
+    static CompressedGraph compress(Graph G) {
+        return compress(G, DEFAULT_WINDOW, DEFAULT_MAX_REFS,
+                        DEFAULT_MIN_INTERVAL);
+    }
+
+    /** Returns a compressed copy of G, in which lists may copy from the
+     *  lists of up to WINDOW previous vertices, through chains of at
+     *  most MAXREFS references, and runs of at least MININTERVAL
+     *  consecutive vertices are encoded as intervals.  A WINDOW or
+     *  MININTERVAL of 0 disables that kind of compression. */
+    static CompressedGraph compress(Graph G, int window, int maxRefs,
+                                    int minInterval) {
+        if (window < 0 || maxRefs < 0 || maxRefs > Byte.MAX_VALUE
+            || minInterval < 0 || minInterval == 1) {
+            throw new IllegalArgumentException("bad compression parameters");
+        }
+        CSRGraph csr = CSRGraph.freeze(G, G.isDirected());
+        Lists out = new Lists(csr.maxVertex(), csr.offsets(), csr.targets(),
+                              window, maxRefs, minInterval);
+        Lists in = out;
+        if (csr.isDirected()) {
+            in = new Lists(csr.maxVertex(), csr.reverseOffsets(),
+                           csr.reverseTargets(), window, maxRefs,
+                           minInterval);
+        }
+        return new CompressedGraph(csr, out, in);
+    }
+
+    /** A graph with the vertices of CSR and the lists OUT and IN. */
+    private CompressedGraph(CSRGraph csr, Lists out, Lists in) {
+        _directed = csr.isDirected();
+        _vertices = csr.vertexSet();
+        _maxVertex = csr.maxVertex();
+        _vertexCount = csr.vertexSize();
+        _edgeCount = csr.edgeSize();
+        _out = out;
+        _in = in;
+    }
+
+    /** Returns the number of bytes in my encoded lists. */
+    long dataBytes() {
+        return _out.dataBytes() + (_directed ? _in.dataBytes() : 0);
+    }
+
+    /** Returns a summary of the space I use: bits per list entry for
+     *  my encoded lists, and total bytes with indexes, compared with the
+     *  same graph in CSR form (32 bits per entry). */
+    String report() {
+        long entries = _out.entries() + (_directed ? _in.entries() : 0);
+        long data = dataBytes();
+        long index = (_directed ? 2L : 1L) * 8 * (_maxVertex + 2);
+        long plain = 4 * entries + index / 2;
+        return String.format("%d list entries: %.2f bits/entry compressed"
+                             + " (%d bytes with index) vs %.2f bits/entry"
+                             + " in CSR form (%d bytes with index)",
+                             entries, bitsPerEntry(data, entries),
+                             data + index, bitsPerEntry(4 * entries, entries),
+                             plain);
+    }
+
+    /** Returns the bits per entry achieved by BYTES bytes of lists with
+     *  ENTRIES entries. */
+    private static double bitsPerEntry(long bytes, long entries) {
+        return entries == 0 ? 0.0 : 8.0 * bytes / entries;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexCount;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _out.degree(v) : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _in.degree(v) : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= _maxVertex && _vertices.get(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw frozen();
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int v) {
+        throw frozen();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw frozen();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return new Iteration<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return _next != 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v);
+                return v;
+            }
+
+            /** The next vertex to return, or 0 if none. */
+            private int _next = nextVertex(0);
+        };
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return new AdjacencyLists.IntIteration(list(_out, v));
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return new AdjacencyLists.IntIteration(list(_in, v));
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (true) {
+                    while (_k < _n) {
+                        if (_directed || _u <= _row[_k]) {
+                            return true;
+                        }
+                        _k += 1;
+                    }
+                    if (_u >= _maxVertex) {
+                        return false;
+                    }
+                    _u += 1;
+                    _k = 0;
+                    _n = _decoder.decode(_u);
+                    _row = _decoder.list();
+                }
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _row[_k];
+                _k += 1;
+                return _edge;
+            }
+
+            /** Decodes the rows. */
+            private final Decoder _decoder = _out.decoder();
+            /** The current row. */
+            private int[] _row = AdjacencyLists.EMPTY;
+            /** Vertex whose row is _row. */
+            private int _u;
+            /** Position in _row of the next candidate edge. */
+            private int _k;
+            /** Length of _row. */
+            private int _n;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u) || !contains(v)) {
+            return 0;
+        }
+        if (!_directed && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        int[] row = _decoders.get().list(_out, u);
+        int k = Arrays.binarySearch(row, 0, _out.degree(u), v);
+        return k < 0 ? 0 : _out.offset(u) + k + 1;
+    }
+
+    @Override
+    int edgeIdBound() {
+        return (int) _out.entries() + 1;
+    }
+
+    @Override
+    int nextVertex(int v) {
+        int w = _vertices.nextSetBit(Math.max(v, 0) + 1);
+        return w < 0 ? 0 : w;
+    }
+
+    @Override
+    void forEachSuccessor(int v, IntConsumer action) {
+        for (int w : list(_out, v)) {
+            action.accept(w);
+        }
+    }
+
+    @Override
+    void forEachPredecessor(int v, IntConsumer action) {
+        for (int w : list(_in, v)) {
+            action.accept(w);
+        }
+    }
+
+    @Override
+    int copySuccessors(int v, int[] buf) {
+        return copy(_out, v, buf);
+    }
+
+    @Override
+    int copyPredecessors(int v, int[] buf) {
+        return copy(_in, v, buf);
+    }
+
+    @Override
+    IntCursor successorCursor() {
+        return new ListCursor(_out);
+    }
+
+    @Override
+    IntCursor predecessorCursor() {
+        return new ListCursor(_in);
+    }
+
+    /** Returns a new array holding V's list in LISTS, which is empty if V
+     *  is not my vertex. */
+    private int[] list(Lists lists, int v) {
+        if (!contains(v)) {
+            return AdjacencyLists.EMPTY;
+        }
+        return Arrays.copyOf(_decoders.get().list(lists, v),
+                             lists.degree(v));
+    }
+
+    /** Copy V's list in LISTS into BUF, returning its length. */
+    private int copy(Lists lists, int v, int[] buf) {
+        if (!contains(v)) {
+            return 0;
+        }
+        int n = lists.degree(v);
+        System.arraycopy(_decoders.get().list(lists, v), 0, buf, 0, n);
+        return n;
+    }
+
+    /** A cursor that decodes each list into a buffer of its own. */
+    private class ListCursor extends IntCursor.ArrayCursor {
+        /** A cursor over the lists in LISTS. */
+        ListCursor(Lists lists) {
+            _decoder = lists.decoder();
+        }
+
+        @Override
+        IntCursor start(int v) {
+            if (contains(v)) {
+                int n = _decoder.decode(v);
+                reset(_decoder.list(), 0, n);
+            } else {
+                reset(AdjacencyLists.EMPTY, 0, 0);
+            }
+            return this;
+        }
+
+        /** Decodes my lists. */
+        private final Decoder _decoder;
+    }
+
+    /** Returns the exception thrown by attempts to modify me. */
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("graph is frozen");
+    }
+
+    /** The compressed lists of one direction of a graph. */
+    static final class Lists {
+
+        /** Compress the sorted rows TARGETS[OFFSETS[v] .. OFFSETS[v+1]-1]
+         *  for 1 <= v <= MAXVERTEX, with parameters WINDOW, MAXREFS and
+         *  MININTERVAL as for CompressedGraph.compress.  OFFSETS becomes
+         *  mine. */
+        Lists(int maxVertex, int[] offsets, int[] targets, int window,
+              int maxRefs, int minInterval) {
+            _offsets = offsets;
+            _window = window;
+            _minInterval = minInterval;
+            _positions = new int[maxVertex + 2];
+            Encoder encoder = new Encoder(offsets, targets, window, maxRefs,
+                                          minInterval, maxVertex);
+            for (int v = 1; v <= maxVertex; v += 1) {
+                _positions[v] = encoder.size();
+                encoder.encode(v);
+            }
+            _positions[maxVertex + 1] = encoder.size();
+            _data = encoder.bytes();
+        }
+
+        /** Returns the length of V's list. */
+        int degree(int v) {
+            return _offsets[v + 1] - _offsets[v];
+        }
+
+        /** Returns the position of V's list among all entries. */
+        int offset(int v) {
+            return _offsets[v];
+        }
+
+        /** Returns the total number of entries. */
+        long entries() {
+            return _offsets[_offsets.length - 1];
+        }
+
+        /** Returns the number of bytes of encoded lists. */
+        long dataBytes() {
+            return _data.length;
+        }
+
+        /** Returns a new decoder for my lists. */
+        Decoder decoder() {
+            return new Decoder(this);
+        }
+
+        /** Row offsets of the lists. */
+        private final int[] _offsets;
+        /** Byte position of each list in _data. */
+        private final int[] _positions;
+        /** The encoded lists. */
+        private final byte[] _data;
+        /** Reference window. */
+        private final int _window;
+        /** Minimum interval length, or 0 if intervals are not used. */
+        private final int _minInterval;
+    }
+
+    /** Decodes the lists of a Lists object into buffers that it reuses
+     *  from one list to the next.  Not thread-safe. */
+    static final class Decoder {
+
+        /** A decoder for LISTS. */
+        Decoder(Lists lists) {
+            _lists = lists;
+        }
+
+        /** Decode V's list, returning its length.  The list is then in
+         *  list(), until the next decode. */
+        int decode(int v) {
+            return decode(v, 0);
+        }
+
+        /** Returns the buffer holding the list last decoded. */
+        int[] list() {
+            return _out.length == 0 ? AdjacencyLists.EMPTY : _out[0];
+        }
+
+        /** Decode V's list in LISTS, which need not be mine, and return
+         *  the buffer holding it. */
+        int[] list(Lists lists, int v) {
+            Lists save = _lists;
+            _lists = lists;
+            decode(v, 0);
+            _lists = save;
+            return _out[0];
+        }
+
+        /** Decode V's list into _out[LEVEL], returning its length. */
+        private int decode(int v, int level) {
+            int d = _lists.degree(v);
+            ensure(level, d);
+            if (d == 0) {
+                return 0;
+            }
+            int[] out = _out[level];
+            _pos = _lists._positions[v];
+            int r = _lists._window > 0 ? read() : 0;
+            int copied;
+            copied = 0;
+            if (r > 0) {
+                int pos = _pos;
+                decode(v - r, level + 1);
+                _pos = pos;
+                int[] ref = _out[level + 1];
+                int blocks = read();
+                int k;
+                k = 0;
+                for (int b = 0; b < blocks; b += 1) {
+                    int len = read() + (b == 0 ? 0 : 1);
+                    if (b % 2 == 0) {
+                        System.arraycopy(ref, k, _copied, copied, len);
+                        copied += len;
+                    }
+                    k += len;
+                }
+            }
+            int spanned;
+            spanned = 0;
+            if (_lists._minInterval > 0) {
+                int intervals = read();
+                int prev = v;
+                for (int i = 0; i < intervals; i += 1) {
+                    int left;
+                    if (i == 0) {
+                        left = v + unzigzag(read());
+                    } else {
+                        left = prev + 2 + read();
+                    }
+                    int len = read() + _lists._minInterval;
+                    for (int k = 0; k < len; k += 1) {
+                        _spans[spanned] = left + k;
+                        spanned += 1;
+                    }
+                    prev = left + len - 1;
+                }
+            }
+            int residuals = d - copied - spanned;
+            int prev = v;
+            for (int i = 0; i < residuals; i += 1) {
+                if (i == 0) {
+                    prev = v + unzigzag(read());
+                } else {
+                    prev += 1 + read();
+                }
+                _residuals[i] = prev;
+            }
+            merge(out, copied, spanned, residuals);
+            return d;
+        }
+
+        /** Merge _copied[0 .. NC-1], _spans[0 .. NS-1] and
+         *  _residuals[0 .. NR-1], each increasing, into OUT. */
+        private void merge(int[] out, int nc, int ns, int nr) {
+            int c, s, r;
+            c = s = r = 0;
+            for (int k = 0; k < nc + ns + nr; k += 1) {
+                int x = c < nc ? _copied[c] : Integer.MAX_VALUE;
+                int y = s < ns ? _spans[s] : Integer.MAX_VALUE;
+                int z = r < nr ? _residuals[r] : Integer.MAX_VALUE;
+                if (x < y && x < z) {
+                    out[k] = x;
+                    c += 1;
+                } else if (y < z) {
+                    out[k] = y;
+                    s += 1;
+                } else {
+                    out[k] = z;
+                    r += 1;
+                }
+            }
+        }
+
+        /** Make room for lists of length N at LEVEL. */
+        private void ensure(int level, int n) {
+            if (level >= _out.length) {
+                _out = Arrays.copyOf(_out, level + 1);
+                _out[level] = AdjacencyLists.EMPTY;
+            }
+            if (n > _out[level].length) {
+                _out[level] = new int[n];
+            }
+            if (n > _copied.length) {
+                _copied = new int[n];
+                _spans = new int[n];
+                _residuals = new int[n];
+            }
+        }
+
+        /** Returns the next variable-length integer of the data. */
+        private int read() {
+            byte[] data = _lists._data;
+            int b = data[_pos];
+            _pos += 1;
+            int x = b & 0x7f;
+            for (int shift = 7; b < 0; shift += 7) {
+                b = data[_pos];
+                _pos += 1;
+                x |= (b & 0x7f) << shift;
+            }
+            return x;
+        }
+
+        /** The lists I decode. */
+        private Lists _lists;
+        /** Decoded lists, by level of reference. */
+        private int[][] _out = new int[0][];
+        /** Entries copied from a referenced list. */
+        private int[] _copied = AdjacencyLists.EMPTY;
+        /** Entries from intervals. */
+        private int[] _spans = AdjacencyLists.EMPTY;
+        /** Residual entries. */
+        private int[] _residuals = AdjacencyLists.EMPTY;
+        /** Position of the next byte to read. */
+        private int _pos;
+    }
+
+    /** Builds the encoded form of a set of lists. */
+    private static final class Encoder {
+
+        /** An encoder for the rows given by OFFSETS and TARGETS (for
+         *  vertices up to MAXVERTEX) with parameters WINDOW, MAXREFS and
+         *  MININTERVAL. */
+        Encoder(int[] offsets, int[] targets, int window, int maxRefs,
+                int minInterval, int maxVertex) {
+            _offsets = offsets;
+            _targets = targets;
+            _window = window;
+            _maxRefs = maxRefs;
+            _minInterval = minInterval;
+            _depth = new byte[maxVertex + 1];
+        }
+
+        /** Returns the number of bytes written so far. */
+        int size() {
+            return _size;
+        }
+
+        /** Returns the bytes written. */
+        byte[] bytes() {
+            return Arrays.copyOf(_data, _size);
+        }
+
+        /** Append the encoding of V's list, using whichever permitted
+         *  reference gives the shortest result. */
+        void encode(int v) {
+            if (_offsets[v + 1] == _offsets[v]) {
+                return;
+            }
+            int start = _size;
+            int best = encode(v, 0);
+            int bestRef = 0;
+            for (int r = 1; r <= _window && r < v; r += 1) {
+                int w = v - r;
+                if (_offsets[w + 1] > _offsets[w] && _depth[w] < _maxRefs) {
+                    _size = start;
+                    int len = encode(v, r);
+                    if (len < best) {
+                        best = len;
+                        bestRef = r;
+                    }
+                }
+            }
+            _size = start;
+            encode(v, bestRef);
+            _depth[v] = (byte) (bestRef == 0 ? 0 : _depth[v - bestRef] + 1);
+        }
+
+        /** Append the encoding of V's list with reference R (0 for
+         *  none), and return its length in bytes. */
+        private int encode(int v, int r) {
+            int start = _size;
+            int from = _offsets[v], to = _offsets[v + 1];
+            if (_window > 0) {
+                write(r);
+            }
+            int extra;
+            extra = 0;
+            if (r > 0) {
+                int rfrom = _offsets[v - r], rto = _offsets[v - r + 1];
+                ensure(to - from + rto - rfrom + 1);
+                int blocks, run, j;
+                blocks = run = 0;
+                j = from;
+                boolean copying = true;
+                int lastCopied = rfrom - 1;
+                for (int k = rfrom; k < rto; k += 1) {
+                    while (j < to && _targets[j] < _targets[k]) {
+                        _extra[extra] = _targets[j];
+                        extra += 1;
+                        j += 1;
+                    }
+                    boolean found = j < to && _targets[j] == _targets[k];
+                    if (found) {
+                        j += 1;
+                        lastCopied = k;
+                    }
+                    if (found != copying) {
+                        _blocks[blocks] = run;
+                        blocks += 1;
+                        copying = found;
+                        run = 0;
+                    }
+                    run += 1;
+                }
+                while (j < to) {
+                    _extra[extra] = _targets[j];
+                    extra += 1;
+                    j += 1;
+                }
+                if (copying) {
+                    _blocks[blocks] = run;
+                    blocks += 1;
+                }
+                if (lastCopied < rfrom) {
+                    blocks = 0;
+                }
+                write(blocks);
+                for (int b = 0; b < blocks; b += 1) {
+                    write(_blocks[b] - (b == 0 ? 0 : 1));
+                }
+            } else {
+                ensure(to - from + 1);
+                System.arraycopy(_targets, from, _extra, 0, to - from);
+                extra = to - from;
+            }
+            writeRest(v, extra);
+            return _size - start;
+        }
+
+        /** Append the intervals and residuals for V formed from
+         *  _extra[0 .. N-1]. */
+        private void writeRest(int v, int n) {
+            int residuals;
+            residuals = 0;
+            if (_minInterval > 0) {
+                int intervals, k;
+                intervals = k = 0;
+                while (k < n) {
+                    int e = k + 1;
+                    while (e < n && _extra[e] == _extra[e - 1] + 1) {
+                        e += 1;
+                    }
+                    if (e - k >= _minInterval) {
+                        _blocks[2 * intervals] = _extra[k];
+                        _blocks[2 * intervals + 1] = e - k;
+                        intervals += 1;
+                    } else {
+                        for (int i = k; i < e; i += 1) {
+                            _extra[residuals] = _extra[i];
+                            residuals += 1;
+                        }
+                    }
+                    k = e;
+                }
+                write(intervals);
+                int prev = v;
+                for (int i = 0; i < intervals; i += 1) {
+                    int left = _blocks[2 * i], len = _blocks[2 * i + 1];
+                    if (i == 0) {
+                        write(zigzag(left - v));
+                    } else {
+                        write(left - prev - 2);
+                    }
+                    write(len - _minInterval);
+                    prev = left + len - 1;
+                }
+            } else {
+                residuals = n;
+            }
+            for (int i = 0; i < residuals; i += 1) {
+                if (i == 0) {
+                    write(zigzag(_extra[0] - v));
+                } else {
+                    write(_extra[i] - _extra[i - 1] - 1);
+                }
+            }
+        }
+
+        /** Make room in the scratch arrays for N values. */
+        private void ensure(int n) {
+            if (n > _extra.length) {
+                _extra = new int[n];
+                _blocks = new int[2 * n];
+            }
+        }
+
+        /** Append X, treated as unsigned, as a variable-length
+         *  integer. */
+        private void write(int x) {
+            if (_size + 5 > _data.length) {
+                _data = Arrays.copyOf(_data, 2 * _data.length + 5);
+            }
+            while ((x & ~0x7f) != 0) {
+                _data[_size] = (byte) (x | 0x80);
+                _size += 1;
+                x >>>= 7;
+            }
+            _data[_size] = (byte) x;
+            _size += 1;
+        }
+
+        /** Row offsets. */
+        private final int[] _offsets;
+        /** Concatenated rows. */
+        private final int[] _targets;
+        /** Reference window. */
+        private final int _window;
+        /** Maximum length of a reference chain. */
+        private final int _maxRefs;
+        /** Minimum interval length, or 0. */
+        private final int _minInterval;
+        /** Length of the reference chain from each list. */
+        private final byte[] _depth;
+        /** Encoded data. */
+        private byte[] _data = new byte[64];
+        /** Number of bytes of _data in use. */
+        private int _size;
+        /** Entries of the current list not copied from its reference. */
+        private int[] _extra = AdjacencyLists.EMPTY;
+        /** Block lengths, or interval starts and lengths. */
+        private int[] _blocks = AdjacencyLists.EMPTY;
+    }
+
+    /** Returns X zig-zag encoded, so that small magnitudes of either sign
+     *  are small. */
+    private static int zigzag(int x) {
+        return (x << 1) ^ (x >> 31);
+    }
+
+    /** Returns the inverse of zigzag(Z). */
+    private static int unzigzag(int z) {
+        return (z >>> 1) ^ -(z & 1);
+    }
+
+    /** Default reference window. */
+    static final int DEFAULT_WINDOW = 7;
+    /** Default maximum reference chain length. */
+    static final int DEFAULT_MAX_REFS = 3;
+    /** Default minimum interval length. */
+    static final int DEFAULT_MIN_INTERVAL = 4;
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** My vertex set. */
+    private final BitSet _vertices;
+    /** My largest vertex. */
+    private final int _maxVertex;
+    /** Number of my vertices. */
+    private final int _vertexCount;
+    /** Number of my edges. */
+    private final int _edgeCount;
+    /** Successor lists. */
+    private final Lists _out;
+    /** Predecessor lists; the same as _out if undirected. */
+    private final Lists _in;
+    /** Per-thread decoders for lookups that need one only briefly. */
+    private final ThreadLocal<Decoder> _decoders =
+        ThreadLocal.withInitial(() -> new Decoder(null));
+}
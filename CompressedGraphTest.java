@@ -0,0 +1,165 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for compressed graphs.
+ *  @author Mina Kim
+ */
+public class CompressedGraphTest {
+
+    /** Parameter sets (window, maxRefs, minInterval) to test. */
+    static final int[][] PARAMS = {
+        { 0, 0, 0 }, { 0, 0, 2 }, { 7, 3, 0 }, { 7, 3, 4 }, { 3, 1, 3 }
+    };
+
+    /** Returns a graph of N vertices with web-like locality: each vertex
+     *  has runs of consecutive successors near it, links shared with its
+     *  predecessor in numbering, and a few random links.  Directed iff
+     *  DIRECTED; vertex 5 is removed. */
+    static Graph webLike(boolean directed, int n, long seed) {
+        Random rand = new Random(seed);
+        Graph G = directed ? new DirectedGraph() : new UndirectedGraph();
+        for (int v = 1; v <= n; v += 1) {
+            G.add();
+        }
+        for (int v = 2; v <= n; v += 1) {
+            int base = Math.max(1, v - rand.nextInt(20));
+            for (int k = 0; k < rand.nextInt(8); k += 1) {
+                G.add(v, Math.min(n, base + k));
+            }
+            for (int w : G.successors(v - 1)) {
+                if (rand.nextInt(3) > 0) {
+                    G.add(v, w);
+                }
+            }
+            G.add(v, 1 + rand.nextInt(n));
+        }
+        G.remove(5);
+        return G;
+    }
+
+    /** Check that COMPRESSED has exactly the structure, neighbors and edge
+     *  ids of the CSR form of G. */
+    static void checkMatches(Graph G, Graph compressed) {
+        CSRGraph csr = CSRGraph.freeze(G);
+        assertEquals("directedness", G.isDirected(), compressed.isDirected());
+        assertEquals("vertex count", G.vertexSize(), compressed.vertexSize());
+        assertEquals("edge count", G.edgeSize(), compressed.edgeSize());
+        assertEquals("max vertex", G.maxVertex(), compressed.maxVertex());
+        assertEquals("edge id bound", csr.edgeIdBound(),
+                     compressed.edgeIdBound());
+        assertEquals("edges", CSRGraphTest.edgeSet(G),
+                     CSRGraphTest.edgeSet(compressed));
+        IntCursor succs = compressed.successorCursor();
+        IntCursor preds = compressed.predecessorCursor();
+        for (int v = 0; v <= G.maxVertex() + 1; v += 1) {
+            assertEquals("contains " + v, G.contains(v),
+                         compressed.contains(v));
+            assertEquals("successors of " + v,
+                         CSRGraphTest.sorted(csr.successors(v)),
+                         CSRGraphTest.sorted(compressed.successors(v)));
+            assertEquals("predecessors of " + v,
+                         CSRGraphTest.sorted(csr.predecessors(v)),
+                         CSRGraphTest.sorted(compressed.predecessors(v)));
+            assertEquals("in degree of " + v, G.inDegree(v),
+                         compressed.inDegree(v));
+            succs.start(v);
+            for (int w : csr.successors(v)) {
+                assertEquals("cursor at " + v, w, succs.next());
+                assertEquals("edge id of " + v + "-" + w,
+                             csr.edgeId(v, w), compressed.edgeId(v, w));
+            }
+            assertFalse("cursor at " + v, succs.hasNext());
+            preds.start(v);
+            for (int w : csr.predecessors(v)) {
+                assertEquals("reverse cursor at " + v, w, preds.next());
+            }
+            assertFalse("reverse cursor at " + v, preds.hasNext());
+        }
+    }
+
+    /** Check directed graphs under each parameter set. */
+    @Test(timeout = 5000)
+    public void compressedDirected() {
+        Graph G = webLike(true, 300, 1);
+        for (int[] p : PARAMS) {
+            checkMatches(G, CompressedGraph.compress(G, p[0], p[1], p[2]));
+        }
+        Graph small = CSRGraphTest.fill(new DirectedGraph());
+        CSRGraphTest.checkSame(small, CompressedGraph.compress(small));
+    }
+
+    /** Check undirected graphs under each parameter set. */
+    @Test(timeout = 5000)
+    public void compressedUndirected() {
+        Graph G = webLike(false, 300, 2);
+        for (int[] p : PARAMS) {
+            checkMatches(G, CompressedGraph.compress(G, p[0], p[1], p[2]));
+        }
+        Graph small = CSRGraphTest.fill(new UndirectedGraph());
+        CSRGraphTest.checkSame(small, CompressedGraph.compress(small));
+    }
+
+    /** Check that an empty graph compresses. */
+    @Test(timeout = 1000)
+    public void compressedEmpty() {
+        Graph G = CompressedGraph.compress(new DirectedGraph());
+        assertEquals("vertices in empty graph", 0, G.vertexSize());
+        assertFalse("edges in empty graph", G.edges().hasNext());
+    }
+
+    /** Check that reference and interval compression pay off on a graph
+     *  with locality. */
+    @Test(timeout = 5000)
+    public void compressionRatio() {
+        Graph G = webLike(true, 2000, 3);
+        CompressedGraph gaps = CompressedGraph.compress(G, 0, 0, 0);
+        CompressedGraph full = CompressedGraph.compress(G);
+        long plain = 32L * (gaps.edgeIdBound() - 1);
+        long gapBits = 8 * gaps.dataBytes(), fullBits = 8 * full.dataBytes();
+        assertTrue("gap coding no smaller than CSR: " + gaps.report(),
+                   gapBits < plain);
+        assertTrue("references and intervals did not help: "
+                   + full.report(), fullBits < gapBits);
+    }
+
+    /** Check that a traversal of a compressed graph visits the same
+     *  vertices in the same order as one of its CSR form. */
+    @Test(timeout = 5000)
+    public void compressedTraversal() {
+        Graph G = webLike(true, 300, 4);
+        assertEquals("wrong traversal", visits(CSRGraph.freeze(G)),
+                     visits(CompressedGraph.compress(G)));
+    }
+
+    /** Returns the vertices visited by a depth-first traversal of G from
+     *  vertex 1, in order. */
+    private static List<Integer> visits(Graph G) {
+        final ArrayList<Integer> result = new ArrayList<>();
+        new DepthFirstTraversal(G) {
+            @Override
+            protected boolean visit(int v) {
+                result.add(v);
+                return true;
+            }
+        }.traverse(1);
+        return result;
+    }
+
+    /** Check that compressed graphs reject modification. */
+    @Test(timeout = 1000, expected = UnsupportedOperationException.class)
+    public void compressedIsImmutable() {
+        CompressedGraph.compress(CSRGraphTest.fill(new DirectedGraph()))
+            .remove(1);
+    }
+}
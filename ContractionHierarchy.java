@@ -0,0 +1,787 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** A contraction hierarchy over a WeightedGraph, for answering many
+ *  point-to-point shortest-path queries on a graph that does not change.
+ *
+ *  Preprocessing contracts the vertices one at a time, least important
+ *  first, giving each its rank in that order.  Contracting v removes it
+ *  from the remaining graph and, for each pair of remaining neighbors
+ *  u -> v -> w, adds a shortcut edge u -> w standing for the two edges,
+ *  unless a witness search from u that avoids v finds a path to w that
+ *  is no longer.  Importance is the edge difference (the shortcuts
+ *  contraction would add, less the edges it would remove) plus the
+ *  number of neighbors already contracted, which spreads contraction
+ *  evenly over the graph.  Priorities are updated lazily: a vertex is
+ *  contracted only if its recomputed priority still beats the rest, and
+ *  is otherwise put back with its new priority.  (Recomputing the
+ *  priorities of all the neighbors of each contracted vertex as well
+ *  made preprocessing half again as slow for little gain.)
+ *
+ *  The edges and shortcuts left at each vertex when it is contracted all
+ *  lead to higher-ranked vertices.  Those leaving it form the upward
+ *  graph, and those entering it the downward graph, each stored in CSR
+ *  form with rows sorted by vertex.  Each edge records the contracted
+ *  vertex it bypasses, or 0 if it is an original edge.  A query searches
+ *  upward from the source and, backward, downward to the destination,
+ *  meeting at the highest vertex of a shortest path, and unpacks the
+ *  shortcuts on the way into a path in the original graph.
+ *
+ *  Hierarchies may be written to and read from files in a little-endian
+ *  binary format, written with GraphFile.Output:
+ *
+ *     Header:  int MAGIC, int VERSION, int maxVertex, int upCount,
+ *              int downCount, int shortcuts, two unused ints.
+ *     RANKS:   int[maxVertex + 1], the rank of each vertex (from 1), or 0
+ *              for vertices not in the graph.
+ *     UP:      int[maxVertex + 2] row offsets, int[upCount] targets,
+ *              int[upCount] bypassed vertices, then (starting at a
+ *              multiple of 8 bytes) double[upCount] weights.
+ *     DOWN:    as for UP, with downCount edges, whose targets are the
+ *              sources of the edges entering each vertex.
+ *
+ *  UP and DOWN each start at a multiple of 8 bytes.  A hierarchy may be
+ *  shared among threads, each making its queries through its own Query.
+ *  @author Mina Kim
+ */
+final class ContractionHierarchy {
+
+    /** Returns the hierarchy of G, whose weights must not be negative. */
+    static ContractionHierarchy build(WeightedGraph G) {
+        return new Contractor(G).contract();
+    }
+
+    /** Returns the hierarchy written to FILE. */
+    static ContractionHierarchy read(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file,
+                                               StandardOpenOption.READ)) {
+            if (in.size() < HEADER_SIZE) {
+                throw new IOException("not a contraction hierarchy: "
+                                      + file);
+            }
+            ByteBuffer header =
+                in.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("not a contraction hierarchy: "
+                                      + file);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("unsupported hierarchy version: "
+                                      + header.getInt(4));
+            }
+            int maxVertex = header.getInt(8);
+            Input data = new Input(in, HEADER_SIZE);
+            int[] ranks = data.getInts(maxVertex + 1);
+            Rows up = Rows.read(data, maxVertex, header.getInt(12));
+            Rows down = Rows.read(data, maxVertex, header.getInt(16));
+            return new ContractionHierarchy(ranks, up, down,
+                                            header.getInt(20));
+        }
+    }
+
+    /** A hierarchy whose vertices have ranks RANKS, with upward and
+     *  downward graphs UP and DOWN, containing SHORTCUTS shortcuts. */
+    private ContractionHierarchy(int[] ranks, Rows up, Rows down,
+                                 int shortcuts) {
+        _maxVertex = ranks.length - 1;
+        _ranks = ranks;
+        _up = up;
+        _down = down;
+        _shortcuts = shortcuts;
+    }
+
+    /** Write me to FILE. */
+    void write(Path file) throws IOException {
+        try (FileChannel out =
+             FileChannel.open(file, StandardOpenOption.CREATE,
+                              StandardOpenOption.WRITE,
+                              StandardOpenOption.TRUNCATE_EXISTING)) {
+            GraphFile.Output data = new GraphFile.Output(out, HEADER_SIZE);
+            data.putInts(_ranks, _maxVertex + 1);
+            _up.write(data);
+            _down.write(data);
+            data.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(_maxVertex)
+                .putInt(_up.size()).putInt(_down.size()).putInt(_shortcuts)
+                .putInt(0).putInt(0);
+            header.rewind();
+            out.write(header, 0);
+        }
+    }
+
+    /** Returns a new query against me, with its own working storage. */
+    Query query() {
+        return new Query(new SearchState());
+    }
+
+    /** Returns a new query against me that uses STATE (which might be
+     *  leased from a SearchState.Pool) as working storage. */
+    Query query(SearchState state) {
+        return new Query(state);
+    }
+
+    /** Returns the rank of V: 1 for the first vertex contracted, and so
+     *  on. */
+    int rank(int v) {
+        checkVertex(v);
+        return _ranks[v];
+    }
+
+    /** Returns the number of shortcuts added in preprocessing. */
+    int shortcuts() {
+        return _shortcuts;
+    }
+
+    /** Returns the number of edges in my upward graph. */
+    int upSize() {
+        return _up.size();
+    }
+
+    /** Returns the number of edges in my downward graph. */
+    int downSize() {
+        return _down.size();
+    }
+
+    /** A point-to-point query, holding the working storage of its
+     *  searches.  A query may be used by one thread at a time. */
+    final class Query {
+
+        /** A query using STATE as working storage. */
+        private Query(SearchState state) {
+            _state = state;
+        }
+
+        /** Returns the length of a shortest path from S to T, or positive
+         *  infinity if there is none, and record the path (see path()). */
+        double distance(int s, int t) {
+            checkVertex(s);
+            checkVertex(t);
+            SearchState state = _state;
+            state.begin(_maxVertex, true);
+            state.beginBackward(_maxVertex);
+            PathFringe fore = state.fringe(), back = state.backFringe();
+            state.reach(s);
+            state.weights()[s] = 0;
+            state.predecessors()[s] = 0;
+            fore.add(s, 0);
+            state.reachBackward(t);
+            state.backWeights()[t] = 0;
+            state.backNext()[t] = 0;
+            back.add(t, 0);
+            _best = Double.POSITIVE_INFINITY;
+            _meet = 0;
+            _settled = 0;
+            while (true) {
+                boolean forward =
+                    !fore.isEmpty() && fore.key(fore.min()) < _best;
+                boolean backward =
+                    !back.isEmpty() && back.key(back.min()) < _best;
+                if (!forward && !backward) {
+                    break;
+                }
+                if (forward && backward) {
+                    forward = fore.key(fore.min()) <= back.key(back.min());
+                }
+                step(forward);
+            }
+            return _best;
+        }
+
+        /** Returns the vertices of the shortest path found by the last
+         *  call to distance, from its source to its destination, or an
+         *  empty list if there was none. */
+        List<Integer> path() {
+            ArrayList<Integer> hops = new ArrayList<>();
+            if (_meet == 0) {
+                return hops;
+            }
+            int[] preds = _state.predecessors(), next = _state.backNext();
+            for (int v = _meet; v != 0; v = preds[v]) {
+                hops.add(v);
+            }
+            Collections.reverse(hops);
+            for (int v = next[_meet]; v != 0; v = next[v]) {
+                hops.add(v);
+            }
+            ArrayList<Integer> result = new ArrayList<>();
+            result.add(hops.get(0));
+            for (int k = 1; k < hops.size(); k += 1) {
+                unpack(hops.get(k - 1), hops.get(k), result);
+            }
+            return result;
+        }
+
+        /** Returns the number of vertices settled by the last call to
+         *  distance, in both directions. */
+        int settled() {
+            return _settled;
+        }
+
+        /** Settle the vertex nearest the source, if FORWARD, and otherwise
+         *  the one nearest the destination, relaxing its edges in the
+         *  upward or downward graph. */
+        private void step(boolean forward) {
+            SearchState state = _state;
+            PathFringe fringe = forward ? state.fringe() : state.backFringe();
+            double[] dist = forward ? state.weights() : state.backWeights();
+            int[] links = forward ? state.predecessors() : state.backNext();
+            Rows rows = forward ? _up : _down;
+            int u = fringe.removeMin();
+            _settled += 1;
+            if (forward ? state.reachedBackward(u) : state.reached(u)) {
+                double d = state.weights()[u] + state.backWeights()[u];
+                if (d < _best) {
+                    _best = d;
+                    _meet = u;
+                }
+            }
+            double du = dist[u];
+            for (int k = rows._offsets[u]; k < rows._offsets[u + 1];
+                 k += 1) {
+                int v = rows._targets[k];
+                double d = du + rows._weights[k];
+                boolean seen =
+                    forward ? state.reached(v) : state.reachedBackward(v);
+                if (!seen || d < dist[v]) {
+                    if (forward) {
+                        state.reach(v);
+                    } else {
+                        state.reachBackward(v);
+                    }
+                    dist[v] = d;
+                    links[v] = u;
+                    fringe.addOrDecrease(v, d);
+                }
+            }
+        }
+
+        /** Working storage. */
+        private final SearchState _state;
+        /** Length of the shortest path found so far. */
+        private double _best;
+        /** Highest vertex of that path, or 0. */
+        private int _meet;
+        /** Vertices settled in the last query. */
+        private int _settled;
+    }
+
+    /** Check that V is one of my vertices. */
+    private void checkVertex(int v) {
+        if (v <= 0 || v > _maxVertex || _ranks[v] == 0) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    /** Append to PATH the vertices after A of the path in the original
+     *  graph for which edge (A, B) of the hierarchy stands. */
+    private void unpack(int a, int b, List<Integer> path) {
+        IntFringe.Stack pairs = new IntFringe.Stack();
+        pairs.add(a);
+        pairs.add(b);
+        while (!pairs.isEmpty()) {
+            int y = pairs.remove(), x = pairs.remove();
+            int mid = bypassed(x, y);
+            if (mid == 0) {
+                path.add(y);
+            } else {
+                pairs.add(mid);
+                pairs.add(y);
+                pairs.add(x);
+                pairs.add(mid);
+            }
+        }
+    }
+
+    /** Returns the vertex bypassed by edge (U, V) of the hierarchy, or 0
+     *  if it is an original edge. */
+    private int bypassed(int u, int v) {
+        int k;
+        if (_ranks[u] < _ranks[v]) {
+            k = _up.find(u, v);
+            return k < 0 ? missing() : _up._middles[k];
+        } else {
+            k = _down.find(v, u);
+            return k < 0 ? missing() : _down._middles[k];
+        }
+    }
+
+    /** Report an edge missing from the hierarchy. */
+    private static int missing() {
+        throw new IllegalStateException("edge missing from hierarchy");
+    }
+
+    /** One direction of a hierarchy, in CSR form: the edges in the row of
+     *  each vertex, sorted by the vertex at their other ends, with their
+     *  weights and bypassed vertices. */
+    private static final class Rows {
+
+        /** Rows with the given contents, which become mine. */
+        Rows(int[] offsets, int[] targets, double[] weights,
+             int[] middles) {
+            _offsets = offsets;
+            _targets = targets;
+            _weights = weights;
+            _middles = middles;
+        }
+
+        /** Returns the rows holding the contents of EDGES, indexed by
+         *  vertex, where null denotes an empty row. */
+        static Rows pack(Edges[] edges) {
+            int maxVertex = edges.length - 1;
+            int[] offsets = new int[maxVertex + 2];
+            for (int v = 1; v <= maxVertex; v += 1) {
+                int n = edges[v] == null ? 0 : edges[v].size();
+                offsets[v + 1] = offsets[v] + n;
+            }
+            int total = offsets[maxVertex + 1];
+            int[] targets = new int[total], middles = new int[total];
+            double[] weights = new double[total];
+            for (int v = 1; v <= maxVertex; v += 1) {
+                if (edges[v] != null) {
+                    edges[v].sort();
+                    edges[v].copyTo(targets, weights, middles, offsets[v]);
+                }
+            }
+            return new Rows(offsets, targets, weights, middles);
+        }
+
+        /** Returns rows of N edges over vertices up to MAXVERTEX, read
+         *  from DATA. */
+        static Rows read(Input data, int maxVertex, int n)
+            throws IOException {
+            data.align();
+            int[] offsets = data.getInts(maxVertex + 2);
+            int[] targets = data.getInts(n);
+            int[] middles = data.getInts(n);
+            data.align();
+            double[] weights = data.getDoubles(n);
+            return new Rows(offsets, targets, weights, middles);
+        }
+
+        /** Write me to DATA. */
+        void write(GraphFile.Output data) throws IOException {
+            data.align();
+            data.putInts(_offsets, _offsets.length);
+            data.putInts(_targets, _targets.length);
+            data.putInts(_middles, _middles.length);
+            data.align();
+            data.putDoubles(_weights, _weights.length);
+        }
+
+        /** Returns the position of the edge to V in the row of U, or -1 if
+         *  there is none. */
+        int find(int u, int v) {
+            int k = Arrays.binarySearch(_targets, _offsets[u],
+                                                  _offsets[u + 1], v);
+            return k < 0 ? -1 : k;
+        }
+
+        /** Returns the number of edges in me. */
+        int size() {
+            return _targets.length;
+        }
+
+        /** Row offsets. */
+        private final int[] _offsets;
+        /** The vertices at the other ends of the edges. */
+        private final int[] _targets;
+        /** Edge weights. */
+        private final double[] _weights;
+        /** Vertices bypassed by shortcuts, or 0. */
+        private final int[] _middles;
+    }
+
+    /** The edges at one end of a vertex during contraction: an unsorted,
+     *  growable list of other ends, with weights and bypassed vertices,
+     *  holding at most one edge to each vertex. */
+    private static final class Edges {
+
+        /** Returns the number of edges in me. */
+        int size() {
+            return _size;
+        }
+
+        /** Returns the other end of edge K. */
+        int target(int k) {
+            return _targets[k];
+        }
+
+        /** Returns the weight of edge K. */
+        double weight(int k) {
+            return _weights[k];
+        }
+
+        /** Returns the position of the edge to V, or -1. */
+        int find(int v) {
+            for (int k = 0; k < _size; k += 1) {
+                if (_targets[k] == v) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        /** Add an edge to V of weight W bypassing MID, or, if there is
+         *  already an edge to V, replace it if it is heavier. */
+        void put(int v, double w, int mid) {
+            int k = find(v);
+            if (k >= 0) {
+                if (w < _weights[k]) {
+                    _weights[k] = w;
+                    _middles[k] = mid;
+                }
+                return;
+            }
+            if (_size == _targets.length) {
+                int n = Math.max(INITIAL_SIZE, 2 * _size);
+                _targets = Arrays.copyOf(_targets, n);
+                _weights = Arrays.copyOf(_weights, n);
+                _middles = Arrays.copyOf(_middles, n);
+            }
+            _targets[_size] = v;
+            _weights[_size] = w;
+            _middles[_size] = mid;
+            _size += 1;
+        }
+
+        /** Remove the edge to V, if any. */
+        void remove(int v) {
+            int k = find(v);
+            if (k >= 0) {
+                _size -= 1;
+                _targets[k] = _targets[_size];
+                _weights[k] = _weights[_size];
+                _middles[k] = _middles[_size];
+            }
+        }
+
+        /** Sort my edges by their other ends. */
+        void sort() {
+            for (int i = 1; i < _size; i += 1) {
+                int v = _targets[i], mid = _middles[i];
+                double w = _weights[i];
+                int k;
+                for (k = i; k > 0 && _targets[k - 1] > v; k -= 1) {
+                    _targets[k] = _targets[k - 1];
+                    _weights[k] = _weights[k - 1];
+                    _middles[k] = _middles[k - 1];
+                }
+                _targets[k] = v;
+                _weights[k] = w;
+                _middles[k] = mid;
+            }
+        }
+
+        /** Copy my edges into TARGETS, WEIGHTS, and MIDDLES, starting at
+         *  position POS. */
+        void copyTo(int[] targets, double[] weights, int[] middles,
+                    int pos) {
+            System.arraycopy(_targets, 0, targets, pos, _size);
+            System.arraycopy(_weights, 0, weights, pos, _size);
+            System.arraycopy(_middles, 0, middles, pos, _size);
+        }
+
+        /** Other ends. */
+        private int[] _targets = AdjacencyLists.EMPTY;
+        /** Weights. */
+        private double[] _weights = new double[0];
+        /** Bypassed vertices, or 0. */
+        private int[] _middles = AdjacencyLists.EMPTY;
+        /** Number of edges. */
+        private int _size;
+    }
+
+    /** The state of preprocessing: the graph that remains, with the
+     *  shortcuts added so far, and the parts of the hierarchy built. */
+    private static final class Contractor {
+
+        /** Preprocessing for G. */
+        Contractor(WeightedGraph G) {
+            CSRGraph csr = G.graph();
+            int maxVertex = csr.maxVertex();
+            _G = csr;
+            _out = new Edges[maxVertex + 1];
+            _in = new Edges[maxVertex + 1];
+            _up = new Edges[maxVertex + 1];
+            _down = new Edges[maxVertex + 1];
+            _ranks = new int[maxVertex + 1];
+            _deleted = new int[maxVertex + 1];
+            _dist = new double[maxVertex + 1];
+            _stamps = new int[maxVertex + 1];
+            _targets = new int[maxVertex + 1];
+            _fringe = new PathFringe.DAry();
+            for (int v = csr.nextVertex(0); v != 0; v = csr.nextVertex(v)) {
+                _out[v] = new Edges();
+                _in[v] = new Edges();
+            }
+            int[] offsets = csr.offsets(), targets = csr.targets();
+            double[] weights = G.weights();
+            for (int u = csr.nextVertex(0); u != 0; u = csr.nextVertex(u)) {
+                for (int k = offsets[u]; k < offsets[u + 1]; k += 1) {
+                    int v = targets[k];
+                    if (weights[k] < 0) {
+                        throw new IllegalArgumentException("negative weight");
+                    }
+                    if (v != u) {
+                        _out[u].put(v, weights[k], 0);
+                        _in[v].put(u, weights[k], 0);
+                    }
+                }
+            }
+        }
+
+        /** Contract every vertex, and return the resulting hierarchy. */
+        ContractionHierarchy contract() {
+            PathFringe order = new PathFringe.DAry();
+            order.clear(_ranks.length - 1);
+            for (int v = _G.nextVertex(0); v != 0; v = _G.nextVertex(v)) {
+                order.add(v, priority(v));
+            }
+            int rank;
+            rank = 1;
+            while (!order.isEmpty()) {
+                int v = order.removeMin();
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.key(order.min())) {
+                    order.add(v, p);
+                    continue;
+                }
+                _ranks[v] = rank;
+                rank += 1;
+                contract(v);
+                Edges up = _up[v], down = _down[v];
+                for (int k = 0; k < up.size(); k += 1) {
+                    _deleted[up.target(k)] += 1;
+                }
+                for (int k = 0; k < down.size(); k += 1) {
+                    if (up.find(down.target(k)) < 0) {
+                        _deleted[down.target(k)] += 1;
+                    }
+                }
+            }
+            return new ContractionHierarchy(_ranks, Rows.pack(_up),
+                                            Rows.pack(_down), _shortcuts);
+        }
+
+        /** Returns the priority of V: the lower, the sooner it is
+         *  contracted. */
+        private double priority(int v) {
+            return shortcuts(v, false) - _out[v].size() - _in[v].size()
+                + _deleted[v];
+        }
+
+        /** Remove V from the remaining graph, adding the shortcuts needed
+         *  to replace it, and record its edges in the hierarchy. */
+        private void contract(int v) {
+            _shortcuts += shortcuts(v, true);
+            Edges out = _out[v], in = _in[v];
+            for (int k = 0; k < out.size(); k += 1) {
+                _in[out.target(k)].remove(v);
+            }
+            for (int k = 0; k < in.size(); k += 1) {
+                _out[in.target(k)].remove(v);
+            }
+            _up[v] = out;
+            _down[v] = in;
+            _out[v] = _in[v] = null;
+        }
+
+        /** Returns the number of shortcuts needed to contract V, adding
+         *  them to the remaining graph iff ADD. */
+        private int shortcuts(int v, boolean add) {
+            Edges in = _in[v], out = _out[v];
+            int count;
+            count = 0;
+            for (int i = 0; i < in.size(); i += 1) {
+                int u = in.target(i);
+                double toV = in.weight(i);
+                double limit = -1;
+                for (int j = 0; j < out.size(); j += 1) {
+                    if (out.target(j) != u) {
+                        limit = Math.max(limit, toV + out.weight(j));
+                    }
+                }
+                if (limit < 0) {
+                    continue;
+                }
+                witnesses(u, v, limit, out);
+                for (int j = 0; j < out.size(); j += 1) {
+                    int w = out.target(j);
+                    double via = toV + out.weight(j);
+                    if (w == u || _stamps[w] == _epoch && _dist[w] <= via) {
+                        continue;
+                    }
+                    count += 1;
+                    if (add) {
+                        _out[u].put(w, via, v);
+                        _in[w].put(u, via, v);
+                    }
+                }
+            }
+            return count;
+        }
+
+        /** Search the remaining graph, less V, from U for paths no longer
+         *  than LIMIT to the other ends of TARGETS, settling at most
+         *  WITNESS_LIMIT vertices, and leave the distances found in _dist
+         *  for the vertices stamped with _epoch. */
+        private void witnesses(int u, int v, double limit, Edges targets) {
+            if (_epoch == Integer.MAX_VALUE) {
+                Arrays.fill(_stamps, 0);
+                Arrays.fill(_targets, 0);
+                _epoch = 0;
+            }
+            _epoch += 1;
+            int wanted;
+            wanted = 0;
+            for (int k = 0; k < targets.size(); k += 1) {
+                int w = targets.target(k);
+                if (w != u && _targets[w] != _epoch) {
+                    _targets[w] = _epoch;
+                    wanted += 1;
+                }
+            }
+            PathFringe fringe = _fringe;
+            fringe.clear(_stamps.length - 1);
+            _stamps[u] = _epoch;
+            _dist[u] = 0;
+            fringe.add(u, 0);
+            int settled;
+            settled = 0;
+            while (!fringe.isEmpty() && settled < WITNESS_LIMIT
+                   && wanted > 0) {
+                int x = fringe.removeMin();
+                settled += 1;
+                double dx = _dist[x];
+                if (dx > limit) {
+                    break;
+                }
+                if (_targets[x] == _epoch) {
+                    wanted -= 1;
+                }
+                Edges out = _out[x];
+                for (int k = 0; k < out.size(); k += 1) {
+                    int y = out.target(k);
+                    double d = dx + out.weight(k);
+                    if (y != v && (_stamps[y] != _epoch || d < _dist[y])) {
+                        _stamps[y] = _epoch;
+                        _dist[y] = d;
+                        fringe.addOrDecrease(y, d);
+                    }
+                }
+            }
+        }
+
+        /** The graph being contracted. */
+        private final CSRGraph _G;
+        /** Edges leaving each remaining vertex. */
+        private final Edges[] _out;
+        /** Edges entering each remaining vertex. */
+        private final Edges[] _in;
+        /** Upward edges of each contracted vertex. */
+        private final Edges[] _up;
+        /** Downward edges of each contracted vertex. */
+        private final Edges[] _down;
+        /** Rank of each contracted vertex. */
+        private final int[] _ranks;
+        /** Number of contracted neighbors of each vertex. */
+        private final int[] _deleted;
+        /** Distances found by the current witness search. */
+        private final double[] _dist;
+        /** Witness search that last reached each vertex. */
+        private final int[] _stamps;
+        /** Witness search that last sought each vertex. */
+        private final int[] _targets;
+        /** The current witness search. */
+        private int _epoch;
+        /** Fringe of witness searches. */
+        private final PathFringe _fringe;
+        /** Shortcuts added so far. */
+        private int _shortcuts;
+    }
+
+    /** Sequential little-endian input from a FileChannel. */
+    private static final class Input {
+        /** Input from IN, starting at byte position POS. */
+        Input(FileChannel in, long pos) {
+            _in = in;
+            _pos = pos;
+        }
+
+        /** Skip to a multiple of 8 bytes. */
+        void align() {
+            _pos = (_pos + 7) & ~7L;
+        }
+
+        /** Read and return N ints. */
+        int[] getInts(int n) throws IOException {
+            int[] result = new int[n];
+            map(4L * n).asIntBuffer().get(result);
+            return result;
+        }
+
+        /** Read and return N doubles. */
+        double[] getDoubles(int n) throws IOException {
+            double[] result = new double[n];
+            map(8L * n).asDoubleBuffer().get(result);
+            return result;
+        }
+
+        /** Returns the next SIZE bytes, and skip them. */
+        private ByteBuffer map(long size) throws IOException {
+            if (_pos + size > _in.size()) {
+                throw new IOException("truncated hierarchy file");
+            }
+            ByteBuffer result =
+                _in.map(FileChannel.MapMode.READ_ONLY, _pos, size)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            _pos += size;
+            return result;
+        }
+
+        /** Source. */
+        private final FileChannel _in;
+        /** File position of the next byte read. */
+        private long _pos;
+    }
+
+    /** Identifies hierarchy files ("CHRY"). */
+    static final int MAGIC = 0x59524843;
+    /** Format version. */
+    static final int VERSION = 1;
+    /** Size of the header in bytes. */
+    static final int HEADER_SIZE = 32;
+    /** Capacity allocated on the first addition to an Edges. */
+    private static final int INITIAL_SIZE = 4;
+    /** Most vertices settled by one witness search.  Searches cut short
+     *  may add shortcuts that are not needed, but never omit one that
+     *  is. */
+    private static final int WITNESS_LIMIT = 500;
+
+    /** Largest vertex number. */
+    private final int _maxVertex;
+    /** Rank of each vertex, or 0 for non-vertices. */
+    private final int[] _ranks;
+    /** Upward graph: edges to higher-ranked vertices, by source. */
+    private final Rows _up;
+    /** Downward graph: edges from higher-ranked vertices, by target. */
+    private final Rows _down;
+    /** Number of shortcuts. */
+    private final int _shortcuts;
+}
@@ -0,0 +1,172 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for contraction hierarchies.
+ *  @author Mina Kim
+ */
+public class ContractionHierarchyTest {
+
+    /** Check that queries through Q on W, from each of SOURCES to every
+     *  vertex, agree with the sequential search, and that their paths
+     *  are paths in W of the lengths reported. */
+    static void check(WeightedGraph W, ContractionHierarchy.Query Q,
+                      int... sources) {
+        Graph G = W.graph();
+        for (int s : sources) {
+            ShortestPaths seq = new WeightedShortestPaths(W, s);
+            seq.setPaths();
+            for (int t = G.nextVertex(0); t != 0; t = G.nextVertex(t)) {
+                double d = Q.distance(s, t);
+                assertEquals("wrong distance", seq.getWeight(t), d, 1e-9);
+                List<Integer> path = Q.path();
+                if (d == Double.POSITIVE_INFINITY) {
+                    assertTrue("path to unreachable vertex", path.isEmpty());
+                    continue;
+                }
+                assertEquals("path starts wrong", s, (int) path.get(0));
+                assertEquals("path ends wrong", t,
+                             (int) path.get(path.size() - 1));
+                double length;
+                length = 0;
+                for (int k = 1; k < path.size(); k += 1) {
+                    length += W.weight(path.get(k - 1), path.get(k));
+                }
+                assertEquals("wrong path length", d, length, 1e-9);
+            }
+        }
+    }
+
+    /** Check queries on random directed and undirected graphs. */
+    @Test(timeout = 20000)
+    public void agreesWithDijkstra() {
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph G = ParallelBFSTest.random(directed, 600, 1500, 41);
+            WeightedGraph W =
+                DeltaSteppingTest.weigh(G, new Random(42), true);
+            ContractionHierarchy H = ContractionHierarchy.build(W);
+            check(W, H.query(), 1, 3, 300, 600);
+        }
+    }
+
+    /** Check that a grid, which needs many shortcuts, is answered
+     *  correctly, and with much smaller searches than Dijkstra's. */
+    @Test(timeout = 20000)
+    public void grid() {
+        int width = 40;
+        int nv = width * width;
+        int[] src = new int[2 * nv], dst = new int[2 * nv];
+        double[] weights = new double[2 * nv];
+        Random rand = new Random(43);
+        int m;
+        m = 0;
+        for (int v = 1; v <= nv; v += 1) {
+            if (v % width != 0) {
+                src[m] = v;
+                dst[m] = v + 1;
+                weights[m] = 1 + rand.nextInt(9);
+                m += 1;
+            }
+            if (v + width <= nv) {
+                src[m] = v;
+                dst[m] = v + width;
+                weights[m] = 1 + rand.nextInt(9);
+                m += 1;
+            }
+        }
+        WeightedGraph W =
+            WeightedGraph.load(false, nv, Arrays.copyOf(src, m),
+                               Arrays.copyOf(dst, m),
+                               Arrays.copyOf(weights, m));
+        ContractionHierarchy H = ContractionHierarchy.build(W);
+        assertTrue("no shortcuts", H.shortcuts() > 0);
+        ContractionHierarchy.Query Q = H.query(new SearchState());
+        check(W, Q, 1, nv / 2 + width / 2, nv);
+        Q.distance(1, nv);
+        assertTrue("query searched too much", Q.settled() < nv / 4);
+    }
+
+    /** Check that a hierarchy read back from a file answers as the
+     *  original did. */
+    @Test(timeout = 20000)
+    public void persistence() throws IOException {
+        Graph G = ParallelBFSTest.random(true, 500, 1500, 44);
+        WeightedGraph W = DeltaSteppingTest.weigh(G, new Random(45), false);
+        ContractionHierarchy H = ContractionHierarchy.build(W);
+        Path file = Files.createTempFile("hierarchy", ".bin");
+        try {
+            H.write(file);
+            ContractionHierarchy R = ContractionHierarchy.read(file);
+            assertEquals("wrong shortcuts", H.shortcuts(), R.shortcuts());
+            assertEquals("wrong size", H.upSize(), R.upSize());
+            for (int v = G.nextVertex(0); v != 0; v = G.nextVertex(v)) {
+                assertEquals("wrong rank", H.rank(v), R.rank(v));
+            }
+            check(W, R.query(), 1, 250);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Check that reading a file that is not a hierarchy fails. */
+    @Test(timeout = 1000, expected = IOException.class)
+    public void notAHierarchy() throws IOException {
+        Path file = Files.createTempFile("hierarchy", ".bin");
+        try {
+            Files.write(file, new byte[] { 1, 2, 3 });
+            ContractionHierarchy.read(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Returns a small directed graph with a removed vertex, 6, and a
+     *  zero-weight edge. */
+    private static WeightedGraph small() {
+        DirectedGraph G = new DirectedGraph();
+        for (int k = 0; k < 6; k += 1) {
+            G.add();
+        }
+        G.add(1, 2);
+        G.add(2, 3);
+        G.add(3, 1);
+        G.add(4, 5);
+        G.add(1, 1);
+        G.remove(6);
+        return WeightedGraph.of(G, (u, v) -> u == 2 ? 0 : 1);
+    }
+
+    /** Check trivial and unreachable queries, and zero weights. */
+    @Test(timeout = 1000)
+    public void edgeCases() {
+        WeightedGraph W = small();
+        ContractionHierarchy.Query Q = ContractionHierarchy.build(W).query();
+        assertEquals("wrong distance", 0.0, Q.distance(3, 3), 0.0);
+        assertEquals("wrong path", List.of(3), Q.path());
+        assertEquals("wrong distance", 1.0, Q.distance(1, 3), 0.0);
+        assertEquals("wrong path", List.of(1, 2, 3), Q.path());
+        assertEquals("reached unreachable", Double.POSITIVE_INFINITY,
+                     Q.distance(1, 5), 0.0);
+        assertTrue("path to unreachable", Q.path().isEmpty());
+        check(W, Q, 1, 2, 3, 4, 5);
+    }
+
+    /** Check that removed vertices may not be queried. */
+    @Test(timeout = 1000, expected = IllegalArgumentException.class)
+    public void removedVertex() {
+        ContractionHierarchy.build(small()).query().distance(1, 6);
+    }
+}
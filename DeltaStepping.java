@@ -0,0 +1,425 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/** Single-source shortest paths through a WeightedGraph by parallel delta
+ *  stepping, after Meyer and Sanders.  Vertices are kept in buckets by
+ *  tentative distance, bucket i holding those in [i * delta,
+ *  (i + 1) * delta).  The smallest nonempty bucket is emptied repeatedly
+ *  by relaxing the light edges (of weight at most delta) of its vertices,
+ *  which may refill it, and then the heavy edges of all the vertices
+ *  removed from it are relaxed once.  Each relaxation phase is divided
+ *  among tasks in a ForkJoinPool, which lower distances with an atomic
+ *  compare-and-set minimum.  A small delta approaches Dijkstra's
+ *  algorithm, with little parallelism; a large one approaches
+ *  Bellman-Ford, with much wasted work.  Unless set, delta is the largest
+ *  weight divided by the average out-degree (but no less than the
+ *  smallest positive weight).
+ *
+ *  Predecessors are chosen once the distances are final, by a
+ *  breadth-first search from the source over tight edges (those (u, v)
+ *  with dist(u) + weight(u, v) == dist(v)), so that they form a tree even
+ *  where zero-weight edges make cycles of tight edges.
+ *
+ *  As Meyer and Sanders do, the buckets are a cyclic array, indexed by
+ *  bucket number modulo its length, ceil(maxWeight / delta) + 1, which
+ *  covers every bucket a relaxation can reach from the current one.  So
+ *  that a small delta does not make the array huge, its length is capped;
+ *  vertices beyond its reach wait in a heap until the current bucket
+ *  approaches them, and empty stretches of buckets are skipped.
+ *
+ *  Results are read as for any ShortestPaths, and are the same as those
+ *  of the sequential search up to the choice among equally short paths.
+ *  Searches always find the whole tree; there is no destination.  Weights
+ *  must be non-negative, and the graph must not change during a search.
+ *  @author Mina Kim
+ */
+final class DeltaStepping extends ShortestPaths {
+
+    /** The shortest paths in G from SOURCE, using the common fork-join
+     *  pool. */
+    DeltaStepping(WeightedGraph G, int source) {
+        this(G, source, ForkJoinPool.commonPool());
+    }
+
+    /** The shortest paths in G from SOURCE, using POOL. */
+    DeltaStepping(WeightedGraph G, int source, ForkJoinPool pool) {
+        super(G.graph(), source);
+        _W = G;
+        _csr = G.graph();
+        _pool = pool;
+        _dist = new double[0];
+        _preds = AdjacencyLists.EMPTY;
+    }
+
+    /** Use DELTA as the bucket width, or choose it from the weights if
+     *  DELTA is 0.  Returns me. */
+    DeltaStepping setDelta(double delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("negative delta");
+        }
+        _delta = delta;
+        return this;
+    }
+
+    /** Returns the bucket width used by the last search. */
+    double delta() {
+        return _lastDelta;
+    }
+
+    /** Returns the number of buckets emptied by the last search. */
+    int buckets() {
+        return _buckets;
+    }
+
+    @Override
+    public void setPaths() {
+        _csr.checkMyVertex(getSource());
+        int maxVertex = _csr.maxVertex();
+        _dist = new double[maxVertex + 1];
+        _preds = new int[maxVertex + 1];
+        _queued = new long[maxVertex + 1];
+        Arrays.fill(_dist, Double.POSITIVE_INFINITY);
+        _lastDelta = _delta > 0 ? _delta : chooseDelta();
+        _buckets = 0;
+        _slots = new IntFringe.Stack[(int) Math.min(MAX_SLOTS,
+            Math.ceil(maxWeight() / _lastDelta) + 1)];
+        _occupied = 0;
+        _overflow = new PathFringe.DAry();
+        _overflow.clear(maxVertex);
+
+        int source = getSource();
+        _dist[source] = 0;
+        insert(source, 0);
+        IntFringe.Stack removed = new IntFringe.Stack();
+        long i = 0;
+        while (true) {
+            drain(i);
+            if (_occupied == 0) {
+                int v = nextOverflow();
+                if (v == 0) {
+                    break;
+                }
+                i = bucketOf(_overflow.key(v));
+                continue;
+            }
+            int slot = (int) (i % _slots.length);
+            IntFringe.Stack bucket = _slots[slot];
+            if (bucket == null) {
+                i += 1;
+                continue;
+            }
+            _buckets += 1;
+            while (!bucket.isEmpty()) {
+                int[] current = take(bucket, i, removed);
+                int[] lowered = relax(current, _count, true);
+                insert(lowered, _count, i);
+            }
+            _slots[slot] = null;
+            _occupied -= 1;
+            int[] settled = take(removed, -1, null);
+            int[] lowered = relax(settled, _count, false);
+            insert(lowered, _count, i);
+            if (_slots[slot] == null) {
+                i += 1;
+            }
+        }
+        setPredecessors();
+        _queued = null;
+        _slots = null;
+        _overflow = null;
+    }
+
+    @Override
+    public double getWeight(int v) {
+        return v > 0 && v < _dist.length ? _dist[v]
+            : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    protected void setWeight(int v, double w) {
+        _dist[v] = w;
+    }
+
+    @Override
+    public int getPredecessor(int v) {
+        return v > 0 && v < _preds.length ? _preds[v] : 0;
+    }
+
+    @Override
+    protected void setPredecessor(int v, int u) {
+        _preds[v] = u;
+    }
+
+    @Override
+    protected double getWeight(int u, int v) {
+        return _W.weight(u, v);
+    }
+
+    /** Returns the default delta for my graph (see the class comment). */
+    private double chooseDelta() {
+        double max, min;
+        max = 0;
+        min = Double.POSITIVE_INFINITY;
+        for (double w : _W.weights()) {
+            if (w > 0) {
+                max = Math.max(max, w);
+                min = Math.min(min, w);
+            }
+        }
+        if (max == 0) {
+            return 1;
+        }
+        double degree =
+            (double) _csr.targets().length / Math.max(1, _csr.vertexSize());
+        return Math.max(min, max / Math.max(1, degree));
+    }
+
+    /** Returns the largest weight in my graph. */
+    private double maxWeight() {
+        double max;
+        max = 0;
+        for (double w : _W.weights()) {
+            max = Math.max(max, w);
+        }
+        return max;
+    }
+
+    /** Returns the number of the bucket for distance D. */
+    private long bucketOf(double d) {
+        return (long) Math.min(MAX_BUCKET, d / _lastDelta);
+    }
+
+    /** Put the vertices VS[0 .. N-1] into the buckets for their
+     *  distances, each at most once per bucket, or into the overflow if
+     *  their buckets are not within reach of the current bucket, I. */
+    private void insert(int[] vs, int n, long i) {
+        for (int k = 0; k < n; k += 1) {
+            insert(vs[k], i);
+        }
+    }
+
+    /** Put V into the bucket for its distance, unless it is already
+     *  there, or into the overflow if that bucket is not within reach of
+     *  the current bucket, I. */
+    private void insert(int v, long i) {
+        long b = bucketOf(_dist[v]);
+        if (b - i >= _slots.length) {
+            _queued[v] = -1;
+            _overflow.addOrDecrease(v, _dist[v]);
+        } else if (_queued[v] != b + 1) {
+            _queued[v] = b + 1;
+            int slot = (int) (b % _slots.length);
+            if (_slots[slot] == null) {
+                _slots[slot] = new IntFringe.Stack();
+                _occupied += 1;
+            }
+            _slots[slot].add(v);
+        }
+    }
+
+    /** Returns the overflow vertex of smallest distance, or 0 if there
+     *  is none, first discarding vertices that have since been lowered
+     *  into the buckets.  (A vertex, once in the buckets, is never again
+     *  beyond their reach, since its distance only falls.) */
+    private int nextOverflow() {
+        while (!_overflow.isEmpty()) {
+            int v = _overflow.min();
+            if (_queued[v] == -1) {
+                return v;
+            }
+            _overflow.removeMin();
+        }
+        return 0;
+    }
+
+    /** Move the overflow vertices whose buckets are within reach of the
+     *  current bucket, I, into the buckets. */
+    private void drain(long i) {
+        for (int v = nextOverflow();
+             v != 0 && bucketOf(_overflow.key(v)) - i < _slots.length;
+             v = nextOverflow()) {
+            _overflow.removeMin();
+            _queued[v] = 0;
+            insert(v, i);
+        }
+    }
+
+    /** Remove and return the contents of BUCKET, leaving their number in
+     *  _count.  If B is not negative, BUCKET is bucket number B, and
+     *  vertices that have since moved to other buckets are dropped, and
+     *  the others are added to REMOVED. */
+    private int[] take(IntFringe.Stack bucket, long b,
+                       IntFringe.Stack removed) {
+        int[] result = new int[Math.max(1, bucket.size())];
+        int n;
+        n = 0;
+        while (!bucket.isEmpty()) {
+            int v = bucket.remove();
+            if (b >= 0) {
+                if (_queued[v] != b + 1) {
+                    continue;
+                }
+                _queued[v] = 0;
+                removed.add(v);
+            }
+            result[n] = v;
+            n += 1;
+        }
+        _count = n;
+        return result;
+    }
+
+    /** Relax the light edges of VS[0 .. N-1] if LIGHT, and otherwise
+     *  their heavy edges, in parallel.  Returns the vertices whose
+     *  distances fell, leaving their number in _count.  A vertex may
+     *  appear more than once. */
+    private int[] relax(int[] vs, int n, boolean light) {
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        int[][] found = new int[chunks][];
+        int[] counts = new int[chunks];
+        int[] offsets = _csr.offsets(), targets = _csr.targets();
+        double[] weights = _W.weights();
+        double delta = _lastDelta;
+        inParallel(chunks, c -> {
+            int[] buf = AdjacencyLists.EMPTY;
+            int m;
+            m = 0;
+            for (int k = c * CHUNK, end = Math.min(n, k + CHUNK); k < end;
+                 k += 1) {
+                int u = vs[k];
+                double du = _dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e += 1) {
+                    double w = weights[e];
+                    if ((w <= delta) != light) {
+                        continue;
+                    }
+                    int v = targets[e];
+                    if (lower(v, du + w)) {
+                        if (m == buf.length) {
+                            buf = Arrays.copyOf(buf, Math.max(16, 2 * m));
+                        }
+                        buf[m] = v;
+                        m += 1;
+                    }
+                }
+            }
+            found[c] = buf;
+            counts[c] = m;
+        });
+        return gather(found, counts);
+    }
+
+    /** Returns the concatenation of FOUND[c][0 .. COUNTS[c]-1] for all c,
+     *  leaving its length in _count. */
+    private int[] gather(int[][] found, int[] counts) {
+        int total;
+        total = 0;
+        for (int m : counts) {
+            total += m;
+        }
+        int[] result = new int[Math.max(1, total)];
+        int pos;
+        pos = 0;
+        for (int c = 0; c < found.length; c += 1) {
+            System.arraycopy(found[c], 0, result, pos, counts[c]);
+            pos += counts[c];
+        }
+        _count = total;
+        return result;
+    }
+
+    /** Lower the distance of V to D, if that is smaller, atomically.
+     *  Returns true iff it was lowered. */
+    private boolean lower(int v, double d) {
+        double old = _dist[v];
+        while (d < old) {
+            if (DIST.compareAndSet(_dist, v, old, d)) {
+                return true;
+            }
+            old = _dist[v];
+        }
+        return false;
+    }
+
+    /** Set the predecessor of each reached vertex but the source to the
+     *  vertex from which a breadth-first search over tight edges from
+     *  the source first reaches it.  Requires final distances. */
+    private void setPredecessors() {
+        int[] offsets = _csr.offsets(), targets = _csr.targets();
+        double[] weights = _W.weights();
+        int source = getSource();
+        IntFringe.Ring fringe = new IntFringe.Ring();
+        fringe.add(source);
+        while (!fringe.isEmpty()) {
+            int u = fringe.remove();
+            double du = _dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e += 1) {
+                int v = targets[e];
+                if (v != source && _preds[v] == 0
+                    && du + weights[e] == _dist[v]) {
+                    _preds[v] = u;
+                    fringe.add(v);
+                }
+            }
+        }
+    }
+
+    /** Perform BODY on 0 .. CHUNKS-1, in parallel in my pool, returning
+     *  when all are done. */
+    private void inParallel(int chunks, IntConsumer body) {
+        if (chunks <= 1) {
+            IntStream.range(0, chunks).forEach(body);
+        } else {
+            _pool.submit(() -> IntStream.range(0, chunks).parallel()
+                         .forEach(body)).join();
+        }
+    }
+
+    /** Atomic access to the elements of _dist. */
+    private static final VarHandle DIST =
+        MethodHandles.arrayElementVarHandle(double[].class);
+    /** Number of vertices handled by one task. */
+    private static final int CHUNK = 256;
+    /** Largest number of buckets in the cyclic array. */
+    private static final int MAX_SLOTS = 1 << 16;
+    /** Largest bucket number. */
+    private static final long MAX_BUCKET = 1L << 62;
+
+    /** The graph searched. */
+    private final WeightedGraph _W;
+    /** Its structure. */
+    private final CSRGraph _csr;
+    /** Pool running the tasks. */
+    private final ForkJoinPool _pool;
+    /** Bucket width requested, or 0. */
+    private double _delta;
+    /** Bucket width of the last search. */
+    private double _lastDelta;
+    /** Buckets emptied by the last search. */
+    private int _buckets;
+    /** Distances from the source. */
+    private double[] _dist;
+    /** Predecessors on shortest paths. */
+    private int[] _preds;
+    /** Bucket number plus 1 of the bucket holding each vertex, -1 if it is
+     *  in the overflow, or 0. */
+    private long[] _queued;
+    /** The cyclic array of buckets, null where empty. */
+    private IntFringe.Stack[] _slots;
+    /** Number of nonempty entries in _slots. */
+    private int _occupied;
+    /** Vertices whose buckets are beyond the reach of _slots, keyed by
+     *  distance. */
+    private PathFringe _overflow;
+    /** Number of vertices in the array last returned by take or
+     *  relax. */
+    private int _count;
+}
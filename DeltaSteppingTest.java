@@ -0,0 +1,175 @@
+package graph;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for parallel delta-stepping shortest paths.
+ *  @author Mina Kim
+ */
+public class DeltaSteppingTest {
+
+    /** Returns a copy of G with random weights from RAND, a tenth of them
+     *  0 and the rest integers in 1 .. 50 if INTEGRAL, and otherwise
+     *  doubles in [0, 10). */
+    static WeightedGraph weigh(Graph G, Random rand, boolean integral) {
+        double[] weights = new double[G.edgeIdBound()];
+        for (int k = 0; k < weights.length; k += 1) {
+            if (rand.nextInt(10) == 0) {
+                weights[k] = 0;
+            } else {
+                weights[k] =
+                    integral ? 1 + rand.nextInt(50) : 10 * rand.nextDouble();
+            }
+        }
+        return WeightedGraph.of(G, (u, v) -> weights[G.edgeId(u, v)]);
+    }
+
+    /** Check that the paths of D are shortest paths in W, of the lengths
+     *  found by the sequential search, and that each chain of
+     *  predecessors leads back to the source. */
+    static void check(WeightedGraph W, DeltaStepping D) {
+        Graph G = W.graph();
+        ShortestPaths seq = new WeightedShortestPaths(W, D.getSource());
+        seq.setPaths();
+        for (int v = G.nextVertex(0); v != 0; v = G.nextVertex(v)) {
+            double d = seq.getWeight(v);
+            assertEquals("wrong weight", d, D.getWeight(v), 1e-9);
+            if (v == D.getSource() || d == Double.POSITIVE_INFINITY) {
+                assertEquals("stray predecessor", 0, D.getPredecessor(v));
+                continue;
+            }
+            int steps;
+            steps = 0;
+            for (int x = v; x != D.getSource(); x = D.getPredecessor(x)) {
+                int u = D.getPredecessor(x);
+                assertTrue("broken predecessor chain", u != 0);
+                assertEquals("predecessor not on a shortest path",
+                             D.getWeight(x),
+                             D.getWeight(u) + W.weight(u, x), 1e-9);
+                steps += 1;
+                assertTrue("predecessor cycle", steps < G.vertexSize());
+            }
+        }
+    }
+
+    /** Check agreement with the sequential search on random graphs, for
+     *  narrow, chosen, and wide buckets. */
+    @Test(timeout = 20000)
+    public void agreesWithDijkstra() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (boolean directed : new boolean[] { true, false }) {
+                for (boolean integral : new boolean[] { true, false }) {
+                    Graph G =
+                        ParallelBFSTest.random(directed, 4000, 16000, 31);
+                    WeightedGraph W = weigh(G, new Random(32), integral);
+                    for (double delta : new double[] { 0, 0.5, 7, 1000 }) {
+                        DeltaStepping D = new DeltaStepping(W, 1, pool);
+                        D.setDelta(delta);
+                        D.setPaths();
+                        check(W, D);
+                        if (delta != 0) {
+                            assertEquals("wrong delta", delta, D.delta(),
+                                         0.0);
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Check that a delta much smaller than the weights needs no more
+     *  buckets than are occupied, and still agrees with the sequential
+     *  search. */
+    @Test(timeout = 20000)
+    public void smallDelta() {
+        WeightedGraph W =
+            WeightedGraph.load(true, 2, new int[] { 1 }, new int[] { 2 },
+                               new double[] { 1e6 });
+        DeltaStepping D = new DeltaStepping(W, 1);
+        D.setDelta(1e-3);
+        D.setPaths();
+        check(W, D);
+        assertEquals("wrong buckets", 2, D.buckets());
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph G = ParallelBFSTest.random(directed, 1000, 4000, 35);
+            WeightedGraph V = weigh(G, new Random(36), true);
+            for (double delta : new double[] { 1e-4, 1e-2 }) {
+                DeltaStepping E = new DeltaStepping(V, 1);
+                E.setDelta(delta);
+                E.setPaths();
+                check(V, E);
+            }
+        }
+    }
+
+    /** Check the chosen delta, and that narrower buckets mean more of
+     *  them. */
+    @Test(timeout = 5000)
+    public void chosenDelta() {
+        Graph G = ParallelBFSTest.random(true, 2000, 8000, 33);
+        WeightedGraph W = weigh(G, new Random(34), true);
+        DeltaStepping D = new DeltaStepping(W, 1);
+        D.setPaths();
+        double max;
+        max = 0;
+        for (double w : W.weights()) {
+            max = Math.max(max, w);
+        }
+        assertEquals("wrong delta",
+                     max * G.vertexSize() / W.graph().targets().length,
+                     D.delta(), 1e-9);
+        int chosen = D.buckets();
+        D.setDelta(1);
+        D.setPaths();
+        assertTrue("too few buckets", D.buckets() > chosen);
+        D.setDelta(1e9);
+        D.setPaths();
+        assertEquals("too many buckets", 1, D.buckets());
+        check(W, D);
+    }
+
+    /** Check paths, unreachable and removed vertices, and zero
+     *  weights, including a cycle of them. */
+    @Test(timeout = 1000)
+    public void edgeCases() {
+        WeightedGraph W =
+            WeightedGraph.load(true, 6, new int[] { 1, 2, 3, 3, 2, 5 },
+                               new int[] { 2, 3, 2, 4, 4, 6 },
+                               new double[] { 0, 0, 0, 2, 3, 1 });
+        DeltaStepping D = new DeltaStepping(W, 1);
+        D.setPaths();
+        check(W, D);
+        List<Integer> path = D.pathTo(4);
+        assertEquals("wrong path", List.of(1, 2, 3, 4), path);
+        assertEquals("wrong weight", 2.0, D.getWeight(4), 0.0);
+        assertEquals("unreachable reached", Double.POSITIVE_INFINITY,
+                     D.getWeight(6), 0.0);
+        assertEquals("unreachable has predecessor", 0, D.getPredecessor(6));
+
+        DirectedGraph G = new DirectedGraph();
+        for (int k = 0; k < 4; k += 1) {
+            G.add();
+        }
+        G.add(1, 2);
+        G.add(2, 4);
+        G.remove(3);
+        WeightedGraph V = WeightedGraph.of(G, (u, v) -> u + v);
+        DeltaStepping E = new DeltaStepping(V, 1);
+        E.setPaths();
+        assertEquals("wrong weight", 9.0, E.getWeight(4), 0.0);
+        assertEquals("removed vertex reached", Double.POSITIVE_INFINITY,
+                     E.getWeight(3), 0.0);
+    }
+}
@@ -2,9 +2,6 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayDeque;
-import java.util.Collections;
-
 /** Implements a depth-first traversal of a graph.  Generally, the
  *  client will extend this class, overriding the visit and
  *  postVisit methods, as desired (by default, they do nothing).
@@ -14,7 +11,7 @@ public class DepthFirstTraversal extends Traversal {
 
     /** A depth-first Traversal of G. */
     protected DepthFirstTraversal(Graph G) {
-        super(G, Collections.asLifoQueue(new ArrayDeque<Integer>()));
+        super(G, new IntFringe.Stack());
     }
     @Override
     protected boolean visit(int v) {
@@ -16,30 +16,11 @@ public class DirectedGraph extends GraphObj {
         return true;
     }
 
-    @Override
-    public int inDegree(int v) {
-        int count = 0;
-        for (int i = 0; i < edgeSize(); i++) {
-            int[] curr = edgelistN().get(i);
-            int second = curr[1];
-            if (second == v) {
-                count++;
-            }
-        }
-        return count;
-    }
-
     @Override
     public Iteration<Integer> predecessors(int v) {
-        ArrayList<Integer> predecessors = new ArrayList<>();
-        for (int i = 0; i < edgelistN().size(); i++) {
-            int[] curr = edgelistN().get(i);
-            int first = curr[0];
-            int second = curr[1];
-            if (second == v) {
-                predecessors.add(first);
-            }
+        if (!contains(v)) {
+            return Iteration.iteration(new ArrayList<Integer>());
         }
-        return Iteration.iteration(predecessors.iterator());
+        return inLists().iteration(v);
     }
 }
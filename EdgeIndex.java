@@ -0,0 +1,152 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A hash table mapping edges, packed into longs by key(u, v), to
+ *  non-negative integers.  Uses open addressing with linear probing and
+ *  backward-shift deletion, so that neither lookups nor removals
+ *  allocate.  GraphObj uses it to find the record of an edge in expected
+ *  constant time.
+ *  @author Mina Kim
+ */
+class EdgeIndex {
+
+    /** An empty index. */
+    EdgeIndex() {
+        _keys = new long[INITIAL_CAPACITY];
+        _vals = new int[INITIAL_CAPACITY];
+    }
+
+    /** Make room for at least N keys without further resizing, or as
+     *  near to that as the largest table allows.  N must be less than
+     *  MAX_CAPACITY. */
+    void reserve(int n) {
+        if (n >= MAX_CAPACITY) {
+            throw new IllegalArgumentException("too many keys: " + n);
+        }
+        long capacity = _keys.length;
+        while (capacity < 2L * n && capacity < MAX_CAPACITY) {
+            capacity *= 2;
+        }
+        if (capacity > _keys.length) {
+            resize((int) capacity);
+        }
+    }
+
+    /** Returns the key for the edge (U, V).  U must be positive, so
+     *  that no key is ever EMPTY. */
+    static long key(int u, int v) {
+        return ((long) u << 32) | (v & 0xffffffffL);
+    }
+
+    /** Returns the number of keys in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns the value for KEY, or -1 if KEY is absent. */
+    int get(long key) {
+        int mask = _keys.length - 1;
+        for (int i = slot(key, mask); _keys[i] != EMPTY;
+             i = (i + 1) & mask) {
+            if (_keys[i] == key) {
+                return _vals[i];
+            }
+        }
+        return -1;
+    }
+
+    /** Set the value for KEY to VAL, which must be non-negative. */
+    void put(long key, int val) {
+        if (2L * (_size + 1) > _keys.length && _keys.length < MAX_CAPACITY) {
+            resize(2 * _keys.length);
+        }
+        int mask = _keys.length - 1;
+        int i;
+        for (i = slot(key, mask); _keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (_keys[i] == key) {
+                _vals[i] = val;
+                return;
+            }
+        }
+        if (_size + 1 >= _keys.length) {
+            throw new IllegalStateException("edge index full");
+        }
+        _keys[i] = key;
+        _vals[i] = val;
+        _size += 1;
+    }
+
+    /** Remove KEY, if present, returning its former value, or -1 if it
+     *  was absent. */
+    int remove(long key) {
+        int mask = _keys.length - 1;
+        int i;
+        for (i = slot(key, mask); _keys[i] != key; i = (i + 1) & mask) {
+            if (_keys[i] == EMPTY) {
+                return -1;
+            }
+        }
+        int result = _vals[i];
+        _size -= 1;
+        for (int j = (i + 1) & mask; _keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(_keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                _keys[i] = _keys[j];
+                _vals[i] = _vals[j];
+                i = j;
+            }
+        }
+        _keys[i] = EMPTY;
+        return result;
+    }
+
+    /** Remove all keys. */
+    void clear() {
+        Arrays.fill(_keys, EMPTY);
+        _size = 0;
+    }
+
+    /** Returns the home slot of KEY in a table with index mask MASK. */
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Rehash my contents into tables of size CAPACITY, a power of 2. */
+    private void resize(int capacity) {
+        long[] oldKeys = _keys;
+        int[] oldVals = _vals;
+        _keys = new long[capacity];
+        _vals = new int[capacity];
+        int mask = capacity - 1;
+        for (int k = 0; k < oldKeys.length; k += 1) {
+            if (oldKeys[k] != EMPTY) {
+                int i;
+                for (i = slot(oldKeys[k], mask); _keys[i] != EMPTY;
+                     i = (i + 1) & mask) {
+                    continue;
+                }
+                _keys[i] = oldKeys[k];
+                _vals[i] = oldVals[k];
+            }
+        }
+    }
+
+    /** Marks an unused slot. */
+    private static final long EMPTY = 0;
+    /** Initial table size (a power of 2). */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Largest table size: the largest power of 2 that is a legal array
+     *  length.  A full table keeps one slot empty to end probes. */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    /** Keys of the table. */
+    private long[] _keys;
+    /** Values corresponding to _keys. */
+    private int[] _vals;
+    /** Number of keys present. */
+    private int _size;
+}
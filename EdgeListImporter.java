@@ -0,0 +1,339 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Reads graphs from text edge lists, such as those of the SNAP
+ *  collection.  Each line holds a source and target vertex number
+ *  separated by blanks, tabs, commas or semicolons; further fields on a
+ *  line (weights, say) are ignored, as are blank lines and anything from
+ *  a '#' or '%' to the end of its line.  Input is read through a channel
+ *  in large blocks and parsed byte by byte, so no Strings are created and
+ *  files larger than the heap may be read.  Only the edges themselves are
+ *  kept, 8 bytes each: edges are read in batches, and each batch is
+ *  sorted, stripped of duplicates, and merged into the sorted set of
+ *  distinct edges read before it, so memory holds each distinct edge once
+ *  plus the batch being read.  build hands that set, without copying it,
+ *  to GraphLoader, which needs all the edges (and the final vertex count)
+ *  at once to lay out adjacency lists.
+ *
+ *  Without remapping, vertex numbers in the file must be positive ints,
+ *  and the graph built has vertices 1 .. the largest of them.  With
+ *  remapping, they may be any non-negative longs, and are renumbered
+ *  1, 2, ... in order of first appearance; externalId recovers the
+ *  original numbers.
+ *  @author Mina Kim
+ */
+final class EdgeListImporter {
+
+    /** An importer that renumbers vertices iff REMAP. */
+    EdgeListImporter(boolean remap) {
+        this(remap, BUFFER_SIZE);
+    }
+
+    /** An importer that renumbers vertices iff REMAP, reading input in
+     *  blocks of BUFSIZE bytes. */
+    EdgeListImporter(boolean remap, int bufSize) {
+        _remap = remap;
+        _buf = ByteBuffer.allocateDirect(bufSize);
+        _edges = new long[INITIAL_SIZE];
+        if (remap) {
+            _ids = new EdgeIndex();
+            _external = new long[INITIAL_SIZE];
+        }
+    }
+
+    /** Read the edges in FILE. */
+    void read(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file,
+                                               StandardOpenOption.READ)) {
+            read(in);
+        }
+    }
+
+    /** Read the edges in IN, to its end. */
+    void read(ReadableByteChannel in) throws IOException {
+        if (_edges == null) {
+            throw new IllegalStateException("edges already built");
+        }
+        long start = System.nanoTime();
+        _line = 1;
+        _field = 0;
+        _inNumber = _inComment = false;
+        while (true) {
+            _buf.clear();
+            int n = in.read(_buf);
+            if (n < 0) {
+                break;
+            }
+            _bytes += n;
+            _buf.flip();
+            while (_buf.hasRemaining()) {
+                scan(_buf.get());
+            }
+        }
+        scan((byte) '\n');
+        compact();
+        _nanos += System.nanoTime() - start;
+    }
+
+    /** Fill G, which must be empty, with the vertices and edges read so
+     *  far.  Returns G.  My edges are handed over to G, and I may not be
+     *  used to read or build further. */
+    <G extends GraphObj> G build(G graph) {
+        compact();
+        long[] keys = _edges;
+        int n = _count;
+        _edges = null;
+        if (!graph.isDirected()) {
+            for (int k = 0; k < n; k += 1) {
+                int u = (int) (keys[k] >>> 32), v = (int) keys[k];
+                if (u > v) {
+                    keys[k] = EdgeIndex.key(v, u);
+                }
+            }
+        }
+        return GraphLoader.loadKeys(graph, _maxVertex, keys, n);
+    }
+
+    /** Returns the number of vertices read so far (the largest vertex
+     *  number, if not remapping). */
+    int vertexCount() {
+        return _maxVertex;
+    }
+
+    /** Returns the number of edge lines read so far, including
+     *  duplicates. */
+    long edgesRead() {
+        return _lines;
+    }
+
+    /** Returns the number of distinct edges read so far. */
+    int edgesKept() {
+        return _count;
+    }
+
+    /** Returns the number of bytes read so far. */
+    long bytesRead() {
+        return _bytes;
+    }
+
+    /** Returns the reading rate so far, in megabytes (10^6 bytes) per
+     *  second. */
+    double megabytesPerSecond() {
+        return _nanos == 0 ? 0.0 : 1e3 * _bytes / _nanos;
+    }
+
+    /** Returns a one-line summary of the input read so far. */
+    String summary() {
+        return String.format("%d edges, %d vertices: %.1f MB in %.2f s"
+                             + " (%.1f MB/s)",
+                             _lines, _maxVertex, _bytes / 1e6, _nanos / 1e9,
+                             megabytesPerSecond());
+    }
+
+    /** Returns the number used for vertex V in the input.  When not
+     *  remapping, this is V. */
+    long externalId(int v) {
+        if (v < 1 || v > _maxVertex) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+        return _remap ? _external[v] : v;
+    }
+
+    /** Process the next input byte, C. */
+    private void scan(byte c) {
+        if (c == '\n') {
+            endField();
+            if (_field == 1) {
+                throw error("missing target vertex");
+            }
+            _line += 1;
+            _field = 0;
+            _inComment = false;
+        } else if (_inComment) {
+            return;
+        } else if (c >= '0' && c <= '9') {
+            if (_field < 2) {
+                if (_value > (Long.MAX_VALUE - 9) / 10) {
+                    throw error("vertex number too large");
+                }
+                _value = 10 * _value + (c - '0');
+            }
+            _inNumber = true;
+        } else if (c == ' ' || c == '\t' || c == ',' || c == ';'
+                   || c == '\r') {
+            endField();
+        } else if (c == '#' || c == '%') {
+            endField();
+            _inComment = true;
+        } else if (_field < 2) {
+            throw error("bad vertex number");
+        } else {
+            _inNumber = true;
+        }
+    }
+
+    /** Finish the field being scanned, if any. */
+    private void endField() {
+        if (!_inNumber) {
+            return;
+        }
+        _inNumber = false;
+        if (_field == 0) {
+            _source = vertex(_value);
+        } else if (_field == 1) {
+            addEdge(_source, vertex(_value));
+        }
+        _value = 0;
+        _field += 1;
+    }
+
+    /** Returns the vertex number for ID, as read from the input. */
+    private int vertex(long id) {
+        if (_remap) {
+            int v = _ids.get(id + 1);
+            if (v < 0) {
+                if (_maxVertex == Integer.MAX_VALUE) {
+                    throw error("too many vertices");
+                }
+                _maxVertex += 1;
+                v = _maxVertex;
+                _ids.put(id + 1, v);
+                if (v == _external.length) {
+                    _external = Arrays.copyOf(_external, 2 * v);
+                }
+                _external[v] = id;
+            }
+            return v;
+        }
+        if (id < 1 || id > Integer.MAX_VALUE) {
+            throw error("vertex number out of range (remap ids)");
+        }
+        _maxVertex = Math.max(_maxVertex, (int) id);
+        return (int) id;
+    }
+
+    /** Record the edge (U, V). */
+    private void addEdge(int u, int v) {
+        _lines += 1;
+        if (_count == _edges.length || _count - _compacted >= batchSize()) {
+            compact();
+            long room = (long) _count + batchSize();
+            if (room > _edges.length && _edges.length < MAX_EDGES) {
+                _edges = Arrays.copyOf(_edges,
+                                       (int) Math.min(MAX_EDGES, room));
+            } else if (_count == _edges.length) {
+                throw error("too many edges");
+            }
+        }
+        _edges[_count] = EdgeIndex.key(u, v);
+        _count += 1;
+    }
+
+    /** Returns the number of edges to read before merging them into the
+     *  distinct edges: at least BATCH_SIZE, and a quarter of the
+     *  distinct edges, so that each merge costs time proportional to
+     *  the batch merged. */
+    private int batchSize() {
+        return Math.max(BATCH_SIZE, _compacted / 4);
+    }
+
+    /** Sort the batch of edges read since the last call, remove from it
+     *  repeated edges and edges already among the distinct edges in
+     *  _edges[0 .. _compacted-1], and merge what remains into those, so
+     *  that they stay sorted and distinct. */
+    private void compact() {
+        int from = _compacted;
+        Arrays.parallelSort(_edges, from, _count);
+        int n, i;
+        n = from;
+        i = 0;
+        for (int k = from; k < _count; k += 1) {
+            long key = _edges[k];
+            if (n > from && key == _edges[n - 1]) {
+                continue;
+            }
+            while (i < from && _edges[i] < key) {
+                i += 1;
+            }
+            if (i < from && _edges[i] == key) {
+                continue;
+            }
+            _edges[n] = key;
+            n += 1;
+        }
+        long[] batch = Arrays.copyOfRange(_edges, from, n);
+        int j = batch.length - 1;
+        i = from - 1;
+        for (int k = n - 1; j >= 0; k -= 1) {
+            if (i >= 0 && _edges[i] > batch[j]) {
+                _edges[k] = _edges[i];
+                i -= 1;
+            } else {
+                _edges[k] = batch[j];
+                j -= 1;
+            }
+        }
+        _count = _compacted = n;
+    }
+
+    /** Returns an exception reporting MSG at the current line. */
+    private IllegalArgumentException error(String msg) {
+        return new IllegalArgumentException(String.format("line %d: %s",
+                                                          _line, msg));
+    }
+
+    /** Default input block size. */
+    private static final int BUFFER_SIZE = 1 << 20;
+    /** Initial size of the edge and id arrays. */
+    private static final int INITIAL_SIZE = 1 << 10;
+    /** Minimum number of edges in each batch. */
+    private static final int BATCH_SIZE = 1 << 20;
+    /** Largest number of edges held. */
+    private static final int MAX_EDGES = Integer.MAX_VALUE - 8;
+
+    /** True iff vertex numbers are remapped. */
+    private final boolean _remap;
+    /** Input block. */
+    private final ByteBuffer _buf;
+    /** When remapping, maps input numbers plus 1 to vertices. */
+    private EdgeIndex _ids;
+    /** When remapping, maps vertices to input numbers. */
+    private long[] _external;
+    /** Edges read, packed as keys (u, v), or null once built. */
+    private long[] _edges;
+    /** Number of entries in _edges. */
+    private int _count;
+    /** _edges[0 .. _compacted-1] are the distinct edges of all batches
+     *  before the current one, sorted. */
+    private int _compacted;
+    /** Largest vertex number so far. */
+    private int _maxVertex;
+    /** Edge lines read. */
+    private long _lines;
+    /** Bytes read. */
+    private long _bytes;
+    /** Time spent reading, in nanoseconds. */
+    private long _nanos;
+
+    /** Current line number. */
+    private long _line;
+    /** Index of the current field on the line. */
+    private int _field;
+    /** True iff within a number. */
+    private boolean _inNumber;
+    /** True iff within a comment. */
+    private boolean _inComment;
+    /** Value of the number being scanned. */
+    private long _value;
+    /** Source vertex of the current line. */
+    private int _source;
+}
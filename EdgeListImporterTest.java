@@ -0,0 +1,165 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for text edge-list import.
+ *  @author Mina Kim
+ */
+public class EdgeListImporterTest {
+
+    /** An edge list exercising comments, separators and extra fields. */
+    static final String INPUT =
+        "# Directed graph: example.txt\n"
+        + "# FromNodeId\tToNodeId\n"
+        + "1\t2\n"
+        + "  2 3  \r\n"
+        + "\n"
+        + "3,1,0.5\n"
+        + "4;4 # self edge\n"
+        + "% another comment\n"
+        + "1 2\n"
+        + "7 3 weight=2";
+
+    /** Returns an importer with remapping iff REMAP and block size BUFSIZE
+     *  that has read TEXT. */
+    private static EdgeListImporter read(String text, boolean remap,
+                                         int bufSize) throws IOException {
+        Path file = Files.createTempFile("edges", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+            EdgeListImporter importer =
+                new EdgeListImporter(remap, bufSize);
+            importer.read(file);
+            return importer;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Check the edges of INPUT, read with small and large buffers. */
+    @Test(timeout = 2000)
+    public void importEdges() throws IOException {
+        for (int bufSize : new int[] { 1, 3, 1 << 16 }) {
+            EdgeListImporter importer = read(INPUT, false, bufSize);
+            assertEquals("wrong edge line count", 6, importer.edgesRead());
+            assertEquals("wrong byte count", INPUT.length(),
+                         importer.bytesRead());
+            DirectedGraph G = importer.build(new DirectedGraph());
+            assertEquals("wrong vertex count", 7, G.vertexSize());
+            assertEquals("wrong edge count", 5, G.edgeSize());
+            assertTrue(G.contains(1, 2) && G.contains(2, 3)
+                       && G.contains(3, 1) && G.contains(4, 4)
+                       && G.contains(7, 3));
+            assertEquals("wrong external id", 7, importer.externalId(7));
+        }
+    }
+
+    /** Check renumbering of sparse ids. */
+    @Test(timeout = 2000)
+    public void importRemapped() throws IOException {
+        String text = "0 1000000000000\n1000000000000 42\n42 0\n0 42\n";
+        EdgeListImporter importer = read(text, true, 5);
+        UndirectedGraph G = importer.build(new UndirectedGraph());
+        assertEquals("wrong vertex count", 3, G.vertexSize());
+        assertEquals("wrong edge count", 3, G.edgeSize());
+        assertEquals("wrong external id", 0, importer.externalId(1));
+        assertEquals("wrong external id", 1000000000000L,
+                     importer.externalId(2));
+        assertEquals("wrong external id", 42, importer.externalId(3));
+        assertTrue(G.contains(1, 2) && G.contains(2, 3) && G.contains(3, 1));
+    }
+
+    /** Check that a line with one vertex is rejected. */
+    @Test(timeout = 2000, expected = IllegalArgumentException.class)
+    public void missingTarget() throws IOException {
+        read("1 2\n3\n", false, 64);
+    }
+
+    /** Check that vertex 0 is rejected without remapping. */
+    @Test(timeout = 2000, expected = IllegalArgumentException.class)
+    public void zeroWithoutRemap() throws IOException {
+        read("0 1\n", false, 64);
+    }
+
+    /** Check that non-numeric vertices are rejected. */
+    @Test(timeout = 2000, expected = IllegalArgumentException.class)
+    public void badVertex() throws IOException {
+        read("1 x2\n", false, 64);
+    }
+
+    /** Returns a channel yielding PASSES copies of the edges (u, u % 1000
+     *  + 1) for u in 1 .. NE, without holding the text. */
+    private static ReadableByteChannel repeated(int ne, int passes) {
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                if (_pending == null) {
+                    if (_line == (long) ne * passes) {
+                        return -1;
+                    }
+                    int u = (int) (_line % ne) + 1;
+                    _pending = ByteBuffer.wrap((u + " " + (u % 1000 + 1)
+                                                + "\n").getBytes());
+                    _line += 1;
+                }
+                int n = Math.min(dst.remaining(), _pending.remaining());
+                for (int k = 0; k < n; k += 1) {
+                    dst.put(_pending.get());
+                }
+                if (!_pending.hasRemaining()) {
+                    _pending = null;
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+
+            /** Lines produced so far. */
+            private long _line;
+            /** Rest of the current line, or null. */
+            private ByteBuffer _pending;
+        };
+    }
+
+    /** Check that edges repeated in different batches are kept once. */
+    @Test(timeout = 20000)
+    public void duplicatesAcrossBatches() throws IOException {
+        int ne = 600000;
+        EdgeListImporter importer = new EdgeListImporter(false);
+        importer.read(repeated(ne, 3));
+        assertEquals("wrong edge line count", 3 * ne, importer.edgesRead());
+        assertEquals("duplicates kept", ne, importer.edgesKept());
+        DirectedGraph G = importer.build(new DirectedGraph());
+        assertEquals("wrong vertex count", ne, G.vertexSize());
+        assertEquals("wrong edge count", ne, G.edgeSize());
+        assertTrue(G.contains(1, 2) && G.contains(ne, ne % 1000 + 1));
+    }
+
+    /** Check that an importer may not be read after building. */
+    @Test(timeout = 2000, expected = IllegalStateException.class)
+    public void readAfterBuild() throws IOException {
+        EdgeListImporter importer = read(INPUT, false, 1 << 16);
+        importer.build(new DirectedGraph());
+        importer.read(repeated(1, 1));
+    }
+}
@@ -1,5 +1,7 @@
 package graph;
 
+import java.util.function.IntConsumer;
+
 /* Do not add or remove public or protected members, or modify the signatures of
  * any public methods.  Do not add or remove public classes.
  *
@@ -114,4 +116,108 @@ public abstract class Graph {
      *  for use by classes such as LabeledGraph. It is the same value as that
      *  returned by add(u, v). */
     protected abstract int edgeId(int u, int v);
+
+    /* Package-private primitive access.  These methods deliver vertices
+     * as unboxed ints, and are what the algorithms in this package use.
+     * The versions here work for any Graph by way of the public
+     * Iteration methods; GraphObj and GraphFilter override them so that
+     * they do not allocate. */
+
+    /** Returns the smallest of my vertices greater than V, or 0 if there
+     *  is none. */
+    int nextVertex(int v) {
+        for (int w = Math.max(v, 0) + 1; w <= maxVertex(); w += 1) {
+            if (contains(w)) {
+                return w;
+            }
+        }
+        return 0;
+    }
+
+    /** Call ACTION on each successor of V, if V is my vertex. */
+    void forEachSuccessor(int v, IntConsumer action) {
+        for (int w : successors(v)) {
+            action.accept(w);
+        }
+    }
+
+    /** Call ACTION on each predecessor of V, if V is my vertex. */
+    void forEachPredecessor(int v, IntConsumer action) {
+        for (int w : predecessors(v)) {
+            action.accept(w);
+        }
+    }
+
+    /** Copy the successors of V into BUF, which must have room for
+     *  outDegree(V) values, and return their number. */
+    int copySuccessors(int v, int[] buf) {
+        int n;
+        n = 0;
+        for (int w : successors(v)) {
+            buf[n] = w;
+            n += 1;
+        }
+        return n;
+    }
+
+    /** Copy the predecessors of V into BUF, which must have room for
+     *  inDegree(V) values, and return their number. */
+    int copyPredecessors(int v, int[] buf) {
+        int n;
+        n = 0;
+        for (int w : predecessors(v)) {
+            buf[n] = w;
+            n += 1;
+        }
+        return n;
+    }
+
+    /** Returns the sum of outDegree(V) over the vertices V in
+     *  VS[FROM .. TO-1]. */
+    long totalOutDegree(int[] vs, int from, int to) {
+        long sum;
+        sum = 0;
+        for (int k = from; k < to; k += 1) {
+            sum += outDegree(vs[k]);
+        }
+        return sum;
+    }
+
+    /** Returns the sum of inDegree(V) over the vertices V in
+     *  VS[FROM .. TO-1]. */
+    long totalInDegree(int[] vs, int from, int to) {
+        long sum;
+        sum = 0;
+        for (int k = from; k < to; k += 1) {
+            sum += inDegree(vs[k]);
+        }
+        return sum;
+    }
+
+    /** Returns a number greater than edgeId(U, V) for every edge (U, V) I
+     *  have, for sizing tables indexed by edge id. */
+    int edgeIdBound() {
+        int bound;
+        bound = 1;
+        for (int[] e : edges()) {
+            bound = Math.max(bound, edgeId(e[0], e[1]) + 1);
+        }
+        return bound;
+    }
+
+    /** Returns my immutable CSR form, if I have one, and otherwise null.
+     *  Algorithms may use it to scan neighbors with plain array loops. */
+    CSRGraph csr() {
+        return null;
+    }
+
+    /** Returns a new cursor over the successors of my vertices. */
+    IntCursor successorCursor() {
+        return new IntCursor.Buffered(this, true);
+    }
+
+    /** Returns a new cursor over the predecessors of my vertices. */
+    IntCursor predecessorCursor() {
+        return new IntCursor.Buffered(this, false);
+    }
 }
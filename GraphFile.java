@@ -0,0 +1,300 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/** Reads and writes graphs in a binary file format designed to be served
+ *  directly from a memory mapping (see MappedGraph).  All values are
+ *  little-endian.  A file consists of a HEADER_SIZE-byte header followed
+ *  by sections, each starting at a multiple of 8 bytes:
+ *
+ *     Header:   int MAGIC, int VERSION, int flags (DIRECTED,
+ *               VERTEX_LABELS, EDGE_LABELS), int maxVertex,
+ *               int vertexCount, int edgeCount, int targetCount,
+ *               int (unused), then NUM_SECTIONS longs giving the byte
+ *               position of each section below, or 0 if it is absent.
+ *     VERTICES: long[maxVertex / 64 + 1], a bitmap of the vertices.
+ *     OFFSETS:  int[maxVertex + 2], CSR row offsets of the successors.
+ *     TARGETS:  int[targetCount], the successor rows, each sorted.
+ *     ROFFSETS, RTARGETS: as for OFFSETS and TARGETS, for predecessors.
+ *               Present only for directed graphs.
+ *     VLABELS, ELABELS: label tables for vertices (indexed by vertex) and
+ *               edges (indexed by edge id).  Each is a table of N + 1
+ *               longs followed by label data; label k occupies bytes
+ *               [table[k], table[k+1]) of the data.  An empty range
+ *               denotes a null label; otherwise the first byte is 1 and
+ *               the rest is the label's text in UTF-8.
+ *
+ *  The rows are those of CSRGraph, and so are edge ids: an edge's id is
+ *  its position in TARGETS plus 1 (for undirected edges, the position in
+ *  the row of the smaller end).
+ *  @author Mina Kim
+ */
+final class GraphFile {
+
+    /** Not instantiable. */
+    private GraphFile() {
+    }
+
+    /** Write G to FILE. */
+    static void write(Graph G, Path file) throws IOException {
+        writeCSR(G, file, null, null);
+    }
+
+    /** Write G and its labels to FILE, converting vertex labels to text
+     *  with VCODEC and edge labels with ECODEC.  Null labels are written
+     *  as null; a null codec omits that kind of label. */
+    static <VL, EL> void write(LabeledGraph<VL, EL> G, Path file,
+                               Function<? super VL, String> vcodec,
+                               Function<? super EL, String> ecodec)
+        throws IOException {
+        CSRGraph csr = CSRGraph.freeze(G, false);
+        IntFunction<String> vlabels = null, elabels = null;
+        if (vcodec != null) {
+            vlabels = v -> {
+                VL lab = csr.contains(v) ? G.getLabel(v) : null;
+                return lab == null ? null : vcodec.apply(lab);
+            };
+        }
+        if (ecodec != null) {
+            int[] rows = rowsOf(csr);
+            int[] targets = csr.targets();
+            elabels = id -> {
+                int u = rows[id - 1], v = targets[id - 1];
+                if (!csr.isDirected() && u > v) {
+                    return null;
+                }
+                EL lab = G.getLabel(u, v);
+                return lab == null ? null : ecodec.apply(lab);
+            };
+        }
+        writeCSR(csr, file, vlabels, elabels);
+    }
+
+    /** Returns a read-only graph served from a mapping of FILE. */
+    static MappedGraph load(Path file) throws IOException {
+        return new MappedGraph(file);
+    }
+
+    /** Returns a read-only labeled graph served from a mapping of FILE,
+     *  whose labels are converted from text by VDECODE and EDECODE as they
+     *  are requested. */
+    static <VL, EL> LabeledGraph<VL, EL> load(
+        Path file, Function<String, ? extends VL> vdecode,
+        Function<String, ? extends EL> edecode) throws IOException {
+        return new MappedGraph.Labeled<VL, EL>(new MappedGraph(file),
+                                              vdecode, edecode);
+    }
+
+    /** Write G to FILE, with the vertex labels given by VLABELS and the
+     *  edge labels (by edge id) given by ELABELS, each of which may be
+     *  null. */
+    private static void writeCSR(Graph G, Path file,
+                                 IntFunction<String> vlabels,
+                                 IntFunction<String> elabels)
+        throws IOException {
+        CSRGraph csr = CSRGraph.freeze(G, G.isDirected());
+        int maxVertex = csr.maxVertex();
+        int[] targets = csr.targets();
+        long[] sections = new long[NUM_SECTIONS];
+        try (FileChannel out =
+             FileChannel.open(file, StandardOpenOption.CREATE,
+                              StandardOpenOption.WRITE,
+                              StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output data = new Output(out, HEADER_SIZE);
+            sections[VERTICES] = data.align();
+            long[] words = csr.vertexSet().toLongArray();
+            for (int k = 0; k <= maxVertex / 64; k += 1) {
+                data.putLong(k < words.length ? words[k] : 0);
+            }
+            sections[OFFSETS] = data.align();
+            data.putInts(csr.offsets(), maxVertex + 2);
+            sections[TARGETS] = data.align();
+            data.putInts(targets, targets.length);
+            if (csr.isDirected()) {
+                sections[ROFFSETS] = data.align();
+                data.putInts(csr.reverseOffsets(), maxVertex + 2);
+                sections[RTARGETS] = data.align();
+                data.putInts(csr.reverseTargets(), targets.length);
+            }
+            if (vlabels != null) {
+                sections[VLABELS] = data.align();
+                putLabels(data, vlabels, 0, maxVertex + 1);
+            }
+            if (elabels != null) {
+                sections[ELABELS] = data.align();
+                putLabels(data, elabels, 1, targets.length + 1);
+            }
+            data.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            int flags = (csr.isDirected() ? DIRECTED : 0)
+                | (vlabels != null ? VERTEX_LABELS : 0)
+                | (elabels != null ? EDGE_LABELS : 0);
+            header.putInt(MAGIC).putInt(VERSION).putInt(flags)
+                .putInt(maxVertex).putInt(csr.vertexSize())
+                .putInt(csr.edgeSize()).putInt(targets.length).putInt(0);
+            for (long pos : sections) {
+                header.putLong(pos);
+            }
+            header.rewind();
+            out.write(header, 0);
+        }
+    }
+
+    /** Write a label table for indices 0 .. N-1 to DATA, taking label K
+     *  from LABELS for K >= FIRST, and null below that. */
+    private static void putLabels(Output data, IntFunction<String> labels,
+                                  int first, int n) throws IOException {
+        byte[][] text = new byte[n][];
+        long pos;
+        pos = 0;
+        data.putLong(pos);
+        for (int k = 0; k < n; k += 1) {
+            String lab = k < first ? null : labels.apply(k);
+            if (lab != null) {
+                text[k] = lab.getBytes(StandardCharsets.UTF_8);
+                pos += text[k].length + 1;
+            }
+            data.putLong(pos);
+        }
+        for (byte[] bytes : text) {
+            if (bytes != null) {
+                data.putByte((byte) 1);
+                data.putBytes(bytes);
+            }
+        }
+    }
+
+    /** Returns an array giving, for each position in the targets of CSR,
+     *  the vertex whose row contains it. */
+    private static int[] rowsOf(CSRGraph csr) {
+        int[] offsets = csr.offsets();
+        int[] rows = new int[csr.targets().length];
+        for (int u = 1; u <= csr.maxVertex(); u += 1) {
+            for (int k = offsets[u]; k < offsets[u + 1]; k += 1) {
+                rows[k] = u;
+            }
+        }
+        return rows;
+    }
+
+    /** Buffered little-endian output to a FileChannel.  Also used to
+     *  write contraction hierarchies (see ContractionHierarchy). */
+    static class Output {
+        /** Output to OUT, starting at byte position POS. */
+        Output(FileChannel out, long pos) {
+            _out = out;
+            _pos = pos;
+            _buf = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /** Pad to a multiple of 8 bytes, and return the position. */
+        long align() throws IOException {
+            while ((position() & 7) != 0) {
+                putByte((byte) 0);
+            }
+            return position();
+        }
+
+        /** Returns the file position of the next byte written. */
+        long position() {
+            return _pos + _buf.position();
+        }
+
+        /** Write X. */
+        void putByte(byte x) throws IOException {
+            room(1);
+            _buf.put(x);
+        }
+
+        /** Write X. */
+        void putLong(long x) throws IOException {
+            room(8);
+            _buf.putLong(x);
+        }
+
+        /** Write VALS[0 .. N-1]. */
+        void putInts(int[] vals, int n) throws IOException {
+            for (int k = 0; k < n; k += 1) {
+                room(4);
+                _buf.putInt(vals[k]);
+            }
+        }
+
+        /** Write VALS[0 .. N-1]. */
+        void putDoubles(double[] vals, int n) throws IOException {
+            for (int k = 0; k < n; k += 1) {
+                room(8);
+                _buf.putDouble(vals[k]);
+            }
+        }
+
+        /** Write BYTES. */
+        void putBytes(byte[] bytes) throws IOException {
+            for (int k = 0; k < bytes.length; ) {
+                room(1);
+                int n = Math.min(bytes.length - k, _buf.remaining());
+                _buf.put(bytes, k, n);
+                k += n;
+            }
+        }
+
+        /** Write out any buffered data. */
+        void flush() throws IOException {
+            _buf.flip();
+            while (_buf.hasRemaining()) {
+                _pos += _out.write(_buf, _pos);
+            }
+            _buf.clear();
+        }
+
+        /** Ensure there is room for N more bytes in the buffer. */
+        private void room(int n) throws IOException {
+            if (_buf.remaining() < n) {
+                flush();
+            }
+        }
+
+        /** Size of the output buffer. */
+        private static final int BUFFER_SIZE = 1 << 20;
+        /** Destination. */
+        private final FileChannel _out;
+        /** File position of the start of _buf. */
+        private long _pos;
+        /** Buffered output. */
+        private final ByteBuffer _buf;
+    }
+
+    /** Identifies graph files ("GRPH"). */
+    static final int MAGIC = 0x48505247;
+    /** Format version. */
+    static final int VERSION = 1;
+    /** Size of the header in bytes. */
+    static final int HEADER_SIZE = 128;
+    /** Byte position of the first section position in the header. */
+    static final int SECTION_TABLE = 32;
+
+    /** Flag: the graph is directed. */
+    static final int DIRECTED = 1;
+    /** Flag: vertex labels are present. */
+    static final int VERTEX_LABELS = 2;
+    /** Flag: edge labels are present. */
+    static final int EDGE_LABELS = 4;
+
+    /** Section numbers. */
+    static final int
+        VERTICES = 0, OFFSETS = 1, TARGETS = 2, ROFFSETS = 3, RTARGETS = 4,
+        VLABELS = 5, ELABELS = 6, NUM_SECTIONS = 7;
+}
@@ -0,0 +1,102 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for binary graph files.
+ *  @author Mina Kim
+ */
+public class GraphFileTest {
+
+    /** Returns the graph mapped from a file to which G was written. */
+    private static Graph roundTrip(Graph G) throws IOException {
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            GraphFile.write(G, file);
+            return GraphFile.load(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Check that a directed graph survives writing and mapping. */
+    @Test(timeout = 2000)
+    public void directedFile() throws IOException {
+        Graph G = CSRGraphTest.fill(new DirectedGraph());
+        CSRGraphTest.checkSame(G, roundTrip(G));
+    }
+
+    /** Check that an undirected graph survives writing and mapping. */
+    @Test(timeout = 2000)
+    public void undirectedFile() throws IOException {
+        Graph G = CSRGraphTest.fill(new UndirectedGraph());
+        CSRGraphTest.checkSame(G, roundTrip(G));
+    }
+
+    /** Check that an empty graph survives writing and mapping. */
+    @Test(timeout = 2000)
+    public void emptyFile() throws IOException {
+        Graph G = roundTrip(new DirectedGraph());
+        assertEquals("vertices in empty graph", 0, G.vertexSize());
+        assertFalse("vertices in empty graph", G.vertices().hasNext());
+    }
+
+    /** Check that labels survive writing and mapping. */
+    @Test(timeout = 2000)
+    public void labeledFile() throws IOException {
+        LabeledGraph<String, Integer> G =
+            new LabeledGraph<>(new UndirectedGraph());
+        for (int i = 1; i <= CSRGraphTest.NV; i += 1) {
+            G.add(i == 3 ? null : "V\u00e9" + i);
+        }
+        for (int[] e : CSRGraphTest.EDGES) {
+            G.add(e[0], e[1], e[0] == e[1] ? null : 100 * e[0] + e[1]);
+        }
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            GraphFile.write(G, file, Function.identity(),
+                            lab -> Integer.toString(lab));
+            LabeledGraph<String, Integer> mapped =
+                GraphFile.load(file, Function.identity(), Integer::valueOf);
+            CSRGraphTest.checkSame(G, mapped);
+            for (int v : G.vertices()) {
+                assertEquals("wrong vertex label", G.getLabel(v),
+                             mapped.getLabel(v));
+            }
+            for (int[] e : G.edges()) {
+                assertEquals("wrong edge label", G.getLabel(e[0], e[1]),
+                             mapped.getLabel(e[1], e[0]));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Check that mapped graphs reject modification. */
+    @Test(timeout = 2000, expected = UnsupportedOperationException.class)
+    public void mappedIsReadOnly() throws IOException {
+        roundTrip(CSRGraphTest.fill(new DirectedGraph())).remove(1);
+    }
+
+    /** Check that other files are rejected. */
+    @Test(timeout = 2000, expected = IOException.class)
+    public void notAGraphFile() throws IOException {
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            Files.write(file, new byte[GraphFile.HEADER_SIZE]);
+            GraphFile.load(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
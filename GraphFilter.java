@@ -1,5 +1,7 @@
 package graph;
 
+import java.util.function.IntConsumer;
+
 /** A Graph that delegates all its operations to another, preexisting
  *  Graph object.  This is intended to be extended, and selected methods
  *  overridden, as needed.
@@ -9,6 +11,11 @@ public class GraphFilter extends Graph {
     /** A Graph that delegates all operations to G. */
     public GraphFilter(Graph G) {
         _G = G;
+        _forwardVertices = inherits("vertices");
+        _forwardSuccessors = inherits("successors", int.class)
+            && inherits("outDegree", int.class);
+        _forwardPredecessors = inherits("predecessors", int.class)
+            && inherits("inDegree", int.class);
     }
 
     @Override
@@ -101,8 +108,114 @@ public class GraphFilter extends Graph {
         _G.checkMyVertex(v);
     }
 
+    @Override
+    int nextVertex(int v) {
+        if (_forwardVertices) {
+            return _G.nextVertex(v);
+        }
+        return super.nextVertex(v);
+    }
+
+    @Override
+    void forEachSuccessor(int v, IntConsumer action) {
+        if (_forwardSuccessors) {
+            _G.forEachSuccessor(v, action);
+        } else {
+            super.forEachSuccessor(v, action);
+        }
+    }
+
+    @Override
+    void forEachPredecessor(int v, IntConsumer action) {
+        if (_forwardPredecessors) {
+            _G.forEachPredecessor(v, action);
+        } else {
+            super.forEachPredecessor(v, action);
+        }
+    }
+
+    @Override
+    int copySuccessors(int v, int[] buf) {
+        if (_forwardSuccessors) {
+            return _G.copySuccessors(v, buf);
+        }
+        return super.copySuccessors(v, buf);
+    }
+
+    @Override
+    int copyPredecessors(int v, int[] buf) {
+        if (_forwardPredecessors) {
+            return _G.copyPredecessors(v, buf);
+        }
+        return super.copyPredecessors(v, buf);
+    }
+
+    @Override
+    long totalOutDegree(int[] vs, int from, int to) {
+        if (_forwardSuccessors) {
+            return _G.totalOutDegree(vs, from, to);
+        }
+        return super.totalOutDegree(vs, from, to);
+    }
+
+    @Override
+    long totalInDegree(int[] vs, int from, int to) {
+        if (_forwardPredecessors) {
+            return _G.totalInDegree(vs, from, to);
+        }
+        return super.totalInDegree(vs, from, to);
+    }
+
+    @Override
+    int edgeIdBound() {
+        return _G.edgeIdBound();
+    }
+
+    @Override
+    CSRGraph csr() {
+        if (_forwardVertices && _forwardSuccessors && _forwardPredecessors) {
+            return _G.csr();
+        }
+        return null;
+    }
+
+    @Override
+    IntCursor successorCursor() {
+        if (_forwardSuccessors) {
+            return _G.successorCursor();
+        }
+        return super.successorCursor();
+    }
+
+    @Override
+    IntCursor predecessorCursor() {
+        if (_forwardPredecessors) {
+            return _G.predecessorCursor();
+        }
+        return super.predecessorCursor();
+    }
+
+    /** Returns true iff my class does not override the public method
+     *  NAME(PARAMS) declared here, so that my package-private primitive
+     *  versions of it may go straight to the underlying graph.  A subclass
+     *  outside this package cannot override those versions itself. */
+    private boolean inherits(String name, Class<?>... params) {
+        try {
+            return getClass().getMethod(name, params).getDeclaringClass()
+                == GraphFilter.class;
+        } catch (NoSuchMethodException excp) {
+            return false;
+        }
+    }
+
     /** My underlying graph. */
     private final Graph _G;
+    /** True iff vertices() is not overridden. */
+    private final boolean _forwardVertices;
+    /** True iff neither successors(v) nor outDegree(v) is overridden. */
+    private final boolean _forwardSuccessors;
+    /** True iff neither predecessors(v) nor inDegree(v) is overridden. */
+    private final boolean _forwardPredecessors;
 }
 
 
@@ -0,0 +1,92 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/** Bulk construction of DirectedGraphs and UndirectedGraphs from arrays of
+ *  edges.  The edges are packed into long keys, sorted and deduplicated
+ *  with a parallel sort, and handed to GraphObj.load, which builds the
+ *  adjacency lists in parallel.  The result has the same vertices and
+ *  edges as a graph built by adding the vertices 1 .. NV with add() and
+ *  then each edge with add(u, v), though edge ids and the order of
+ *  neighbors may differ.
+ *  @author Mina Kim
+ */
+final class GraphLoader {
+
+    /** Not instantiable. */
+    private GraphLoader() {
+    }
+
+    /** Fill G, which must be empty, with vertices 1 .. NV and the edges
+     *  (SRC[k], DST[k]), for 0 <= k < SRC.length, ignoring duplicates.
+     *  Returns G. */
+    static <G extends GraphObj> G load(G graph, int nv, int[] src,
+                                       int[] dst) {
+        if (src.length != dst.length) {
+            throw new IllegalArgumentException("edge arrays differ in length");
+        }
+        long[] keys = new long[src.length];
+        boolean directed = graph.isDirected();
+        IntStream.range(0, src.length).parallel().forEach(k -> {
+            keys[k] = key(directed, nv, src[k], dst[k]);
+        });
+        return loadKeys(graph, nv, keys, keys.length);
+    }
+
+    /** Fill G, which must be empty, with vertices 1 .. NV and the edges
+     *  in EDGES, each packed as (source << 32) | target, ignoring
+     *  duplicates.  Returns G. */
+    static <G extends GraphObj> G load(G graph, int nv, long[] edges) {
+        return load(graph, nv, edges, edges.length);
+    }
+
+    /** As for load(G, NV, EDGES), but using only EDGES[0 .. N-1]. */
+    static <G extends GraphObj> G load(G graph, int nv, long[] edges,
+                                       int n) {
+        long[] keys = new long[n];
+        boolean directed = graph.isDirected();
+        IntStream.range(0, n).parallel().forEach(k -> {
+            keys[k] = key(directed, nv, (int) (edges[k] >>> 32),
+                          (int) edges[k]);
+        });
+        return loadKeys(graph, nv, keys, n);
+    }
+
+    /** Sort and deduplicate KEYS[0 .. N-1], which become garbage, and load
+     *  G with vertices 1 .. NV and the resulting edges.  The keys must be
+     *  edge keys of G (as for GraphObj.edgeKey) with ends in 1 .. NV.
+     *  Returns G. */
+    static <G extends GraphObj> G loadKeys(G graph, int nv, long[] keys,
+                                           int n) {
+        if (graph.vertexSize() != 0) {
+            throw new IllegalStateException("graph is not empty");
+        }
+        Arrays.parallelSort(keys, 0, n);
+        int m = n;
+        n = 0;
+        for (int k = 0; k < m; k += 1) {
+            if (n == 0 || keys[k] != keys[n - 1]) {
+                keys[n] = keys[k];
+                n += 1;
+            }
+        }
+        graph.load(nv, keys, n);
+        return graph;
+    }
+
+    /** Returns the key of edge (U, V) in a graph with vertices 1 .. NV,
+     *  directed iff DIRECTED. */
+    private static long key(boolean directed, int nv, int u, int v) {
+        if (u < 1 || u > nv || v < 1 || v > nv) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+        if (directed || u <= v) {
+            return EdgeIndex.key(u, v);
+        } else {
+            return EdgeIndex.key(v, u);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package graph;
+
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for bulk graph construction.
+ *  @author Mina Kim
+ */
+public class GraphLoaderTest {
+
+    /** Returns a graph like G, built by individual add calls with
+     *  vertices 1 .. NV and edges (SRC[k], DST[k]). */
+    static Graph addAll(Graph G, int nv, int[] src, int[] dst) {
+        for (int i = 1; i <= nv; i += 1) {
+            G.add();
+        }
+        for (int k = 0; k < src.length; k += 1) {
+            G.add(src[k], dst[k]);
+        }
+        return G;
+    }
+
+    /** Check that bulk loading random edges, with duplicates and self
+     *  edges, gives the same graph as adding them one at a time. */
+    @Test(timeout = 5000)
+    public void loadMatchesAdd() {
+        Random rand = new Random(61);
+        int nv = CSRGraphTest.NV + 1;
+        for (int trial = 0; trial < 20; trial += 1) {
+            int[] src = new int[rand.nextInt(60)];
+            int[] dst = new int[src.length];
+            for (int k = 0; k < src.length; k += 1) {
+                src[k] = 1 + rand.nextInt(nv);
+                dst[k] = 1 + rand.nextInt(nv);
+            }
+            CSRGraphTest.checkSame(addAll(new DirectedGraph(), nv, src, dst),
+                                   GraphLoader.load(new DirectedGraph(), nv,
+                                                    src, dst));
+            CSRGraphTest.checkSame(addAll(new UndirectedGraph(), nv,
+                                          src, dst),
+                                   GraphLoader.load(new UndirectedGraph(), nv,
+                                                    src, dst));
+        }
+    }
+
+    /** Check loading from packed edges, and that the loaded graph can
+     *  then be modified normally. */
+    @Test(timeout = 1000)
+    public void loadPacked() {
+        long[] edges = new long[CSRGraphTest.EDGES.length];
+        for (int k = 0; k < edges.length; k += 1) {
+            edges[k] = ((long) CSRGraphTest.EDGES[k][0] << 32)
+                | CSRGraphTest.EDGES[k][1];
+        }
+        Graph G = GraphLoader.load(new DirectedGraph(), CSRGraphTest.NV,
+                                   edges);
+        G.remove(4);
+        CSRGraphTest.checkSame(CSRGraphTest.fill(new DirectedGraph()), G);
+        G.add(3, 2);
+        assertEquals("wrong edge count after add", edges.length,
+                     G.edgeSize());
+        assertEquals("wrong new vertex", 4, G.add());
+        assertEquals("wrong new vertex", 11, G.add());
+    }
+
+    /** Check that edges must join vertices 1 .. NV. */
+    @Test(timeout = 1000, expected = IllegalArgumentException.class)
+    public void loadBadVertex() {
+        GraphLoader.load(new DirectedGraph(), 3, new int[] { 1, 2 },
+                         new int[] { 3, 4 });
+    }
+
+    /** Check that reserving more room than an index can have fails at
+     *  once, rather than overflowing its capacity. */
+    @Test(timeout = 1000, expected = IllegalArgumentException.class)
+    public void reserveTooMany() {
+        new EdgeIndex().reserve(EdgeIndex.MAX_CAPACITY);
+    }
+}
@@ -3,6 +3,11 @@ package graph;
 /* See restrictions in Graph.java. */
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /** A partial implementation of Graph containing elements common to
  *  directed and undirected graphs.
@@ -14,214 +19,152 @@ abstract class GraphObj extends Graph {
 
     /** A new, empty Graph. */
     GraphObj() {
-        edgelist = new ArrayList<>();
-        verticelist = new ArrayList<>();
-        removedvertex = new ArrayList<>();
+        _out = new AdjacencyLists(0);
+        _in = isDirected() ? new AdjacencyLists(0) : _out;
+        _index = new EdgeIndex();
+        _tail = _head = _tailPos = _headPos = AdjacencyLists.EMPTY;
+        _freeEdges = AdjacencyLists.EMPTY;
+        _vertices = new BitSet();
+        _firstFree = 1;
     }
 
     @Override
     public int vertexSize() {
-        return verticelist.size();
+        return _vertexCount;
     }
 
     @Override
     public int maxVertex() {
-        int maxvertex = 0;
-        for (int i = 0; i < verticelist.size(); i++) {
-            int num = verticelist.get(i);
-            if (num > maxvertex) {
-                maxvertex = num;
-            }
-        }
-        return maxvertex;
+        return _maxVertex;
     }
 
     @Override
     public int edgeSize() {
-        return edgelist.size();
+        return _edgeCount;
     }
 
     @Override
     public abstract boolean isDirected();
 
+    /* The length of V's outgoing list serves as its degree counter,
+     * maintained by add and remove.  An undirected self edge appears in
+     * that list once, and so counts once. */
     @Override
     public int outDegree(int v) {
-        if (isDirected()) {
-            if (!verticelist.contains(v)) {
-                return 0;
-            }
-            int count = 0;
-            for (int i = 0; i < edgelist.size(); i++) {
-                if (edgelist.get(i)[0] == v) {
-                    count++;
-                }
-            }
-            return count;
-        } else {
-            if (!verticelist.contains(v)) {
-                return 0;
-            }
-            int count = 0;
-            for (int i = 0; i < edgelist.size(); i++) {
-                if (edgelist.get(i)[0] == v || edgelist.get(i)[1] == v) {
-                    count++;
-                }
-            }
-            return count;
+        if (!contains(v)) {
+            return 0;
         }
+        return _out.size(v);
     }
 
-
     @Override
-    public abstract int inDegree(int v);
+    public int inDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        }
+        return _in.size(v);
+    }
 
     @Override
     public boolean contains(int u) {
-        for (int i = 0; i < verticelist.size(); i++) {
-            int curr = verticelist.get(i);
-            if (u == curr) {
-                return true;
-            }
-        }
-        return false;
+        return u > 0 && _vertices.get(u);
     }
 
-
-
     @Override
     public boolean contains(int u, int v) {
-        if (isDirected()) {
-            if (contains(u) & contains(v)) {
-                for (int i = 0; i < edgelist.size(); i++) {
-                    int[] currpair = edgelist.get(i);
-                    int first = currpair[0];
-                    int second = currpair[1];
-                    if (first == u & second == v) {
-                        return true;
-                    }
-                }
-            }
-            return false;
-        } else {
-            if (contains(u) & contains(v)) {
-                for (int i = 0; i < edgelist.size(); i++) {
-                    int[] currpair = edgelist.get(i);
-                    int first = currpair[0];
-                    int second = currpair[1];
-                    if ((first == u & second == v) || (first == v
-                            & second == u)) {
-                        return true;
-                    }
-                }
-            }
-            return false;
-        }
+        return contains(u) && contains(v) && findEdge(u, v) != -1;
     }
 
-
-
-
     @Override
     public int add() {
-        if (verticelist.isEmpty()) {
-            verticelist.add(1);
-            return 1;
-        } else if (removedvertex.size() == 0) {
-            verticelist.add(maxVertex() + 1);
-            return maxVertex();
-        } else {
-            int min = removedvertex.get(0);
-            int minindex = 0;
-            for (int i = 0; i < removedvertex.size(); i++) {
-                int curr = removedvertex.get(i);
-                if (curr < min) {
-                    min = curr;
-                    minindex = i;
-                }
-            }
-            verticelist.add(min);
-            removedvertex.remove(minindex);
-            return min;
+        int v = _vertices.nextClearBit(_firstFree);
+        _vertices.set(v);
+        _firstFree = v + 1;
+        _vertexCount += 1;
+        if (v > _maxVertex) {
+            _maxVertex = v;
+            ensureVertex(v);
         }
-
+        return v;
     }
 
     @Override
     public int add(int u, int v) {
-        if (isDirected()) {
-            if (!contains(u, v)) {
-                int[] newedge = {u, v};
-                edgelist.add(newedge);
+        checkMyVertex(u);
+        checkMyVertex(v);
+        if (findEdge(u, v) == -1) {
+            int e = newEdgeRecord();
+            _tail[e] = u;
+            _head[e] = v;
+            _tailPos[e] = _out.append(u, v, e);
+            if (isDirected() || u != v) {
+                _headPos[e] = _in.append(v, u, e);
+            } else {
+                _headPos[e] = -1;
             }
-            return edgeId(u, v);
-
-        } else {
-            if (!contains(u, v) || !contains(v, u)) {
-                int[] newedge = {u, v};
-                edgelist.add(newedge);
-            }
-            return edgeId(u, v);
+            _index.put(edgeKey(u, v), e);
+            _edgeCount += 1;
         }
+        return edgeId(u, v);
     }
 
     @Override
     public void remove(int v) {
-        if (verticelist.contains(v)) {
-            for (int i = 0; i < verticelist.size(); i++) {
-                int curr = verticelist.get(i);
-                if (curr == v) {
-                    removedvertex.add(verticelist.get(i));
-                    verticelist.remove(i);
-                }
+        if (contains(v)) {
+            while (_out.size(v) > 0) {
+                removeEdge(_out.edgeAt(v, _out.size(v) - 1));
             }
-            for (int j = 0; j < edgelist.size(); j++) {
-                int[] currpair = edgelist.get(j);
-                int first = currpair[0];
-                int second = currpair[1];
-                if (first == v || second == v) {
-                    edgelist.remove(j);
-                    j--;
-                }
-
+            while (_in.size(v) > 0) {
+                removeEdge(_in.edgeAt(v, _in.size(v) - 1));
+            }
+            _out.clear(v);
+            _in.clear(v);
+            _vertices.clear(v);
+            _vertexCount -= 1;
+            _firstFree = Math.min(_firstFree, v);
+            if (v == _maxVertex) {
+                _maxVertex = Math.max(0, _vertices.previousSetBit(v));
             }
         }
     }
 
     @Override
     public void remove(int u, int v) {
-            for (int i = 0; i < edgelist.size(); i++) {
-                int[] currpair = edgelist.get(i);
-                int first = currpair[0];
-                int second = currpair[1];
-                if (first == u & second == v) {
-                    edgelist.remove(i);
-                }
-            }
+        int e = findEdge(u, v);
+        if (e != -1) {
+            removeEdge(e);
         }
-
+    }
 
     @Override
     public Iteration<Integer> vertices() {
-        return Iteration.iteration(verticelist.iterator());
-    }
+        return new Iteration<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return _next > 0;
+            }
 
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v);
+                return v;
+            }
 
+            /** The next vertex to return, or 0 if none. */
+            private int _next = nextVertex(0);
+        };
+    }
 
     @Override
     public Iteration<Integer> successors(int v) {
         if (!contains(v)) {
             return Iteration.iteration(new ArrayList<Integer>());
         }
-        ArrayList<Integer> successor = new ArrayList<>();
-        for (int i = 0; i < edgelist.size(); i++) {
-            int[] curr = edgelist.get(i);
-            int first = curr[0];
-            int second = curr[1];
-            if (first == v) {
-                successor.add(second);
-            }
-        }
-        return Iteration.iteration(successor.iterator());
+        return _out.iteration(v);
     }
 
     @Override
@@ -229,7 +172,31 @@ abstract class GraphObj extends Graph {
 
     @Override
     public Iteration<int[]> edges() {
-        return Iteration.iteration(edgelist.iterator());
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_k < _edgeLimit && _tail[_k] == 0) {
+                    _k += 1;
+                }
+                return _k < _edgeLimit;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _tail[_k];
+                _edge[1] = _head[_k];
+                _k += 1;
+                return _edge;
+            }
+
+            /** Next edge record to return. */
+            private int _k;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
     }
 
     @Override
@@ -241,32 +208,324 @@ abstract class GraphObj extends Graph {
 
     @Override
     protected int edgeId(int u, int v) {
+        return findEdge(u, v) + 1;
+    }
+
+    @Override
+    int edgeIdBound() {
+        return _edgeLimit + 1;
+    }
+    @Override
+    int nextVertex(int v) {
+        int w = _vertices.nextSetBit(Math.max(v, 0) + 1);
+        return w < 0 ? 0 : w;
+    }
+
+    @Override
+    void forEachSuccessor(int v, IntConsumer action) {
+        forEach(_out, v, action);
+    }
+
+    @Override
+    void forEachPredecessor(int v, IntConsumer action) {
+        forEach(_in, v, action);
+    }
+
+    @Override
+    int copySuccessors(int v, int[] buf) {
+        return copy(_out, v, buf);
+    }
+
+    @Override
+    int copyPredecessors(int v, int[] buf) {
+        return copy(_in, v, buf);
+    }
+
+    @Override
+    long totalOutDegree(int[] vs, int from, int to) {
+        return _out.totalSize(vs, from, to);
+    }
+
+    @Override
+    long totalInDegree(int[] vs, int from, int to) {
+        return _in.totalSize(vs, from, to);
+    }
+
+    @Override
+    IntCursor successorCursor() {
+        return new ListCursor(_out);
+    }
+
+    @Override
+    IntCursor predecessorCursor() {
+        return new ListCursor(_in);
+    }
+
+    /** Call ACTION on each entry of V's list in LISTS, if V is my
+     *  vertex. */
+    private void forEach(AdjacencyLists lists, int v, IntConsumer action) {
+        if (contains(v)) {
+            int[] adj = lists.vertices(v);
+            for (int k = 0, n = lists.size(v); k < n; k += 1) {
+                action.accept(adj[k]);
+            }
+        }
+    }
+
+    /** Copy V's list in LISTS into BUF, returning its length. */
+    private int copy(AdjacencyLists lists, int v, int[] buf) {
+        if (!contains(v)) {
+            return 0;
+        }
+        int n = lists.size(v);
+        System.arraycopy(lists.vertices(v), 0, buf, 0, n);
+        return n;
+    }
+
+    /** A cursor that reads one of my adjacency lists in place. */
+    private class ListCursor extends IntCursor.ArrayCursor {
+        /** A cursor over the lists in LISTS. */
+        ListCursor(AdjacencyLists lists) {
+            _lists = lists;
+        }
+
+        @Override
+        IntCursor start(int v) {
+            if (contains(v)) {
+                reset(_lists.vertices(v), 0, _lists.size(v));
+            } else {
+                reset(AdjacencyLists.EMPTY, 0, 0);
+            }
+            return this;
+        }
+
+        /** The lists I read. */
+        private final AdjacencyLists _lists;
+    }
+
+    /** Returns the lists of outgoing edges.  For undirected graphs, these
+     *  are all the incident edges. */
+    AdjacencyLists outLists() {
+        return _out;
+    }
+
+    /** Returns the lists of incoming edges.  For undirected graphs, these
+     *  are the same as outLists(). */
+    AdjacencyLists inLists() {
+        return _in;
+    }
+
+    /** Make room in my adjacency lists for vertex V. */
+    private void ensureVertex(int v) {
+        _out.ensureVertex(v);
+        _in.ensureVertex(v);
+    }
+
+    /** Returns the index key for edge (U, V).  Undirected edges are keyed
+     *  by their endpoints in increasing order. */
+    private long edgeKey(int u, int v) {
+        if (isDirected() || u <= v) {
+            return EdgeIndex.key(u, v);
+        } else {
+            return EdgeIndex.key(v, u);
+        }
+    }
+
+    /** Returns the record number of edge (U, V), or -1 if there is none. */
+    int findEdge(int u, int v) {
+        if (u <= 0 || v <= 0) {
+            return -1;
+        }
+        return _index.get(edgeKey(u, v));
+    }
+
+    /** Replace my contents, which must be empty, with the vertices
+     *  1 .. NV and the edges KEYS[0 .. N-1].  These must be distinct edge
+     *  keys (as for edgeKey) in increasing order, with ends in 1 .. NV.
+     *  Edge records are numbered in the order of KEYS.  The adjacency
+     *  lists are built in parallel, one vertex per task. */
+    void load(int nv, long[] keys, int n) {
+        if (vertexSize() != 0) {
+            throw new IllegalStateException("graph is not empty");
+        }
+        _vertices.set(1, nv + 1);
+        _vertexCount = _maxVertex = nv;
+        _firstFree = nv + 1;
+        ensureVertex(nv);
+
+        int cap = Math.max(INITIAL_EDGES, n);
+        _tail = new int[cap];
+        _head = new int[cap];
+        _tailPos = new int[cap];
+        _headPos = new int[cap];
+        Arrays.fill(_headPos, -1);
+        IntStream.range(0, n).parallel().forEach(e -> {
+            _tail[e] = (int) (keys[e] >>> 32);
+            _head[e] = (int) keys[e];
+        });
+        _edgeCount = _edgeLimit = n;
+
         if (isDirected()) {
-            u = u - 1;
-            v = v - 1;
-            return (u + v) * (u + v + 1) / 2 + v;
+            long[] ends = new long[n];
+            IntStream.range(0, n).parallel().forEach(e -> {
+                ends[e] = EdgeIndex.key(_tail[e], e);
+            });
+            fillLists(_out, ends, n, nv);
+            IntStream.range(0, n).parallel().forEach(e -> {
+                ends[e] = EdgeIndex.key(_head[e], e);
+            });
+            Arrays.parallelSort(ends);
+            fillLists(_in, ends, n, nv);
         } else {
-            int max = Math.max(u, v);
-            int min = Math.min(u, v);
-            return (max + min) * (max + min + 1) / 2 + min;
+            long[] ends = new long[2 * n];
+            int m;
+            m = 0;
+            for (int e = 0; e < n; e += 1) {
+                ends[m] = EdgeIndex.key(_tail[e], e);
+                m += 1;
+                if (_tail[e] != _head[e]) {
+                    ends[m] = EdgeIndex.key(_head[e], e);
+                    m += 1;
+                }
+            }
+            Arrays.parallelSort(ends, 0, m);
+            fillLists(_out, ends, m, nv);
+        }
+
+        _index.reserve(n);
+        for (int e = 0; e < n; e += 1) {
+            _index.put(keys[e], e);
         }
     }
-    /** return edgelist. */
-    ArrayList<int[]> edgelistN() {
-        return edgelist;
+
+    /** Set the lists in LISTS for vertices 1 .. NV from ENDS[0 .. M-1],
+     *  which are keys (w, e) in increasing order, each denoting an entry
+     *  for edge record E in W's list.  Records each entry's position. */
+    private void fillLists(AdjacencyLists lists, long[] ends, int m,
+                           int nv) {
+        int[] start = new int[nv + 2];
+        for (int k = 0; k < m; k += 1) {
+            start[(int) (ends[k] >>> 32) + 1] += 1;
+        }
+        for (int w = 1; w <= nv + 1; w += 1) {
+            start[w] += start[w - 1];
+        }
+        boolean outgoing = lists == _out;
+        IntStream.rangeClosed(1, nv).parallel().forEach(w -> {
+            int n = start[w + 1] - start[w];
+            if (n > 0) {
+                int[] adj = new int[n];
+                int[] edge = new int[n];
+                for (int pos = 0; pos < n; pos += 1) {
+                    int e = (int) ends[start[w] + pos];
+                    edge[pos] = e;
+                    if (_out == _in ? _tail[e] == w : outgoing) {
+                        adj[pos] = _head[e];
+                        _tailPos[e] = pos;
+                    } else {
+                        adj[pos] = _tail[e];
+                        _headPos[e] = pos;
+                    }
+                }
+                lists.setList(w, adj, edge, n);
+            }
+        });
     }
 
-    /** return verticelist. */
-    ArrayList<Integer> verticelistN() {
-        return verticelist;
+    /** Returns an unused edge record number, preferring one released by
+     *  removeEdge, so that record numbers stay below the largest number
+     *  of edges I have ever held at once. */
+    private int newEdgeRecord() {
+        if (_freeCount > 0) {
+            _freeCount -= 1;
+            return _freeEdges[_freeCount];
+        }
+        int e = _edgeLimit;
+        if (e == _tail.length) {
+            int n = Math.max(INITIAL_EDGES, 2 * e);
+            _tail = Arrays.copyOf(_tail, n);
+            _head = Arrays.copyOf(_head, n);
+            _tailPos = Arrays.copyOf(_tailPos, n);
+            _headPos = Arrays.copyOf(_headPos, n);
+        }
+        _edgeLimit += 1;
+        return e;
     }
 
-    /** list of Edges. */
-    private ArrayList<int[]> edgelist;
+    /** Delete edge record E and release its number for reuse. */
+    private void removeEdge(int e) {
+        int u = _tail[e], v = _head[e];
+        _index.remove(edgeKey(u, v));
+        int moved = _out.removeAt(u, _tailPos[e]);
+        if (moved != -1) {
+            relocate(moved, u, _tailPos[e], true);
+        }
+        if (_headPos[e] != -1) {
+            moved = _in.removeAt(v, _headPos[e]);
+            if (moved != -1) {
+                relocate(moved, v, _headPos[e], false);
+            }
+        }
+        _tail[e] = 0;
+        _edgeCount -= 1;
+        if (_edgeCount == 0) {
+            _edgeLimit = _freeCount = 0;
+        } else {
+            if (_freeCount == _freeEdges.length) {
+                _freeEdges = Arrays.copyOf(_freeEdges,
+                                           Math.max(INITIAL_EDGES,
+                                                    2 * _freeCount));
+            }
+            _freeEdges[_freeCount] = e;
+            _freeCount += 1;
+        }
+    }
 
-    /** list of Vertices. */
-    private ArrayList<Integer> verticelist;
+    /** Record that the entry for edge record E in W's outgoing list (if
+     *  OUTGOING) or incoming list (otherwise) has moved to position POS. */
+    private void relocate(int e, int w, int pos, boolean outgoing) {
+        boolean atTail = _out == _in ? _tail[e] == w : outgoing;
+        if (atTail) {
+            _tailPos[e] = pos;
+        } else {
+            _headPos[e] = pos;
+        }
+    }
 
-    /** index after removing vertex. */
-    private ArrayList<Integer> removedvertex;
+    /** Initial capacity of the edge record arrays. */
+    private static final int INITIAL_EDGES = 16;
+
+    /** Lists of outgoing edges, indexed by vertex. */
+    private final AdjacencyLists _out;
+    /** Lists of incoming edges; the same as _out if undirected. */
+    private final AdjacencyLists _in;
+    /** Maps edge keys to edge record numbers. */
+    private final EdgeIndex _index;
+    /** Tail (source) vertex of each edge record, or 0 if the record is
+     *  unused.  Edge ids are record numbers plus 1. */
+    private int[] _tail;
+    /** Head (target) vertex of each edge record. */
+    private int[] _head;
+    /** Position of each edge in its tail's list in _out. */
+    private int[] _tailPos;
+    /** Position of each edge in its head's entry of _in, or -1 for an
+     *  undirected self edge, which appears only once. */
+    private int[] _headPos;
+    /** Number of edge records in use. */
+    private int _edgeCount;
+    /** Edge records 0 .. _edgeLimit-1 have been allocated. */
+    private int _edgeLimit;
+    /** Stack of released edge records, available for reuse. */
+    private int[] _freeEdges;
+    /** Number of records on _freeEdges. */
+    private int _freeCount;
+
+    /** The set of my vertex numbers. */
+    private final BitSet _vertices;
+    /** Number of my vertices. */
+    private int _vertexCount;
+    /** My largest vertex number, or 0 if I am empty. */
+    private int _maxVertex;
+    /** No number less than this (and at least 1) is free for add(). */
+    private int _firstFree;
 }
@@ -82,11 +82,15 @@ public class GraphTest {
 
     /*===== Factories =====*/
 
-    static Graph dg() {
+    /** Returns a new, empty directed graph of the kind under test.
+     *  Subclasses may override this to run these tests on other
+     *  implementations. */
+    protected Graph dg() {
         return new DirectedGraph();
     }
 
-    static Graph ug() {
+    /** Returns a new, empty undirected graph of the kind under test. */
+    protected Graph ug() {
         return new UndirectedGraph();
     }
 
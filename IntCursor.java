@@ -0,0 +1,95 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A reusable cursor over the successors or predecessors of a vertex,
+ *  delivering unboxed ints.  A cursor is obtained once from a Graph (see
+ *  Graph.successorCursor) and then restarted for each vertex, so that
+ *  scanning neighbors need not allocate.  Typical use:
+ *      c.start(v);
+ *      while (c.hasNext()) {
+ *          int w = c.next();
+ *          ...
+ *      }
+ *  The effect of modifying the graph while a cursor is active is
+ *  undefined.
+ *  @author Mina Kim
+ */
+abstract class IntCursor {
+
+    /** Position me before the first neighbor of V.  I am empty if V is
+     *  not a vertex of my graph.  Returns me. */
+    abstract IntCursor start(int v);
+
+    /** Returns true iff there are further neighbors. */
+    abstract boolean hasNext();
+
+    /** Returns the next neighbor.  Requires hasNext(). */
+    abstract int next();
+
+    /** A cursor over neighbors held in an int array.  Subclasses supply
+     *  start, which locates the neighbors of a vertex and calls reset. */
+    abstract static class ArrayCursor extends IntCursor {
+
+        @Override
+        boolean hasNext() {
+            return _k < _n;
+        }
+
+        @Override
+        int next() {
+            _k += 1;
+            return _vals[_k - 1];
+        }
+
+        /** Deliver VALS[FROM .. TO-1] from now on. */
+        void reset(int[] vals, int from, int to) {
+            _vals = vals;
+            _k = from;
+            _n = to;
+        }
+
+        /** The values delivered. */
+        private int[] _vals = AdjacencyLists.EMPTY;
+        /** End of the values delivered from _vals. */
+        private int _n;
+        /** Index of the next value. */
+        private int _k;
+    }
+
+    /** A cursor for an arbitrary Graph, which copies each neighbor list
+     *  into a buffer that it reuses from one start() to the next. */
+    static class Buffered extends ArrayCursor {
+
+        /** A cursor over the successors (if FORWARD) or predecessors of
+         *  vertices of G. */
+        Buffered(Graph G, boolean forward) {
+            _G = G;
+            _forward = forward;
+        }
+
+        @Override
+        IntCursor start(int v) {
+            int n;
+            n = 0;
+            for (int w : _forward ? _G.successors(v) : _G.predecessors(v)) {
+                if (n == _buf.length) {
+                    _buf = Arrays.copyOf(_buf, Math.max(8, 2 * n));
+                }
+                _buf[n] = w;
+                n += 1;
+            }
+            reset(_buf, 0, n);
+            return this;
+        }
+
+        /** The graph whose neighbors I deliver. */
+        private final Graph _G;
+        /** True iff I deliver successors. */
+        private final boolean _forward;
+        /** Holds the current neighbor list. */
+        private int[] _buf = AdjacencyLists.EMPTY;
+    }
+}
@@ -0,0 +1,250 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/** A fringe of vertices for a Traversal, holding unboxed ints.  The
+ *  order in which remove() delivers vertices depends on the kind of
+ *  fringe: Ring is first-in-first-out (breadth-first), Stack is
+ *  last-in-first-out (depth-first), and Boxed delivers them in the order
+ *  of an arbitrary Queue<Integer>.  Ring and Stack grow as needed and
+ *  never shrink, so a fringe reused across traversals stops allocating
+ *  once it has reached its working size.
+ *  @author Mina Kim
+ */
+abstract class IntFringe {
+
+    /** Add V to me. */
+    abstract void add(int v);
+
+    /** Remove and return my next vertex.  Requires !isEmpty(). */
+    abstract int remove();
+
+    /** Returns my next vertex, without removing it.  Requires
+     *  !isEmpty(). */
+    abstract int peek();
+
+    /** Returns the K-th vertex that remove() would deliver (from 0). */
+    abstract int get(int k);
+
+    /** Returns the number of vertices in me. */
+    abstract int size();
+
+    /** Remove all my vertices. */
+    abstract void clear();
+
+    /** Returns true iff I am empty. */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Returns a Queue<Integer> view of me.  Adding to and removing from
+     *  it adds to and removes from me. */
+    Queue<Integer> asQueue() {
+        return new AbstractQueue<Integer>() {
+            @Override
+            public boolean offer(Integer v) {
+                add(v);
+                return true;
+            }
+
+            @Override
+            public Integer poll() {
+                return isEmpty() ? null : IntFringe.this.remove();
+            }
+
+            @Override
+            public Integer peek() {
+                return isEmpty() ? null : IntFringe.this.peek();
+            }
+
+            @Override
+            public int size() {
+                return IntFringe.this.size();
+            }
+
+            @Override
+            public void clear() {
+                IntFringe.this.clear();
+            }
+
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    @Override
+                    public boolean hasNext() {
+                        return _k < IntFringe.this.size();
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        _k += 1;
+                        return get(_k - 1);
+                    }
+
+                    /** Index of the next vertex. */
+                    private int _k;
+                };
+            }
+        };
+    }
+
+    /** A first-in-first-out fringe in a circular buffer. */
+    static class Ring extends IntFringe {
+
+        @Override
+        void add(int v) {
+            if (_size == _vals.length) {
+                int[] vals = new int[Math.max(INITIAL_SIZE, 2 * _size)];
+                for (int k = 0; k < _size; k += 1) {
+                    vals[k] = get(k);
+                }
+                _vals = vals;
+                _head = 0;
+            }
+            _vals[(_head + _size) & (_vals.length - 1)] = v;
+            _size += 1;
+        }
+
+        @Override
+        int remove() {
+            int v = _vals[_head];
+            _head = (_head + 1) & (_vals.length - 1);
+            _size -= 1;
+            return v;
+        }
+
+        @Override
+        int peek() {
+            return _vals[_head];
+        }
+
+        @Override
+        int get(int k) {
+            return _vals[(_head + k) & (_vals.length - 1)];
+        }
+
+        @Override
+        int size() {
+            return _size;
+        }
+
+        @Override
+        void clear() {
+            _head = _size = 0;
+        }
+
+        /** The buffer, whose length is 0 or a power of 2. */
+        private int[] _vals = AdjacencyLists.EMPTY;
+        /** Index in _vals of the next vertex to remove. */
+        private int _head;
+        /** Number of vertices in me. */
+        private int _size;
+    }
+
+    /** A last-in-first-out fringe. */
+    static class Stack extends IntFringe {
+
+        @Override
+        void add(int v) {
+            if (_size == _vals.length) {
+                _vals = Arrays.copyOf(_vals,
+                                      Math.max(INITIAL_SIZE, 2 * _size));
+            }
+            _vals[_size] = v;
+            _size += 1;
+        }
+
+        @Override
+        int remove() {
+            _size -= 1;
+            return _vals[_size];
+        }
+
+        @Override
+        int peek() {
+            return _vals[_size - 1];
+        }
+
+        @Override
+        int get(int k) {
+            return _vals[_size - 1 - k];
+        }
+
+        @Override
+        int size() {
+            return _size;
+        }
+
+        @Override
+        void clear() {
+            _size = 0;
+        }
+
+        /** The stack, bottom first. */
+        private int[] _vals = AdjacencyLists.EMPTY;
+        /** Number of vertices in me. */
+        private int _size;
+    }
+
+    /** A fringe that delivers vertices in the order of a Queue. */
+    static class Boxed extends IntFringe {
+        /** A fringe held in QUEUE. */
+        Boxed(Queue<Integer> queue) {
+            _queue = queue;
+        }
+
+        @Override
+        void add(int v) {
+            _queue.add(v);
+        }
+
+        @Override
+        int remove() {
+            return _queue.remove();
+        }
+
+        @Override
+        int peek() {
+            return _queue.element();
+        }
+
+        @Override
+        int get(int k) {
+            Iterator<Integer> it = _queue.iterator();
+            for (int i = 0; i < k; i += 1) {
+                it.next();
+            }
+            return it.next();
+        }
+
+        @Override
+        int size() {
+            return _queue.size();
+        }
+
+        @Override
+        void clear() {
+            _queue.clear();
+        }
+
+        @Override
+        Queue<Integer> asQueue() {
+            return _queue;
+        }
+
+        /** The queue holding my vertices. */
+        private final Queue<Integer> _queue;
+    }
+
+    /** Capacity allocated on the first add. */
+    private static final int INITIAL_SIZE = 16;
+}
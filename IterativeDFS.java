@@ -0,0 +1,232 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A depth-first search that keeps its own stack of frames, one per
+ *  vertex on the current path, rather than recursing or pushing vertices
+ *  twice onto a fringe (as does DepthFirstTraversal).  A frame holds its
+ *  vertex and its position in that vertex's successors, so each entry
+ *  in a successor list is examined exactly once, and each vertex
+ *  finishes only after all the vertices discovered from it, whatever the
+ *  shape of the graph.  Paths as deep as the graph is large need no more
+ *  than heap memory.
+ *
+ *  One pass records, for each vertex, its discovery and finish times
+ *  (from a single clock that ticks at each of those events, starting at
+ *  1), its parent in the depth-first forest, and its positions in
+ *  preorder and postorder, and for each edge, its classification as a
+ *  tree, back, forward, or cross edge, indexed by edge id.  In an
+ *  undirected graph, each edge is classified once, when first examined,
+ *  as a tree or back edge.  The graph must not change during a search.
+ *  @author Mina Kim
+ */
+final class IterativeDFS {
+
+    /** Edge kinds in edgeKinds(): not examined, tree, back, forward,
+     *  cross. */
+    static final byte UNCLASSIFIED = 0, TREE = 1, BACK = 2, FORWARD = 3,
+        CROSS = 4;
+
+    /** A search of G. */
+    IterativeDFS(Graph G) {
+        _G = G;
+        _discovery = _finish = _parents = AdjacencyLists.EMPTY;
+        _preorder = _postorder = AdjacencyLists.EMPTY;
+        _kinds = new byte[0];
+    }
+
+    /** Search the whole graph, starting new trees at unvisited vertices
+     *  in increasing order.  Returns me. */
+    IterativeDFS search() {
+        begin();
+        for (int v = _G.nextVertex(0); v != 0; v = _G.nextVertex(v)) {
+            if (_discovery[v] == 0) {
+                tree(v);
+            }
+        }
+        return end();
+    }
+
+    /** Search from each of ROOTS in turn that has not already been
+     *  visited.  Returns me. */
+    IterativeDFS search(int... roots) {
+        begin();
+        for (int v : roots) {
+            _G.checkMyVertex(v);
+            if (_discovery[v] == 0) {
+                tree(v);
+            }
+        }
+        return end();
+    }
+
+    /** Returns the discovery time of each vertex in the last search, or
+     *  0 if it was not visited.  Indexed by vertex. */
+    int[] discovery() {
+        return _discovery;
+    }
+
+    /** Returns the finish time of each vertex in the last search, or 0
+     *  if it was not visited.  Indexed by vertex. */
+    int[] finish() {
+        return _finish;
+    }
+
+    /** Returns the parent of each vertex in the depth-first forest of the
+     *  last search, or 0 for roots and unvisited vertices.  Indexed by
+     *  vertex. */
+    int[] parents() {
+        return _parents;
+    }
+
+    /** Returns the vertices visited by the last search, in order of
+     *  discovery. */
+    int[] preorder() {
+        return _preorder;
+    }
+
+    /** Returns the vertices visited by the last search, in order of
+     *  finishing. */
+    int[] postorder() {
+        return _postorder;
+    }
+
+    /** Returns the kind of each edge in the last search (TREE, BACK,
+     *  FORWARD, or CROSS), or UNCLASSIFIED if it was not examined.
+     *  Indexed by edge id. */
+    byte[] edgeKinds() {
+        return _kinds;
+    }
+
+    /** Returns the kind of edge (U, V) in the last search.  Requires
+     *  that it be an edge of the graph. */
+    byte edgeKind(int u, int v) {
+        return _kinds[_G.edgeId(u, v)];
+    }
+
+    /** Returns the number of vertices visited by the last search. */
+    int visited() {
+        return _visited;
+    }
+
+    /** Set up the results for a new search. */
+    private void begin() {
+        int size = _G.maxVertex() + 1;
+        _discovery = new int[size];
+        _finish = new int[size];
+        _parents = new int[size];
+        _preorder = new int[_G.vertexSize()];
+        _postorder = new int[_G.vertexSize()];
+        _kinds = new byte[_G.edgeIdBound()];
+        _csr = _G.csr();
+        _scratch = AdjacencyLists.EMPTY;
+        _clock = _visited = _post = 0;
+    }
+
+    /** Finish the results of a search.  Returns me. */
+    private IterativeDFS end() {
+        _buf = _scratch = AdjacencyLists.EMPTY;
+        _frames = AdjacencyLists.EMPTY;
+        _csr = null;
+        return this;
+    }
+
+    /** Grow the depth-first tree rooted at unvisited vertex ROOT. */
+    private void tree(int root) {
+        int depth;
+        depth = 0;
+        push(root, 0, 0);
+        depth += 1;
+        while (depth > 0) {
+            int f = (depth - 1) * FRAME;
+            int u = _frames[f];
+            int[] adj = _csr == null ? _buf : _csr.targets();
+            if (_frames[f + 1] == _frames[f + 2]) {
+                _clock += 1;
+                _finish[u] = _clock;
+                _postorder[_post] = u;
+                _post += 1;
+                depth -= 1;
+                continue;
+            }
+            int w = adj[_frames[f + 1]];
+            _frames[f + 1] += 1;
+            int e = _G.edgeId(u, w);
+            if (_discovery[w] == 0) {
+                _kinds[e] = TREE;
+                _parents[w] = u;
+                push(w, depth, _csr == null ? _frames[f + 2] : 0);
+                depth += 1;
+            } else if (_kinds[e] != UNCLASSIFIED && !_G.isDirected()) {
+                continue;
+            } else if (_finish[w] == 0) {
+                _kinds[e] = BACK;
+            } else if (_discovery[u] < _discovery[w]) {
+                _kinds[e] = FORWARD;
+            } else {
+                _kinds[e] = CROSS;
+            }
+        }
+    }
+
+    /** Discover V, pushing its frame as number DEPTH, with the successors
+     *  of V placed in _buf from TOP on, unless the graph has a CSR
+     *  form. */
+    private void push(int v, int depth, int top) {
+        _clock += 1;
+        _discovery[v] = _clock;
+        _preorder[_visited] = v;
+        _visited += 1;
+        int f = depth * FRAME;
+        if (f + FRAME > _frames.length) {
+            _frames = Arrays.copyOf(_frames, Math.max(INITIAL_SIZE,
+                                                      2 * _frames.length));
+        }
+        _frames[f] = v;
+        if (_csr != null) {
+            _frames[f + 1] = _csr.offsets()[v];
+            _frames[f + 2] = _csr.offsets()[v + 1];
+            return;
+        }
+        int degree = _G.outDegree(v);
+        if (_scratch.length < degree) {
+            _scratch = new int[Math.max(INITIAL_SIZE, 2 * degree)];
+        }
+        if (top + degree > _buf.length) {
+            _buf = Arrays.copyOf(_buf, Math.max(INITIAL_SIZE,
+                                                2 * (top + degree)));
+        }
+        int n = _G.copySuccessors(v, _scratch);
+        System.arraycopy(_scratch, 0, _buf, top, n);
+        _frames[f + 1] = top;
+        _frames[f + 2] = top + n;
+    }
+
+    /** Number of ints in a frame: vertex, position of the next successor,
+     *  and end of the successors. */
+    private static final int FRAME = 3;
+    /** Initial sizes of the stacks. */
+    private static final int INITIAL_SIZE = 48;
+
+    /** The graph searched. */
+    private final Graph _G;
+    /** The CSR form of _G during a search, if it has one, else null. */
+    private CSRGraph _csr;
+    /** The stack of frames, FRAME ints each. */
+    private int[] _frames = AdjacencyLists.EMPTY;
+    /** The successors of the vertices on the stack, when _G has no CSR
+     *  form, in order of depth. */
+    private int[] _buf = AdjacencyLists.EMPTY;
+    /** Buffer for copying successors. */
+    private int[] _scratch;
+    /** Results of the last search. */
+    private int[] _discovery, _finish, _parents, _preorder, _postorder;
+    /** Edge kinds of the last search. */
+    private byte[] _kinds;
+    /** The clock. */
+    private int _clock;
+    /** Vertices discovered and finished so far. */
+    private int _visited, _post;
+}
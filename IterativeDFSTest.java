@@ -0,0 +1,131 @@
+package graph;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for the iterative depth-first search.
+ *  @author Mina Kim
+ */
+public class IterativeDFSTest {
+
+    /** Check the times, orders and edge classification of SEARCH, a
+     *  search of all of G.  Undirected edges are checked from their
+     *  earlier-discovered ends. */
+    private static void checkSearch(Graph G, IterativeDFS search) {
+        int[] disc = search.discovery(), fin = search.finish(),
+            parents = search.parents();
+        assertEquals("not all visited", G.vertexSize(), search.visited());
+        for (int k = 0; k < search.visited(); k += 1) {
+            int v = search.preorder()[k];
+            if (k > 0) {
+                assertTrue("preorder out of order",
+                           disc[search.preorder()[k - 1]] < disc[v]);
+                assertTrue("postorder out of order",
+                           fin[search.postorder()[k - 1]]
+                           < fin[search.postorder()[k]]);
+            }
+            assertTrue("finished before discovered", disc[v] < fin[v]);
+        }
+        int trees;
+        trees = 0;
+        for (int[] e : G.edges()) {
+            int u = e[0], v = e[1];
+            byte kind = search.edgeKind(u, v);
+            if (!G.isDirected() && disc[u] > disc[v]) {
+                int t = u;
+                u = v;
+                v = t;
+            }
+            switch (kind) {
+            case IterativeDFS.TREE:
+                trees += 1;
+                assertEquals("bad tree edge", u, parents[v]);
+                break;
+            case IterativeDFS.BACK:
+                if (G.isDirected()) {
+                    assertTrue("bad back edge",
+                               disc[v] <= disc[u] && fin[u] <= fin[v]);
+                } else {
+                    assertTrue("bad back edge",
+                               disc[u] <= disc[v] && fin[v] <= fin[u]);
+                }
+                break;
+            case IterativeDFS.FORWARD:
+                assertTrue("bad forward edge", G.isDirected()
+                           && disc[u] < disc[v] && fin[v] < fin[u]
+                           && parents[v] != u);
+                break;
+            case IterativeDFS.CROSS:
+                assertTrue("bad cross edge",
+                           G.isDirected() && fin[v] < disc[u]);
+                break;
+            default:
+                fail("unclassified edge");
+            }
+        }
+        int roots;
+        roots = 0;
+        for (int v = 1; v <= G.maxVertex(); v += 1) {
+            if (G.contains(v) && parents[v] == 0) {
+                roots += 1;
+            }
+        }
+        assertEquals("wrong number of tree edges", G.vertexSize() - roots,
+                     trees);
+    }
+
+    /** Check searches of random graphs, with and without CSR forms. */
+    @Test(timeout = 10000)
+    public void randomGraphs() {
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph G = ParallelBFSTest.random(directed, 2000, 5000, 14);
+            IterativeDFS search = new IterativeDFS(G).search();
+            checkSearch(G, search);
+            Graph frozen = CSRGraph.freeze(G);
+            checkSearch(frozen, new IterativeDFS(frozen).search());
+        }
+    }
+
+    /** Check a search from given roots, which visits only what they
+     *  reach. */
+    @Test(timeout = 1000)
+    public void roots() {
+        Graph G = CSRGraphTest.fill(new DirectedGraph());
+        IterativeDFS search = new IterativeDFS(G).search(5, 2);
+        int[] dist5 = ParallelBFSTest.distances(G, 5),
+            dist2 = ParallelBFSTest.distances(G, 2);
+        int reached;
+        reached = 0;
+        for (int v = 1; v <= G.maxVertex(); v += 1) {
+            boolean reachable = dist5[v] >= 0 || dist2[v] >= 0;
+            assertEquals("wrong vertices visited", reachable,
+                         search.discovery()[v] != 0);
+            reached += reachable ? 1 : 0;
+        }
+        assertEquals("wrong visited count", reached, search.visited());
+        assertEquals("wrong first root", 5, search.preorder()[0]);
+    }
+
+    /** Check that a path of a million vertices does not overflow the
+     *  stack, and finishes in reverse order. */
+    @Test(timeout = 20000)
+    public void deepPath() {
+        int n = 1000000;
+        int[] src = new int[n - 1], dst = new int[n - 1];
+        for (int k = 0; k < n - 1; k += 1) {
+            src[k] = k + 1;
+            dst[k] = k + 2;
+        }
+        Graph G = GraphLoader.load(new DirectedGraph(), n, src, dst);
+        IterativeDFS search = new IterativeDFS(G).search(1);
+        assertEquals("not all visited", n, search.visited());
+        assertEquals("wrong first finish", n, search.postorder()[0]);
+        assertEquals("wrong last finish", 1, search.postorder()[n - 1]);
+        assertEquals("wrong finish time", 2 * n, search.finish()[1]);
+    }
+}
@@ -39,7 +39,10 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  and otherwise 0. Assumes LAB is not null. If multiple edges have the
      *  label EL, returns an arbitrary one of them. */
     public int getSuccessor(int u, EL lab) {
-        for (int v : successors(u)) {
+        IntCursor succs = successorCursor();
+        succs.start(u);
+        while (succs.hasNext()) {
+            int v = succs.next();
             if (lab.equals(getLabel(u, v))) {
                 return v;
             }
@@ -91,12 +94,31 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
 
     @Override
     public void remove(int v) {
+        if (contains(v)) {
+            clearEdgeLabels(v, successorCursor(), true);
+            clearEdgeLabels(v, predecessorCursor(), false);
+        }
         super.remove(v);
         if (v < _vlabel.size()) {
             _vlabel.set(v, null);
         }
     }
 
+    /** Set the labels of the edges between V and the neighbors delivered
+     *  by NEIGHBORS (which are successors iff OUTGOING) to null.  Edge ids
+     *  are reused after removal, so labels must not outlive their edges. */
+    private void clearEdgeLabels(int v, IntCursor neighbors,
+                                 boolean outgoing) {
+        neighbors.start(v);
+        while (neighbors.hasNext()) {
+            int w = neighbors.next();
+            int e = outgoing ? edgeId(v, w) : edgeId(w, v);
+            if (e < _elabel.size()) {
+                _elabel.set(e, null);
+            }
+        }
+    }
+
     @Override
     public void remove(int u, int v) {
         int e = edgeId(u, v);
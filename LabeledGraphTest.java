@@ -117,6 +117,31 @@ public class LabeledGraphTest {
         }
     }
 
+    /** Check that edges added after removals do not inherit the labels of
+     *  removed edges. */
+    @Test(timeout = 1000)
+    public void edgeLabelsAfterRemoval() {
+        fillGraph(new LDG(), NV1, E1);
+        _G.remove(2);
+        _G.remove(8, 9);
+        assertEquals("vertex not reused", 2, _G.add("V2"));
+        _G.add(2, 5);
+        _G.add(5, 2);
+        _G.add(9, 8);
+        for (int[] e : _G.edges()) {
+            if (e[0] == 2 || e[1] == 2 || (e[0] == 9 && e[1] == 8)) {
+                assertNull(String.format("stale label for (%d, %d)",
+                                         e[0], e[1]),
+                           _G.getLabel(e[0], e[1]));
+            } else {
+                assertEquals(String.format("wrong edge label for (%d, %d)",
+                                           e[0], e[1]),
+                             String.format("E%d-%d", e[0], e[1]),
+                             _G.getLabel(e[0], e[1]));
+            }
+        }
+    }
+
     /** The test graph. */
     private LabeledGraph<String, String> _G;
 }
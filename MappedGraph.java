@@ -0,0 +1,585 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/** A read-only graph served directly from a memory-mapped file in the
+ *  format described in GraphFile.  Opening one maps the file's sections
+ *  without reading them, so the cost of using it is proportional to the
+ *  pages actually touched.  All modifying operations throw
+ *  UnsupportedOperationException.
+ *  @author Mina Kim
+ */
+final class MappedGraph extends Graph {
+
+    /** A graph mapped from FILE. */
+    MappedGraph(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file,
+                                               StandardOpenOption.READ)) {
+            if (in.size() < GraphFile.HEADER_SIZE) {
+                throw new IOException("not a graph file: " + file);
+            }
+            ByteBuffer header =
+                in.map(FileChannel.MapMode.READ_ONLY, 0,
+                       GraphFile.HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != GraphFile.MAGIC) {
+                throw new IOException("not a graph file: " + file);
+            }
+            if (header.getInt(4) != GraphFile.VERSION) {
+                throw new IOException("unsupported graph file version: "
+                                      + header.getInt(4));
+            }
+            _flags = header.getInt(8);
+            _maxVertex = header.getInt(12);
+            _vertexCount = header.getInt(16);
+            _edgeCount = header.getInt(20);
+            long targetCount = header.getInt(24);
+            long[] sections = new long[GraphFile.NUM_SECTIONS];
+            for (int k = 0; k < sections.length; k += 1) {
+                sections[k] =
+                    header.getLong(GraphFile.SECTION_TABLE + 8 * k);
+            }
+
+            _vertices = new MappedLongs(in, sections[GraphFile.VERTICES],
+                                        _maxVertex / 64 + 1);
+            _offsets = new MappedInts(in, sections[GraphFile.OFFSETS],
+                                      _maxVertex + 2);
+            _targets = new MappedInts(in, sections[GraphFile.TARGETS],
+                                      targetCount);
+            if (isDirected()) {
+                _roffsets = new MappedInts(in, sections[GraphFile.ROFFSETS],
+                                           _maxVertex + 2);
+                _rtargets = new MappedInts(in, sections[GraphFile.RTARGETS],
+                                           targetCount);
+            } else {
+                _roffsets = _offsets;
+                _rtargets = _targets;
+            }
+            _vlabels = labels(in, sections[GraphFile.VLABELS],
+                              _maxVertex + 1);
+            _elabels = labels(in, sections[GraphFile.ELABELS],
+                              targetCount + 1);
+        }
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexCount;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return (_flags & GraphFile.DIRECTED) != 0;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _offsets.get(v + 1) - _offsets.get(v) : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _roffsets.get(v + 1) - _roffsets.get(v) : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= _maxVertex
+            && (_vertices.get(u >>> 6) & (1L << u)) != 0;
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw readOnly();
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw readOnly();
+    }
+
+    @Override
+    public void remove(int v) {
+        throw readOnly();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw readOnly();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return new Iteration<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return _next != 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v);
+                return v;
+            }
+
+            /** The next vertex to return, or 0 if none. */
+            private int _next = nextVertex(0);
+        };
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return new AdjacencyLists.IntIteration(row(_offsets, _targets, v));
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return new AdjacencyLists.IntIteration(row(_roffsets, _rtargets, v));
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_k < _targets.size()) {
+                    while (_offsets.get(_u + 1) <= _k) {
+                        _u += 1;
+                    }
+                    if (isDirected() || _u <= _targets.get(_k)) {
+                        return true;
+                    }
+                    _k += 1;
+                }
+                return false;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _u;
+                _edge[1] = _targets.get(_k);
+                _k += 1;
+                return _edge;
+            }
+
+            /** Position in _targets of the next candidate edge. */
+            private long _k;
+            /** Row containing position _k. */
+            private int _u;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u) || !contains(v)) {
+            return 0;
+        }
+        if (!isDirected() && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        int lo = _offsets.get(u), hi = _offsets.get(u + 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int w = _targets.get(mid);
+            if (w < v) {
+                lo = mid + 1;
+            } else if (w > v) {
+                hi = mid - 1;
+            } else {
+                return mid + 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    int edgeIdBound() {
+        return (int) _targets.size() + 1;
+    }
+
+    @Override
+    int nextVertex(int v) {
+        int w = Math.max(v, 0) + 1;
+        if (w > _maxVertex) {
+            return 0;
+        }
+        int k = w >>> 6;
+        long word = _vertices.get(k) & (-1L << w);
+        while (word == 0) {
+            k += 1;
+            if (k >= _vertices.size()) {
+                return 0;
+            }
+            word = _vertices.get(k);
+        }
+        return 64 * k + Long.numberOfTrailingZeros(word);
+    }
+
+    @Override
+    void forEachSuccessor(int v, IntConsumer action) {
+        if (contains(v)) {
+            for (int k = _offsets.get(v); k < _offsets.get(v + 1); k += 1) {
+                action.accept(_targets.get(k));
+            }
+        }
+    }
+
+    @Override
+    void forEachPredecessor(int v, IntConsumer action) {
+        if (contains(v)) {
+            for (int k = _roffsets.get(v); k < _roffsets.get(v + 1);
+                 k += 1) {
+                action.accept(_rtargets.get(k));
+            }
+        }
+    }
+
+    @Override
+    IntCursor successorCursor() {
+        return new RowCursor(_offsets, _targets);
+    }
+
+    @Override
+    IntCursor predecessorCursor() {
+        return new RowCursor(_roffsets, _rtargets);
+    }
+
+    /** Returns the text of vertex V's label, or null if it has none or
+     *  the file has no vertex labels. */
+    String vertexLabel(int v) {
+        return contains(v) ? label(_vlabels, v) : null;
+    }
+
+    /** Returns the text of the label of the edge with id E, or null if it
+     *  has none or the file has no edge labels. */
+    String edgeLabel(int e) {
+        return e == 0 ? null : label(_elabels, e);
+    }
+
+    /** Returns the contents of V's row in OFFSETS and TARGETS, or an empty
+     *  array if V is not my vertex. */
+    private int[] row(MappedInts offsets, MappedInts targets, int v) {
+        if (!contains(v)) {
+            return AdjacencyLists.EMPTY;
+        }
+        int from = offsets.get(v);
+        int[] result = new int[offsets.get(v + 1) - from];
+        for (int k = 0; k < result.length; k += 1) {
+            result[k] = targets.get(from + k);
+        }
+        return result;
+    }
+
+    /** A cursor over rows of a mapped CSR. */
+    private class RowCursor extends IntCursor {
+        /** A cursor over the rows described by OFFSETS and TARGETS. */
+        RowCursor(MappedInts offsets, MappedInts targets) {
+            _rowOffsets = offsets;
+            _rowTargets = targets;
+        }
+
+        @Override
+        IntCursor start(int v) {
+            if (contains(v)) {
+                _k = _rowOffsets.get(v);
+                _end = _rowOffsets.get(v + 1);
+            } else {
+                _k = _end = 0;
+            }
+            return this;
+        }
+
+        @Override
+        boolean hasNext() {
+            return _k < _end;
+        }
+
+        @Override
+        int next() {
+            _k += 1;
+            return _rowTargets.get(_k - 1);
+        }
+
+        /** Row offsets. */
+        private final MappedInts _rowOffsets;
+        /** Row contents. */
+        private final MappedInts _rowTargets;
+        /** Position of the next value. */
+        private int _k;
+        /** End of the current row. */
+        private int _end;
+    }
+
+    /** A LabeledGraph over a MappedGraph, whose labels are decoded from the
+     *  file on request.  Labels may not be changed. */
+    static class Labeled<VL, EL> extends LabeledGraph<VL, EL> {
+        /** A labeling of G, whose vertex labels are decoded from text by
+         *  VDECODE and edge labels by EDECODE. */
+        Labeled(MappedGraph G, Function<String, ? extends VL> vdecode,
+                Function<String, ? extends EL> edecode) {
+            super(G);
+            _mapped = G;
+            _vdecode = vdecode;
+            _edecode = edecode;
+        }
+
+        @Override
+        public VL getLabel(int v) {
+            checkMyVertex(v);
+            String text = _mapped.vertexLabel(v);
+            return text == null ? null : _vdecode.apply(text);
+        }
+
+        @Override
+        public EL getLabel(int u, int v) {
+            int e = edgeId(u, v);
+            if (e == 0) {
+                throw new IllegalArgumentException("no such edge");
+            }
+            String text = _mapped.edgeLabel(e);
+            return text == null ? null : _edecode.apply(text);
+        }
+
+        @Override
+        public void setLabel(int v, VL lab) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setLabel(int u, int v, EL lab) {
+            throw readOnly();
+        }
+
+        /** The underlying graph. */
+        private final MappedGraph _mapped;
+        /** Converts vertex label text to labels. */
+        private final Function<String, ? extends VL> _vdecode;
+        /** Converts edge label text to labels. */
+        private final Function<String, ? extends EL> _edecode;
+    }
+
+    /** A read-only array of ints mapped from a file, possibly larger than
+     *  a single mapping allows. */
+    static final class MappedInts {
+        /** The N ints at byte position POS of IN. */
+        MappedInts(FileChannel in, long pos, long n) throws IOException {
+            _size = n;
+            _chunks = new IntBuffer[(int) ((n >>> CHUNK_BITS) + 1)];
+            for (int c = 0; c < _chunks.length; c += 1) {
+                long first = (long) c << CHUNK_BITS;
+                long count = Math.min(n - first, 1L << CHUNK_BITS);
+                _chunks[c] = map(in, pos + 4 * first, 4 * count)
+                    .asIntBuffer();
+            }
+        }
+
+        /** Returns the K-th int. */
+        int get(long k) {
+            return _chunks[(int) (k >>> CHUNK_BITS)]
+                .get((int) (k & CHUNK_MASK));
+        }
+
+        /** Returns the number of ints. */
+        long size() {
+            return _size;
+        }
+
+        /** Log2 of the number of ints in each mapping. */
+        private static final int CHUNK_BITS = 28;
+        /** Mask for the index within a chunk. */
+        private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+        /** The mappings. */
+        private final IntBuffer[] _chunks;
+        /** Number of ints. */
+        private final long _size;
+    }
+
+    /** A read-only array of longs mapped from a file, possibly larger
+     *  than a single mapping allows. */
+    static final class MappedLongs {
+        /** The N longs at byte position POS of IN. */
+        MappedLongs(FileChannel in, long pos, long n) throws IOException {
+            _size = n;
+            _chunks = new LongBuffer[(int) ((n >>> CHUNK_BITS) + 1)];
+            for (int c = 0; c < _chunks.length; c += 1) {
+                long first = (long) c << CHUNK_BITS;
+                long count = Math.min(n - first, 1L << CHUNK_BITS);
+                _chunks[c] = map(in, pos + 8 * first, 8 * count)
+                    .asLongBuffer();
+            }
+        }
+
+        /** Returns the K-th long. */
+        long get(long k) {
+            return _chunks[(int) (k >>> CHUNK_BITS)]
+                .get((int) (k & CHUNK_MASK));
+        }
+
+        /** Returns the number of longs. */
+        long size() {
+            return _size;
+        }
+
+        /** Log2 of the number of longs in each mapping. */
+        private static final int CHUNK_BITS = 27;
+        /** Mask for the index within a chunk. */
+        private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+        /** The mappings. */
+        private final LongBuffer[] _chunks;
+        /** Number of longs. */
+        private final long _size;
+    }
+
+    /** A read-only array of bytes mapped from a file, possibly larger
+     *  than a single mapping allows. */
+    static final class MappedBytes {
+        /** The N bytes at byte position POS of IN. */
+        MappedBytes(FileChannel in, long pos, long n) throws IOException {
+            _chunks = new ByteBuffer[(int) ((n >>> CHUNK_BITS) + 1)];
+            for (int c = 0; c < _chunks.length; c += 1) {
+                long first = (long) c << CHUNK_BITS;
+                long count = Math.min(n - first, 1L << CHUNK_BITS);
+                _chunks[c] = map(in, pos + first, count);
+            }
+        }
+
+        /** Copy the bytes starting at K into DST, which may span
+         *  mappings. */
+        void get(long k, byte[] dst) {
+            int done;
+            done = 0;
+            while (done < dst.length) {
+                long at = k + done;
+                ByteBuffer chunk = _chunks[(int) (at >>> CHUNK_BITS)];
+                int from = (int) (at & CHUNK_MASK);
+                int n = Math.min(dst.length - done, chunk.limit() - from);
+                chunk.get(from, dst, done, n);
+                done += n;
+            }
+        }
+
+        /** Log2 of the number of bytes in each mapping. */
+        private static final int CHUNK_BITS = 30;
+        /** Mask for the index within a chunk. */
+        private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+        /** The mappings. */
+        private final ByteBuffer[] _chunks;
+    }
+
+    /** A mapped label table. */
+    private static final class Labels {
+        /** A label table with positions POSITIONS and data DATA. */
+        Labels(MappedLongs positions, MappedBytes data) {
+            _positions = positions;
+            _data = data;
+        }
+
+        /** Label positions. */
+        private final MappedLongs _positions;
+        /** Label text. */
+        private final MappedBytes _data;
+    }
+
+    /** Returns the label table of N entries at byte position POS of IN, or
+     *  null if POS is 0. */
+    private static Labels labels(FileChannel in, long pos, long n)
+        throws IOException {
+        if (pos == 0) {
+            return null;
+        }
+        MappedLongs positions = new MappedLongs(in, pos, n + 1);
+        long size = positions.get(n);
+        return new Labels(positions,
+                          new MappedBytes(in, pos + 8 * (n + 1), size));
+    }
+
+    /** Returns the text of label K of LABELS, or null. */
+    private static String label(Labels labels, int k) {
+        if (labels == null) {
+            return null;
+        }
+        long from = labels._positions.get(k),
+            to = labels._positions.get(k + 1);
+        if (from == to) {
+            return null;
+        }
+        byte[] text = new byte[(int) (to - from - 1)];
+        labels._data.get(from + 1, text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    /** Returns a little-endian read-only mapping of SIZE bytes at byte
+     *  position POS of IN. */
+    private static ByteBuffer map(FileChannel in, long pos, long size)
+        throws IOException {
+        return in.map(FileChannel.MapMode.READ_ONLY, pos, size)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Returns the exception thrown by attempts to modify me. */
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("graph is read-only");
+    }
+
+    /** Flags from the file header. */
+    private final int _flags;
+    /** My largest vertex. */
+    private final int _maxVertex;
+    /** Number of my vertices. */
+    private final int _vertexCount;
+    /** Number of my edges. */
+    private final int _edgeCount;
+    /** Bitmap of my vertices. */
+    private final MappedLongs _vertices;
+    /** Successor row offsets. */
+    private final MappedInts _offsets;
+    /** Successor rows. */
+    private final MappedInts _targets;
+    /** Predecessor row offsets. */
+    private final MappedInts _roffsets;
+    /** Predecessor rows. */
+    private final MappedInts _rtargets;
+    /** Vertex labels, or null. */
+    private final Labels _vlabels;
+    /** Edge labels, or null. */
+    private final Labels _elabels;
+}
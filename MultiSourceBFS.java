@@ -0,0 +1,189 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A multi-source breadth-first search, which runs a breadth-first search
+ *  from each of a set of sources at once, after Then, Kaufmann et al.
+ *  Each vertex carries a bit mask, one bit per source, of the searches
+ *  that have reached it, and another of the searches for which it is on
+ *  the frontier.  A level is expanded by scanning the successors of each
+ *  frontier vertex once, passing on to each successor at one time all
+ *  the searches that reach it through that vertex, so that searches that
+ *  overlap share their adjacency scans.  Masks are NW longs per vertex
+ *  for k sources, where NW is the number of 64-bit words needed for k
+ *  bits, and the search keeps three of them, so that memory grows as
+ *  the product of the number of sources and vertices.
+ *
+ *  Clients receive the results through a Visitor, which sees each
+ *  (source, vertex) pair as it is reached, or as a table of distances
+ *  from each source.  In either case, the number of vertices reached by
+ *  each search and the sum of their distances (as for closeness
+ *  centrality) are available afterwards.  The graph must not change
+ *  during a search.
+ *  @author Mina Kim
+ */
+final class MultiSourceBFS {
+
+    /** Receives the vertices reached by each search. */
+    interface Visitor {
+        /** Called when the search from the SOURCE-th source reaches
+         *  vertex V, at distance DEPTH. */
+        void reached(int source, int v, int depth);
+    }
+
+    /** A search of G. */
+    MultiSourceBFS(Graph G) {
+        _G = G;
+        _reached = AdjacencyLists.EMPTY;
+        _distanceSums = new long[0];
+        _distances = new int[0][];
+    }
+
+    /** Search from each of SOURCES, recording distances (see
+     *  distances()).  Returns me. */
+    MultiSourceBFS search(int... sources) {
+        int[][] distances = new int[sources.length][_G.maxVertex() + 1];
+        for (int[] row : distances) {
+            Arrays.fill(row, -1);
+        }
+        search(sources, (s, v, depth) -> distances[s][v] = depth);
+        _distances = distances;
+        return this;
+    }
+
+    /** Search from each of SOURCES, reporting the vertices reached to
+     *  VISITOR, if it is not null.  Sources are numbered by their
+     *  positions in SOURCES, and may be repeated.  Returns me. */
+    MultiSourceBFS search(int[] sources, Visitor visitor) {
+        int k = sources.length;
+        int nw = (k + 63) >>> 6;
+        int maxVertex = _G.maxVertex();
+        long[] seen = new long[(maxVertex + 1) * nw],
+            visit = new long[seen.length], next = new long[seen.length];
+        int[] queued = new int[maxVertex + 1];
+        int[] frontier = new int[Math.max(1, k)];
+        int n;
+        n = 0;
+        _reached = new int[k];
+        _distanceSums = new long[k];
+        _distances = new int[0][];
+        _depth = -1;
+
+        for (int s = 0; s < k; s += 1) {
+            int v = sources[s];
+            _G.checkMyVertex(v);
+            long bit = 1L << (s & 63);
+            seen[v * nw + (s >>> 6)] |= bit;
+            visit[v * nw + (s >>> 6)] |= bit;
+            _reached[s] = 1;
+            if (visitor != null) {
+                visitor.reached(s, v, 0);
+            }
+            if (queued[v] == 0) {
+                queued[v] = 1;
+                frontier[n] = v;
+                n += 1;
+            }
+        }
+
+        IntCursor succs = _G.successorCursor();
+        int[] nextFrontier = new int[frontier.length];
+        int depth;
+        depth = 0;
+        while (n > 0) {
+            _depth = depth;
+            depth += 1;
+            int m;
+            m = 0;
+            for (int i = 0; i < n; i += 1) {
+                int u = frontier[i];
+                int uw = u * nw;
+                succs.start(u);
+                while (succs.hasNext()) {
+                    int w = succs.next();
+                    int ww = w * nw;
+                    boolean found = false;
+                    for (int j = 0; j < nw; j += 1) {
+                        long d = visit[uw + j] & ~seen[ww + j];
+                        if (d != 0) {
+                            seen[ww + j] |= d;
+                            next[ww + j] |= d;
+                            found = true;
+                            report(d, j, w, depth, visitor);
+                        }
+                    }
+                    if (found && queued[w] != depth + 1) {
+                        queued[w] = depth + 1;
+                        if (m == nextFrontier.length) {
+                            nextFrontier = Arrays.copyOf(nextFrontier, 2 * m);
+                        }
+                        nextFrontier[m] = w;
+                        m += 1;
+                    }
+                }
+                Arrays.fill(visit, uw, uw + nw, 0);
+            }
+            long[] masks = visit;
+            visit = next;
+            next = masks;
+            int[] vertices = frontier;
+            frontier = nextFrontier;
+            nextFrontier = vertices;
+            n = m;
+        }
+        return this;
+    }
+
+    /** Record that the searches in bits D of word J of the masks have
+     *  reached W at DEPTH, reporting each to VISITOR, if not null. */
+    private void report(long d, int j, int w, int depth, Visitor visitor) {
+        while (d != 0) {
+            int s = (j << 6) + Long.numberOfTrailingZeros(d);
+            d &= d - 1;
+            _reached[s] += 1;
+            _distanceSums[s] += depth;
+            if (visitor != null) {
+                visitor.reached(s, w, depth);
+            }
+        }
+    }
+
+    /** Returns the distances found by the last call of search(int...):
+     *  element [s][v] is the distance of vertex v from the s-th source,
+     *  or -1 if it is unreachable.  Empty after other searches. */
+    int[][] distances() {
+        return _distances;
+    }
+
+    /** Returns the number of vertices reached by each search in the last
+     *  call of search, including its source.  Indexed by source
+     *  number. */
+    int[] reached() {
+        return _reached;
+    }
+
+    /** Returns the sum of the distances of the vertices reached by each
+     *  search in the last call of search.  Indexed by source number. */
+    long[] distanceSums() {
+        return _distanceSums;
+    }
+
+    /** Returns the largest distance found in the last search, or -1 if it
+     *  had no sources. */
+    int depth() {
+        return _depth;
+    }
+
+    /** The graph searched. */
+    private final Graph _G;
+    /** Vertices reached by each search. */
+    private int[] _reached;
+    /** Distance sums of each search. */
+    private long[] _distanceSums;
+    /** Distance table of the last search, if recorded. */
+    private int[][] _distances;
+    /** Largest distance in the last search. */
+    private int _depth;
+}
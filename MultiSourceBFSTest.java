@@ -0,0 +1,94 @@
+package graph;
+
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for multi-source breadth-first search.
+ *  @author Mina Kim
+ */
+public class MultiSourceBFSTest {
+
+    /** Returns K random vertices of G, with repetitions. */
+    private static int[] sources(Graph G, int k, long seed) {
+        Random rand = new Random(seed);
+        int[] result = new int[k];
+        for (int s = 0; s < k; s += 1) {
+            do {
+                result[s] = 1 + rand.nextInt(G.maxVertex());
+            } while (!G.contains(result[s]));
+        }
+        return result;
+    }
+
+    /** Check distances, counts and sums against separate searches, with
+     *  more sources than fit in one word. */
+    @Test(timeout = 10000)
+    public void matchesSequential() {
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph G = ParallelBFSTest.random(directed, 3000, 6000, 8);
+            int[] sources = sources(G, 150, 9);
+            sources[149] = sources[3];
+            MultiSourceBFS search = new MultiSourceBFS(G).search(sources);
+            int depth;
+            depth = 0;
+            for (int s = 0; s < sources.length; s += 1) {
+                int[] dist = ParallelBFSTest.distances(G, sources[s]);
+                int reached;
+                long sum;
+                reached = 0;
+                sum = 0;
+                for (int v = 1; v <= G.maxVertex(); v += 1) {
+                    assertEquals("wrong distance to " + v + " from "
+                                 + sources[s], dist[v],
+                                 search.distances()[s][v]);
+                    if (dist[v] >= 0) {
+                        reached += 1;
+                        sum += dist[v];
+                        depth = Math.max(depth, dist[v]);
+                    }
+                }
+                assertEquals("wrong reached count", reached,
+                             search.reached()[s]);
+                assertEquals("wrong distance sum", sum,
+                             search.distanceSums()[s]);
+            }
+            assertEquals("wrong depth", depth, search.depth());
+        }
+    }
+
+    /** Check that the visitor sees each reachable (source, vertex) pair
+     *  once, in order of distance. */
+    @Test(timeout = 10000)
+    public void visitor() {
+        Graph G = ParallelBFSTest.random(false, 500, 800, 10);
+        int[] sources = sources(G, 70, 11);
+        int[][] seen = new int[sources.length][G.maxVertex() + 1];
+        int[] last = new int[1];
+        new MultiSourceBFS(G).search(sources, (s, v, depth) -> {
+            assertTrue("distances out of order", depth >= last[0]);
+            last[0] = depth;
+            assertEquals("pair reported twice", 0, seen[s][v]);
+            seen[s][v] = depth + 1;
+        });
+        for (int s = 0; s < sources.length; s += 1) {
+            int[] dist = ParallelBFSTest.distances(G, sources[s]);
+            for (int v = 1; v <= G.maxVertex(); v += 1) {
+                assertEquals("wrong report", dist[v] + 1, seen[s][v]);
+            }
+        }
+    }
+
+    /** Check that vertices not in the graph are rejected as sources. */
+    @Test(timeout = 1000, expected = IllegalArgumentException.class)
+    public void badSource() {
+        new MultiSourceBFS(ParallelBFSTest.random(true, 10, 20, 7))
+            .search(1, 2);
+    }
+}
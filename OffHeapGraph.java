@@ -0,0 +1,729 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/** A directed or undirected graph whose vertex set, adjacency lists, edge
+ *  records and edge index all live outside the Java heap, in
+ *  OffHeapInts.  It behaves exactly like a DirectedGraph or
+ *  UndirectedGraph, but its size is limited by native memory (see
+ *  -XX:MaxDirectMemorySize) rather than the heap, and the collector
+ *  never traces its contents, so pauses do not grow with the graph.
+ *
+ *  The storage parallels that of GraphObj.  Each vertex has a header
+ *  (in _info) for its outgoing list and, if directed, its incoming list,
+ *  giving the list's block in _slab, its length and its capacity.  Blocks
+ *  hold (neighbor, edge record) pairs and have power-of-2 capacities; a
+ *  block outgrown or discarded goes on a free list for its size and is
+ *  reused by the next list to need one.  Edge ids are edge record numbers
+ *  plus 1, and released records are reused.
+ *
+ *  close() releases the storage, after which the graph is empty and
+ *  may not be added to.
+ *  @author Mina Kim
+ */
+final class OffHeapGraph extends Graph implements AutoCloseable {
+
+    /** A new, empty graph, directed iff DIRECTED. */
+    OffHeapGraph(boolean directed) {
+        _directed = directed;
+        _stride = directed ? 2 * HEADER : HEADER;
+        _info = new OffHeapInts(0);
+        _present = new OffHeapInts(0);
+        _slab = new OffHeapInts(0);
+        _edges = new OffHeapInts(0);
+        _index = new Index();
+        _freeBlocks = new long[Integer.SIZE];
+        Arrays.fill(_freeBlocks, -1);
+        _freeEdge = -1;
+        _firstFree = 1;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexCount;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        }
+        return _info.get(header(v, true) + SIZE);
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!contains(v)) {
+            return 0;
+        }
+        return _info.get(header(v, false) + SIZE);
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= _maxVertex
+            && (_present.get(u >>> 5) & (1 << u)) != 0;
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return contains(u) && contains(v) && findEdge(u, v) != -1;
+    }
+
+    @Override
+    public int add() {
+        if (_closed) {
+            throw new IllegalStateException("graph is closed");
+        }
+        int v = nextAbsent(_firstFree);
+        if (v > _maxVertex) {
+            _info.ensure((long) (v + 1) * _stride);
+            _present.ensure((v >>> 5) + 1);
+            _maxVertex = v;
+        }
+        _present.set(v >>> 5, _present.get(v >>> 5) | (1 << v));
+        _firstFree = v + 1;
+        _vertexCount += 1;
+        return v;
+    }
+
+    @Override
+    public int add(int u, int v) {
+        checkMyVertex(u);
+        checkMyVertex(v);
+        if (findEdge(u, v) == -1) {
+            int e = newEdgeRecord();
+            long r = 4L * e;
+            _edges.set(r + TAIL, u);
+            _edges.set(r + HEAD, v);
+            _edges.set(r + TAIL_POS, append(u, true, v, e));
+            if (_directed || u != v) {
+                _edges.set(r + HEAD_POS, append(v, false, u, e));
+            } else {
+                _edges.set(r + HEAD_POS, -1);
+            }
+            _index.put(key(u, v), e);
+            _edgeCount += 1;
+        }
+        return edgeId(u, v);
+    }
+
+    @Override
+    public void remove(int v) {
+        if (contains(v)) {
+            long out = header(v, true), in = header(v, false);
+            while (_info.get(out + SIZE) > 0) {
+                removeEdge(edgeAt(out, _info.get(out + SIZE) - 1));
+            }
+            while (_info.get(in + SIZE) > 0) {
+                removeEdge(edgeAt(in, _info.get(in + SIZE) - 1));
+            }
+            clearList(out);
+            clearList(in);
+            _present.set(v >>> 5, _present.get(v >>> 5) & ~(1 << v));
+            _vertexCount -= 1;
+            _firstFree = Math.min(_firstFree, v);
+            if (v == _maxVertex) {
+                _maxVertex = previousVertex(v);
+            }
+        }
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        int e = findEdge(u, v);
+        if (e != -1) {
+            removeEdge(e);
+        }
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return new Iteration<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return _next > 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = nextVertex(v);
+                return v;
+            }
+
+            /** The next vertex to return, or 0 if none. */
+            private int _next = nextVertex(0);
+        };
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return neighbors(v, true);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return neighbors(v, false);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_k < _edgeLimit && _edges.get(4L * _k + TAIL) == 0) {
+                    _k += 1;
+                }
+                return _k < _edgeLimit;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _edges.get(4L * _k + TAIL);
+                _edge[1] = _edges.get(4L * _k + HEAD);
+                _k += 1;
+                return _edge;
+            }
+
+            /** Next edge record to return. */
+            private int _k;
+            /** The array returned by next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    /** Release my storage.  I am empty afterwards, and add() throws
+     *  IllegalStateException. */
+    @Override
+    public void close() {
+        if (!_closed) {
+            _closed = true;
+            _info.release();
+            _present.release();
+            _slab.release();
+            _edges.release();
+            _index.release();
+            _vertexCount = _maxVertex = _edgeCount = _edgeLimit = 0;
+        }
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        return findEdge(u, v) + 1;
+    }
+
+    @Override
+    int edgeIdBound() {
+        return _edgeLimit + 1;
+    }
+
+    @Override
+    int nextVertex(int v) {
+        if (v >= _maxVertex) {
+            return 0;
+        }
+        int from = Math.max(v, 0) + 1;
+        long i = from >>> 5;
+        int bits = _present.get(i) & (-1 << from);
+        while (bits == 0) {
+            i += 1;
+            bits = _present.get(i);
+        }
+        return (int) (32 * i) + Integer.numberOfTrailingZeros(bits);
+    }
+
+    @Override
+    void forEachSuccessor(int v, IntConsumer action) {
+        forEach(v, true, action);
+    }
+
+    @Override
+    void forEachPredecessor(int v, IntConsumer action) {
+        forEach(v, false, action);
+    }
+
+    @Override
+    int copySuccessors(int v, int[] buf) {
+        return copy(v, true, buf);
+    }
+
+    @Override
+    int copyPredecessors(int v, int[] buf) {
+        return copy(v, false, buf);
+    }
+
+    @Override
+    IntCursor successorCursor() {
+        return new ListCursor(true);
+    }
+
+    @Override
+    IntCursor predecessorCursor() {
+        return new ListCursor(false);
+    }
+
+    /** Returns an iteration over a copy of V's outgoing list (if
+     *  OUTGOING) or incoming list. */
+    private Iteration<Integer> neighbors(int v, boolean outgoing) {
+        if (!contains(v)) {
+            return Iteration.iteration(new ArrayList<Integer>());
+        }
+        int[] adj = new int[_info.get(header(v, outgoing) + SIZE)];
+        copy(v, outgoing, adj);
+        return new AdjacencyLists.IntIteration(adj);
+    }
+
+    /** Call ACTION on each entry of V's outgoing list (if OUTGOING) or
+     *  incoming list, if V is my vertex. */
+    private void forEach(int v, boolean outgoing, IntConsumer action) {
+        if (contains(v)) {
+            long h = header(v, outgoing);
+            long base = 2 * _info.getLong(h + BLOCK);
+            for (int k = 0, n = _info.get(h + SIZE); k < n; k += 1) {
+                action.accept(_slab.get(base + 2 * k));
+            }
+        }
+    }
+
+    /** Copy V's outgoing list (if OUTGOING) or incoming list into BUF,
+     *  returning its length. */
+    private int copy(int v, boolean outgoing, int[] buf) {
+        if (!contains(v)) {
+            return 0;
+        }
+        long h = header(v, outgoing);
+        long base = 2 * _info.getLong(h + BLOCK);
+        int n = _info.get(h + SIZE);
+        for (int k = 0; k < n; k += 1) {
+            buf[k] = _slab.get(base + 2 * k);
+        }
+        return n;
+    }
+
+    /** A cursor that reads one of my adjacency lists in place. */
+    private class ListCursor extends IntCursor {
+        /** A cursor over outgoing lists (if OUTGOING) or incoming
+         *  lists. */
+        ListCursor(boolean outgoing) {
+            _outgoing = outgoing;
+        }
+
+        @Override
+        IntCursor start(int v) {
+            _k = _n = 0;
+            if (contains(v)) {
+                long h = header(v, _outgoing);
+                _base = 2 * _info.getLong(h + BLOCK);
+                _n = _info.get(h + SIZE);
+            }
+            return this;
+        }
+
+        @Override
+        boolean hasNext() {
+            return _k < _n;
+        }
+
+        @Override
+        int next() {
+            _k += 1;
+            return _slab.get(_base + 2 * (_k - 1));
+        }
+
+        /** True iff I read outgoing lists. */
+        private final boolean _outgoing;
+        /** Position in _slab of the current list. */
+        private long _base;
+        /** Length of the current list. */
+        private int _n;
+        /** Index of the next entry. */
+        private int _k;
+    }
+
+    /** Returns the position in _info of the header of V's outgoing list
+     *  (if OUTGOING) or incoming list.  These are the same if I am
+     *  undirected. */
+    private long header(int v, boolean outgoing) {
+        long h = (long) v * _stride;
+        return outgoing || !_directed ? h : h + HEADER;
+    }
+
+    /** Returns the edge record of the entry at POS in the list with header
+     *  H. */
+    private int edgeAt(long h, int pos) {
+        return _slab.get(2 * (_info.getLong(h + BLOCK) + pos) + 1);
+    }
+
+    /** Append W, the end of edge record E, to V's outgoing list (if
+     *  OUTGOING) or incoming list.  Returns its position. */
+    private int append(int v, boolean outgoing, int w, int e) {
+        long h = header(v, outgoing);
+        int n = _info.get(h + SIZE), cap = _info.get(h + CAPACITY);
+        long block = _info.getLong(h + BLOCK);
+        if (n == cap) {
+            int newCap = Math.max(INITIAL_LIST, 2 * cap);
+            long newBlock = allocateBlock(newCap);
+            for (long k = 0; k < 2L * n; k += 1) {
+                _slab.set(2 * newBlock + k, _slab.get(2 * block + k));
+            }
+            if (cap > 0) {
+                freeBlock(block, cap);
+            }
+            block = newBlock;
+            _info.setLong(h + BLOCK, block);
+            _info.set(h + CAPACITY, newCap);
+        }
+        _slab.set(2 * (block + n), w);
+        _slab.set(2 * (block + n) + 1, e);
+        _info.set(h + SIZE, n + 1);
+        return n;
+    }
+
+    /** Delete the entry at POS in the list with header H by moving the
+     *  last entry into its place.  Returns the edge record of the entry
+     *  that moved to POS, or -1 if none did. */
+    private int removeAt(long h, int pos) {
+        int last = _info.get(h + SIZE) - 1;
+        _info.set(h + SIZE, last);
+        if (pos == last) {
+            return -1;
+        }
+        long base = 2 * _info.getLong(h + BLOCK);
+        _slab.set(base + 2 * pos, _slab.get(base + 2 * last));
+        int e = _slab.get(base + 2 * last + 1);
+        _slab.set(base + 2 * pos + 1, e);
+        return e;
+    }
+
+    /** Discard the list with header H and its storage. */
+    private void clearList(long h) {
+        int cap = _info.get(h + CAPACITY);
+        if (cap > 0) {
+            freeBlock(_info.getLong(h + BLOCK), cap);
+        }
+        _info.setLong(h + BLOCK, 0);
+        _info.set(h + SIZE, 0);
+        _info.set(h + CAPACITY, 0);
+    }
+
+    /** Returns the position (in entries) of an unused block of CAP
+     *  entries, CAP being a power of 2. */
+    private long allocateBlock(int cap) {
+        int k = Integer.numberOfTrailingZeros(cap);
+        long block = _freeBlocks[k];
+        if (block != -1) {
+            _freeBlocks[k] = _slab.getLong(2 * block);
+        } else {
+            block = _slabTop;
+            _slabTop += cap;
+            _slab.ensure(2 * _slabTop);
+        }
+        return block;
+    }
+
+    /** Make BLOCK, of CAP entries, available for reuse. */
+    private void freeBlock(long block, int cap) {
+        int k = Integer.numberOfTrailingZeros(cap);
+        _slab.setLong(2 * block, _freeBlocks[k]);
+        _freeBlocks[k] = block;
+    }
+
+    /** Returns the largest of my vertices less than V, or 0 if none. */
+    private int previousVertex(int v) {
+        int from = v - 1;
+        if (from < 1) {
+            return 0;
+        }
+        long i = from >>> 5;
+        int bits = _present.get(i) & (-1 >>> (31 - (from & 31)));
+        while (bits == 0) {
+            if (i == 0) {
+                return 0;
+            }
+            i -= 1;
+            bits = _present.get(i);
+        }
+        return (int) (32 * i) + 31 - Integer.numberOfLeadingZeros(bits);
+    }
+
+    /** Returns the smallest number >= FROM that is not one of my
+     *  vertices. */
+    private int nextAbsent(int from) {
+        long i = from >>> 5;
+        int bits = ~presentWord(i) & (-1 << from);
+        while (bits == 0) {
+            i += 1;
+            bits = ~presentWord(i);
+        }
+        return (int) (32 * i) + Integer.numberOfTrailingZeros(bits);
+    }
+
+    /** Returns word I of the vertex set, which is 0 beyond its
+     *  storage. */
+    private int presentWord(long i) {
+        return i < _present.capacity() ? _present.get(i) : 0;
+    }
+
+    /** Returns the index key for edge (U, V).  Undirected edges are keyed
+     *  by their endpoints in increasing order. */
+    private long key(int u, int v) {
+        if (_directed || u <= v) {
+            return EdgeIndex.key(u, v);
+        } else {
+            return EdgeIndex.key(v, u);
+        }
+    }
+
+    /** Returns the record number of edge (U, V), or -1 if there is none. */
+    private int findEdge(int u, int v) {
+        if (u <= 0 || v <= 0) {
+            return -1;
+        }
+        return _index.get(key(u, v));
+    }
+
+    /** Returns an unused edge record number, preferring one released by
+     *  removeEdge. */
+    private int newEdgeRecord() {
+        int e = _freeEdge;
+        if (e != -1) {
+            _freeEdge = _edges.get(4L * e + HEAD);
+        } else {
+            e = _edgeLimit;
+            _edgeLimit += 1;
+            _edges.ensure(4L * _edgeLimit);
+        }
+        return e;
+    }
+
+    /** Delete edge record E and release its number for reuse. */
+    private void removeEdge(int e) {
+        long r = 4L * e;
+        int u = _edges.get(r + TAIL), v = _edges.get(r + HEAD);
+        int tailPos = _edges.get(r + TAIL_POS);
+        int headPos = _edges.get(r + HEAD_POS);
+        _index.remove(key(u, v));
+        int moved = removeAt(header(u, true), tailPos);
+        if (moved != -1) {
+            relocate(moved, u, tailPos, true);
+        }
+        if (headPos != -1) {
+            moved = removeAt(header(v, false), headPos);
+            if (moved != -1) {
+                relocate(moved, v, headPos, false);
+            }
+        }
+        _edges.set(r + TAIL, 0);
+        _edgeCount -= 1;
+        if (_edgeCount == 0) {
+            _edgeLimit = 0;
+            _freeEdge = -1;
+        } else {
+            _edges.set(r + HEAD, _freeEdge);
+            _freeEdge = e;
+        }
+    }
+
+    /** Record that the entry for edge record E in W's outgoing list (if
+     *  OUTGOING) or incoming list (otherwise) has moved to position POS. */
+    private void relocate(int e, int w, int pos, boolean outgoing) {
+        long r = 4L * e;
+        boolean atTail = _directed ? outgoing : _edges.get(r + TAIL) == w;
+        _edges.set(r + (atTail ? TAIL_POS : HEAD_POS), pos);
+    }
+
+    /** An off-heap hash table from edge keys to edge records, using open
+     *  addressing with linear probing and backward-shift deletion, as for
+     *  EdgeIndex.  Each slot holds a key's two halves and its value; a
+     *  slot whose first half is 0 is empty. */
+    private static final class Index {
+        /** An empty table. */
+        Index() {
+            _table = new OffHeapInts(SLOT * INITIAL_SLOTS);
+            _mask = INITIAL_SLOTS - 1;
+        }
+
+        /** Returns the value for KEY, or -1 if KEY is absent. */
+        int get(long key) {
+            for (long i = slot(key); !empty(i); i = (i + 1) & _mask) {
+                if (keyAt(i) == key) {
+                    return _table.get(SLOT * i + 2);
+                }
+            }
+            return -1;
+        }
+
+        /** Set the value for KEY to VAL, which must be non-negative. */
+        void put(long key, int val) {
+            if (2 * (_size + 1) > _mask + 1) {
+                resize(2 * (_mask + 1));
+            }
+            long i;
+            for (i = slot(key); !empty(i); i = (i + 1) & _mask) {
+                if (keyAt(i) == key) {
+                    _table.set(SLOT * i + 2, val);
+                    return;
+                }
+            }
+            store(i, key, val);
+            _size += 1;
+        }
+
+        /** Remove KEY, if present. */
+        void remove(long key) {
+            long i;
+            for (i = slot(key); keyAt(i) != key; i = (i + 1) & _mask) {
+                if (empty(i)) {
+                    return;
+                }
+            }
+            _size -= 1;
+            for (long j = (i + 1) & _mask; !empty(j); j = (j + 1) & _mask) {
+                long home = slot(keyAt(j));
+                if (((j - home) & _mask) >= ((j - i) & _mask)) {
+                    store(i, keyAt(j), _table.get(SLOT * j + 2));
+                    i = j;
+                }
+            }
+            _table.set(SLOT * i, 0);
+        }
+
+        /** Release my storage. */
+        void release() {
+            _table.release();
+            _table = new OffHeapInts(SLOT * INITIAL_SLOTS);
+            _mask = INITIAL_SLOTS - 1;
+            _size = 0;
+        }
+
+        /** Returns true iff slot I is empty. */
+        private boolean empty(long i) {
+            return _table.get(SLOT * i) == 0;
+        }
+
+        /** Returns the key in slot I. */
+        private long keyAt(long i) {
+            return EdgeIndex.key(_table.get(SLOT * i),
+                                 _table.get(SLOT * i + 1));
+        }
+
+        /** Set slot I to hold KEY and VAL. */
+        private void store(long i, long key, int val) {
+            _table.set(SLOT * i, (int) (key >>> 32));
+            _table.set(SLOT * i + 1, (int) key);
+            _table.set(SLOT * i + 2, val);
+        }
+
+        /** Returns the home slot of KEY. */
+        private long slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (h ^ (h >>> 32)) & _mask;
+        }
+
+        /** Rehash my contents into a table of SLOTS slots, a power of
+         *  2. */
+        private void resize(long slots) {
+            OffHeapInts old = _table;
+            long oldSlots = _mask + 1;
+            _table = new OffHeapInts(SLOT * slots);
+            _mask = slots - 1;
+            for (long k = 0; k < oldSlots; k += 1) {
+                if (old.get(SLOT * k) != 0) {
+                    long key = EdgeIndex.key(old.get(SLOT * k),
+                                             old.get(SLOT * k + 1));
+                    long i;
+                    for (i = slot(key); !empty(i); i = (i + 1) & _mask) {
+                        continue;
+                    }
+                    store(i, key, old.get(SLOT * k + 2));
+                }
+            }
+            old.release();
+        }
+
+        /** Ints per slot. */
+        private static final long SLOT = 3;
+        /** Initial number of slots (a power of 2). */
+        private static final long INITIAL_SLOTS = 16;
+
+        /** The slots. */
+        private OffHeapInts _table;
+        /** Number of slots minus 1. */
+        private long _mask;
+        /** Number of keys present. */
+        private long _size;
+    }
+
+    /** Ints in a list header. */
+    private static final int HEADER = 4;
+    /** Offsets within a list header: block position (two ints), length,
+     *  capacity. */
+    private static final int BLOCK = 0, SIZE = 2, CAPACITY = 3;
+    /** Offsets within an edge record. */
+    private static final int TAIL = 0, HEAD = 1, TAIL_POS = 2, HEAD_POS = 3;
+    /** Capacity allocated for a list on its first entry. */
+    private static final int INITIAL_LIST = 4;
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** Ints of list headers per vertex. */
+    private final int _stride;
+    /** List headers, indexed by vertex. */
+    private final OffHeapInts _info;
+    /** Bit set of my vertices, 32 to a word. */
+    private final OffHeapInts _present;
+    /** List blocks, as (neighbor, edge record) pairs. */
+    private final OffHeapInts _slab;
+    /** Number of entries of _slab that have been allocated. */
+    private long _slabTop;
+    /** Heads of the lists of free blocks, indexed by log2 of capacity, or
+     *  -1 if empty.  A free block's first two ints link to the next. */
+    private final long[] _freeBlocks;
+    /** Edge records: tail (0 if unused), head (the next free record, if
+     *  unused), position in the tail's list, position in the head's list
+     *  (-1 for an undirected self edge). */
+    private final OffHeapInts _edges;
+    /** Maps edge keys to edge records. */
+    private final Index _index;
+    /** First free edge record, or -1. */
+    private int _freeEdge;
+    /** Edge records 0 .. _edgeLimit-1 have been allocated. */
+    private int _edgeLimit;
+    /** Number of edge records in use. */
+    private int _edgeCount;
+    /** Number of my vertices. */
+    private int _vertexCount;
+    /** My largest vertex number, or 0 if I am empty. */
+    private int _maxVertex;
+    /** No number less than this (and at least 1) is free for add(). */
+    private int _firstFree;
+    /** True iff I have been closed. */
+    private boolean _closed;
+}
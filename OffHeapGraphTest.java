@@ -0,0 +1,103 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for off-heap graphs.  Inherits all the tests of GraphTest,
+ *  applied to OffHeapGraphs.
+ *  @author Mina Kim
+ */
+public class OffHeapGraphTest extends grader.GraphTest {
+
+    @Override
+    protected Graph dg() {
+        return new OffHeapGraph(true);
+    }
+
+    @Override
+    protected Graph ug() {
+        return new OffHeapGraph(false);
+    }
+
+    /** Returns the successors of V in G, in order. */
+    private static ArrayList<Integer> successors(Graph G, int v) {
+        ArrayList<Integer> result = new ArrayList<>();
+        for (int w : G.successors(v)) {
+            result.add(w);
+        }
+        return result;
+    }
+
+    /** Apply the same random additions and removals to G0 and G1,
+     *  checking that they agree, down to edge ids and neighbor order. */
+    private static void checkAgree(Graph G0, Graph G1) {
+        Random rand = new Random(61);
+        for (int step = 0; step < 5000; step += 1) {
+            int u = 1 + rand.nextInt(40), v = 1 + rand.nextInt(40);
+            switch (rand.nextInt(10)) {
+            case 0:
+                G0.remove(u);
+                G1.remove(u);
+                break;
+            case 1:
+            case 2:
+                G0.remove(u, v);
+                G1.remove(u, v);
+                break;
+            case 3:
+                assertEquals("add() differs", G0.add(), G1.add());
+                break;
+            default:
+                if (G0.contains(u) && G0.contains(v)) {
+                    assertEquals("edge ids differ", G0.add(u, v),
+                                 G1.add(u, v));
+                }
+            }
+            assertEquals("vertex counts differ",
+                         G0.vertexSize(), G1.vertexSize());
+            assertEquals("edge counts differ", G0.edgeSize(), G1.edgeSize());
+            assertEquals("max vertices differ",
+                         G0.maxVertex(), G1.maxVertex());
+            assertEquals("successors differ",
+                         successors(G0, u), successors(G1, u));
+            assertEquals("in-degrees differ",
+                         G0.inDegree(v), G1.inDegree(v));
+        }
+    }
+
+    /** Check a directed off-heap graph against a DirectedGraph. */
+    @Test(timeout = 5000)
+    public void agreesDirected() {
+        try (OffHeapGraph G = new OffHeapGraph(true)) {
+            checkAgree(new DirectedGraph(), G);
+        }
+    }
+
+    /** Check an undirected off-heap graph against an UndirectedGraph. */
+    @Test(timeout = 5000)
+    public void agreesUndirected() {
+        try (OffHeapGraph G = new OffHeapGraph(false)) {
+            checkAgree(new UndirectedGraph(), G);
+        }
+    }
+
+    /** Check that a closed graph is empty and cannot grow. */
+    @Test(timeout = 1000, expected = IllegalStateException.class)
+    public void closedGraph() {
+        OffHeapGraph G = new OffHeapGraph(true);
+        CSRGraphTest.fill(G);
+        G.close();
+        assertEquals("closed graph has vertices", 0, G.vertexSize());
+        assertFalse("closed graph has vertices", G.contains(1));
+        assertFalse("closed graph has vertices", G.vertices().hasNext());
+        G.add();
+    }
+}
@@ -0,0 +1,104 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/** A growable array of ints held outside the Java heap in direct
+ *  buffers, indexed by longs.  Small arrays occupy one buffer that is
+ *  reallocated as it grows; beyond 2^28 ints, further fixed-size chunks
+ *  are added, so that growth never copies more than one chunk.  New
+ *  elements are 0.  The collector sees only the few buffer objects,
+ *  however many ints they hold.
+ *  @author Mina Kim
+ */
+final class OffHeapInts {
+
+    /** An array of at least N zeros. */
+    OffHeapInts(long n) {
+        _chunks = new IntBuffer[] { allocate(INITIAL_SIZE) };
+        _capacity = INITIAL_SIZE;
+        ensure(n);
+    }
+
+    /** Returns the K-th int. */
+    int get(long k) {
+        return _chunks[(int) (k >>> CHUNK_BITS)].get((int) (k & CHUNK_MASK));
+    }
+
+    /** Set the K-th int to X. */
+    void set(long k, int x) {
+        _chunks[(int) (k >>> CHUNK_BITS)].put((int) (k & CHUNK_MASK), x);
+    }
+
+    /** Returns the K-th and (K+1)-st ints as the low and high halves of a
+     *  long. */
+    long getLong(long k) {
+        return (get(k) & 0xffffffffL) | ((long) get(k + 1) << 32);
+    }
+
+    /** Set the K-th and (K+1)-st ints to the low and high halves of X. */
+    void setLong(long k, long x) {
+        set(k, (int) x);
+        set(k + 1, (int) (x >>> 32));
+    }
+
+    /** Returns the number of ints I can hold without growing. */
+    long capacity() {
+        return _capacity;
+    }
+
+    /** Make room for at least N ints, preserving my contents. */
+    void ensure(long n) {
+        if (n <= _capacity) {
+            return;
+        }
+        if (_capacity < CHUNK_SIZE) {
+            long size = Math.min(CHUNK_SIZE, Math.max(n, 2 * _capacity));
+            IntBuffer old = _chunks[0];
+            _chunks[0] = allocate((int) size);
+            old.clear();
+            _chunks[0].put(old);
+            _capacity = size;
+        }
+        if (n > _capacity) {
+            int count = (int) ((n + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+            IntBuffer[] chunks = new IntBuffer[count];
+            System.arraycopy(_chunks, 0, chunks, 0, _chunks.length);
+            for (int c = _chunks.length; c < count; c += 1) {
+                chunks[c] = allocate(CHUNK_SIZE);
+            }
+            _chunks = chunks;
+            _capacity = (long) count << CHUNK_BITS;
+        }
+    }
+
+    /** Drop my buffers, leaving me empty.  Their memory is returned to the
+     *  system when the collector reclaims them. */
+    void release() {
+        _chunks = new IntBuffer[] { allocate(0) };
+        _capacity = 0;
+    }
+
+    /** Returns a new zero-filled direct buffer of N ints. */
+    private static IntBuffer allocate(int n) {
+        return ByteBuffer.allocateDirect(4 * n)
+            .order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /** Log2 of the number of ints in each full chunk. */
+    private static final int CHUNK_BITS = 28;
+    /** Number of ints in each full chunk. */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /** Mask for the index within a chunk. */
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+    /** Size of the first buffer. */
+    private static final int INITIAL_SIZE = 16;
+
+    /** The buffers holding my ints. */
+    private IntBuffer[] _chunks;
+    /** Number of ints in _chunks. */
+    private long _capacity;
+}
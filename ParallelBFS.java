@@ -0,0 +1,285 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/** A parallel, level-synchronous breadth-first search, which finds the
+ *  level (distance from the nearest source) and a BFS-tree parent of
+ *  every reachable vertex.  Each level is expanded by tasks in a
+ *  ForkJoinPool, in one of two ways, after Beamer, Asanovic and
+ *  Patterson:
+ *
+ *    top-down:  each frontier vertex claims its unclaimed successors by
+ *               a compare-and-set on their parent entries;
+ *    bottom-up: each unreached vertex looks among its predecessors for
+ *               one on the frontier, stopping at the first.
+ *
+ *  Top-down is used while the frontier is small.  When the edges leaving
+ *  the frontier exceed 1/alpha of those leaving unreached vertices, the
+ *  search switches to bottom-up, and it switches back when the frontier
+ *  falls below 1/beta of the vertices.  Since vertices within a level are
+ *  found in no particular order, clients observe the search a level at a
+ *  time, through a LevelVisitor.  The graph must not change during a
+ *  search.
+ *  @author Mina Kim
+ */
+final class ParallelBFS {
+
+    /** Receives each level of a search as it is completed. */
+    interface LevelVisitor {
+        /** Called when the vertices at distance DEPTH, which are
+         *  FRONTIER[0 .. N-1] in no particular order, have been found.
+         *  Returns false iff the search is to stop after this level. */
+        boolean level(int depth, int[] frontier, int n);
+    }
+
+    /** A search of G using the common fork-join pool. */
+    ParallelBFS(Graph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /** A search of G using POOL. */
+    ParallelBFS(Graph G, ForkJoinPool pool) {
+        _G = G;
+        _pool = pool;
+        _alpha = DEFAULT_ALPHA;
+        _beta = DEFAULT_BETA;
+        _levels = _parents = AdjacencyLists.EMPTY;
+    }
+
+    /** Use ALPHA and BETA to decide the direction of each step (see the
+     *  class comment).  Returns me. */
+    ParallelBFS directionParameters(int alpha, int beta) {
+        _alpha = alpha;
+        _beta = beta;
+        return this;
+    }
+
+    /** Search from SOURCES.  Returns me. */
+    ParallelBFS search(int... sources) {
+        return search(sources, null);
+    }
+
+    /** Search from SOURCES, reporting each level to VISITOR, if it is not
+     *  null.  Returns me. */
+    ParallelBFS search(int[] sources, LevelVisitor visitor) {
+        int maxVertex = _G.maxVertex();
+        _levels = new int[maxVertex + 1];
+        _parents = new int[maxVertex + 1];
+        Arrays.fill(_levels, -1);
+        _depth = -1;
+        _reached = _bottomUpSteps = 0;
+
+        int[] frontier = new int[Math.max(1, sources.length)];
+        int n;
+        n = 0;
+        for (int s : sources) {
+            _G.checkMyVertex(s);
+            if (_parents[s] == 0) {
+                _parents[s] = s;
+                _levels[s] = 0;
+                frontier[n] = s;
+                n += 1;
+            }
+        }
+
+        long unexplored;
+        unexplored = 0;
+        for (int v = _G.nextVertex(0); v != 0; v = _G.nextVertex(v)) {
+            unexplored += _G.outDegree(v);
+        }
+        boolean bottomUp = false;
+        while (n > 0) {
+            _depth += 1;
+            _reached += n;
+            if (visitor != null && !visitor.level(_depth, frontier, n)) {
+                break;
+            }
+            long scout = _G.totalOutDegree(frontier, 0, n);
+            unexplored -= scout;
+            if (!bottomUp && scout > unexplored / _alpha) {
+                bottomUp = true;
+            } else if (bottomUp && n < _G.vertexSize() / _beta) {
+                bottomUp = false;
+            }
+            if (bottomUp) {
+                _bottomUpSteps += 1;
+                frontier = bottomUpStep();
+            } else {
+                frontier = topDownStep(frontier, n);
+            }
+            n = _count;
+        }
+        return this;
+    }
+
+    /** Returns the level of each vertex in the last search (0 for the
+     *  sources), or -1 for vertices not reached.  Indexed by vertex. */
+    int[] levels() {
+        return _levels;
+    }
+
+    /** Returns the BFS-tree parent of each vertex in the last search, the
+     *  vertex itself for the sources, or 0 for vertices not reached.
+     *  Indexed by vertex. */
+    int[] parents() {
+        return _parents;
+    }
+
+    /** Returns the largest level found in the last search, or -1 if it had
+     *  no sources. */
+    int depth() {
+        return _depth;
+    }
+
+    /** Returns the number of vertices reached in the last search. */
+    int reached() {
+        return _reached;
+    }
+
+    /** Returns the number of levels of the last search expanded
+     *  bottom-up. */
+    int bottomUpSteps() {
+        return _bottomUpSteps;
+    }
+
+    /** Expand FRONTIER[0 .. N-1] top-down, returning the next frontier,
+     *  whose size is left in _count. */
+    private int[] topDownStep(int[] frontier, int n) {
+        int next = _depth + 1;
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        int[][] found = new int[chunks][];
+        int[] counts = new int[chunks];
+        inParallel(chunks, c -> {
+            IntCursor succs = _G.successorCursor();
+            int[] buf = new int[CHUNK];
+            int m;
+            m = 0;
+            for (int k = c * CHUNK, end = Math.min(n, k + CHUNK); k < end;
+                 k += 1) {
+                int u = frontier[k];
+                succs.start(u);
+                while (succs.hasNext()) {
+                    int w = succs.next();
+                    if (_parents[w] == 0
+                        && PARENT.compareAndSet(_parents, w, 0, u)) {
+                        _levels[w] = next;
+                        if (m == buf.length) {
+                            buf = Arrays.copyOf(buf, 2 * m);
+                        }
+                        buf[m] = w;
+                        m += 1;
+                    }
+                }
+            }
+            found[c] = buf;
+            counts[c] = m;
+        });
+        return gather(found, counts);
+    }
+
+    /** Find the next frontier bottom-up, returning it and leaving its
+     *  size in _count. */
+    private int[] bottomUpStep() {
+        int depth = _depth;
+        int maxVertex = _G.maxVertex();
+        int chunks = maxVertex / CHUNK + 1;
+        int[][] found = new int[chunks][];
+        int[] counts = new int[chunks];
+        inParallel(chunks, c -> {
+            IntCursor preds = _G.predecessorCursor();
+            int[] buf = AdjacencyLists.EMPTY;
+            int m;
+            m = 0;
+            for (int v = Math.max(1, c * CHUNK),
+                     end = Math.min(maxVertex + 1, (c + 1) * CHUNK);
+                 v < end; v += 1) {
+                if (_parents[v] != 0 || !_G.contains(v)) {
+                    continue;
+                }
+                preds.start(v);
+                while (preds.hasNext()) {
+                    int w = preds.next();
+                    if (_levels[w] == depth) {
+                        _parents[v] = w;
+                        _levels[v] = depth + 1;
+                        if (m == buf.length) {
+                            buf = Arrays.copyOf(buf, Math.max(16, 2 * m));
+                        }
+                        buf[m] = v;
+                        m += 1;
+                        break;
+                    }
+                }
+            }
+            found[c] = buf;
+            counts[c] = m;
+        });
+        return gather(found, counts);
+    }
+
+    /** Returns the concatenation of FOUND[c][0 .. COUNTS[c]-1] for all c,
+     *  leaving its length in _count. */
+    private int[] gather(int[][] found, int[] counts) {
+        int total;
+        total = 0;
+        for (int m : counts) {
+            total += m;
+        }
+        int[] result = new int[Math.max(1, total)];
+        int pos;
+        pos = 0;
+        for (int c = 0; c < found.length; c += 1) {
+            System.arraycopy(found[c], 0, result, pos, counts[c]);
+            pos += counts[c];
+        }
+        _count = total;
+        return result;
+    }
+
+    /** Perform BODY on 0 .. CHUNKS-1, in parallel in my pool, returning
+     *  when all are done. */
+    private void inParallel(int chunks, IntConsumer body) {
+        if (chunks <= 1) {
+            IntStream.range(0, chunks).forEach(body);
+        } else {
+            _pool.submit(() -> IntStream.range(0, chunks).parallel()
+                         .forEach(body)).join();
+        }
+    }
+
+    /** Atomic access to the elements of _parents. */
+    private static final VarHandle PARENT =
+        MethodHandles.arrayElementVarHandle(int[].class);
+    /** Number of vertices handled by one task. */
+    private static final int CHUNK = 1024;
+    /** Default top-down to bottom-up switching factor. */
+    static final int DEFAULT_ALPHA = 14;
+    /** Default bottom-up to top-down switching factor. */
+    static final int DEFAULT_BETA = 24;
+
+    /** The graph searched. */
+    private final Graph _G;
+    /** Pool running the tasks. */
+    private final ForkJoinPool _pool;
+    /** Switching factors. */
+    private int _alpha, _beta;
+    /** Levels of the last search. */
+    private int[] _levels;
+    /** BFS-tree parents of the last search. */
+    private int[] _parents;
+    /** Deepest level of the last search. */
+    private int _depth;
+    /** Vertices reached in the last search. */
+    private int _reached;
+    /** Levels expanded bottom-up in the last search. */
+    private int _bottomUpSteps;
+    /** Size of the frontier last returned by a step. */
+    private int _count;
+}
@@ -0,0 +1,140 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for parallel breadth-first search.
+ *  @author Mina Kim
+ */
+public class ParallelBFSTest {
+
+    /** Returns a random graph with N vertices and about M edges, less
+     *  vertex 2, directed iff DIRECTED. */
+    static Graph random(boolean directed, int n, int m, long seed) {
+        Random rand = new Random(seed);
+        int[] src = new int[m], dst = new int[m];
+        for (int k = 0; k < m; k += 1) {
+            src[k] = 1 + rand.nextInt(n);
+            dst[k] = 1 + rand.nextInt(n);
+        }
+        Graph G = GraphLoader.load(directed ? new DirectedGraph()
+                                   : new UndirectedGraph(), n, src, dst);
+        G.remove(2);
+        return G;
+    }
+
+    /** Returns the distances of the vertices of G from SOURCE by a
+     *  sequential breadth-first search, -1 if unreachable. */
+    static int[] distances(Graph G, int source) {
+        int[] dist = new int[G.maxVertex() + 1];
+        Arrays.fill(dist, -1);
+        dist[source] = 0;
+        IntFringe queue = new IntFringe.Ring();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.remove();
+            for (int w : G.successors(u)) {
+                if (dist[w] == -1) {
+                    dist[w] = dist[u] + 1;
+                    queue.add(w);
+                }
+            }
+        }
+        return dist;
+    }
+
+    /** Check the result of SEARCH of G from SOURCE. */
+    static void checkSearch(Graph G, ParallelBFS search, int source) {
+        int[] dist = distances(G, source);
+        int[] levels = search.levels(), parents = search.parents();
+        int reached;
+        reached = 0;
+        for (int v = 1; v <= G.maxVertex(); v += 1) {
+            assertEquals("wrong level for " + v, dist[v], levels[v]);
+            if (dist[v] > 0) {
+                reached += 1;
+                int p = parents[v];
+                assertEquals("parent of " + v + " at wrong level",
+                             dist[v] - 1, dist[p]);
+                assertTrue("parent of " + v + " not adjacent",
+                           G.contains(p, v));
+            } else if (dist[v] == 0) {
+                reached += 1;
+                assertEquals("wrong parent for source", v, parents[v]);
+            } else {
+                assertEquals("parent for unreached " + v, 0, parents[v]);
+            }
+        }
+        assertEquals("wrong reached count", reached, search.reached());
+    }
+
+    /** Check top-down, bottom-up and mixed searches of directed and
+     *  undirected graphs. */
+    @Test(timeout = 10000)
+    public void matchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (boolean directed : new boolean[] { true, false }) {
+                Graph G = random(directed, 20000, 60000, 5);
+                int[][] params = { { 1, 1 }, { ParallelBFS.DEFAULT_ALPHA,
+                                              ParallelBFS.DEFAULT_BETA },
+                                   { Integer.MAX_VALUE, 1 } };
+                for (int[] p : params) {
+                    ParallelBFS search = new ParallelBFS(G, pool)
+                        .directionParameters(p[0], p[1]).search(1);
+                    checkSearch(G, search, 1);
+                    if (p[0] == 1) {
+                        assertTrue("no bottom-up steps",
+                                   search.bottomUpSteps() > 0);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Check that the level visitor sees each level in order, and can
+     *  stop the search. */
+    @Test(timeout = 10000)
+    public void levelVisitor() {
+        Graph G = random(false, 5000, 10000, 6);
+        int[] dist = distances(G, 1);
+        final List<Integer> sizes = new ArrayList<>();
+        ParallelBFS search = new ParallelBFS(G).search(new int[] { 1 },
+            (depth, frontier, n) -> {
+                assertEquals("levels out of order", sizes.size(), depth);
+                for (int k = 0; k < n; k += 1) {
+                    assertEquals("vertex at wrong level", depth,
+                                 dist[frontier[k]]);
+                }
+                sizes.add(n);
+                return depth < 2;
+            });
+        assertEquals("search did not stop", 3, sizes.size());
+        assertEquals("wrong depth", 2, search.depth());
+        int total;
+        total = 0;
+        for (int n : sizes) {
+            total += n;
+        }
+        assertEquals("wrong reached count", total, search.reached());
+    }
+
+    /** Check that vertices not in the graph are rejected as sources. */
+    @Test(timeout = 1000, expected = IllegalArgumentException.class)
+    public void badSource() {
+        new ParallelBFS(random(true, 10, 20, 7)).search(2);
+    }
+}
@@ -0,0 +1,216 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A fringe of vertices for a shortest-path search: a priority queue of
+ *  vertices keyed by doubles, smallest first, with ties broken in favor
+ *  of smaller vertices.  Each vertex is in the queue at most once, and
+ *  its key may be lowered in place by decreaseKey, so that a search need
+ *  neither remove and re-add a vertex whose distance improves nor box
+ *  it.  The kind of queue is chosen by the subclass, so that other
+ *  structures (pairing heaps, radix heaps) may be substituted for the
+ *  default DAry heap.
+ *  @author Mina Kim
+ */
+abstract class PathFringe {
+
+    /** Empty me, and make room for vertices up to MAXVERTEX. */
+    abstract void clear(int maxVertex);
+
+    /** Add V, which must not be in me, with key KEY. */
+    abstract void add(int v, double key);
+
+    /** Lower the key of V, which must be in me, to KEY, which must not be
+     *  greater than its current key. */
+    abstract void decreaseKey(int v, double key);
+
+    /** Remove and return the vertex with the smallest key.  Requires
+     *  !isEmpty(). */
+    abstract int removeMin();
+
+    /** Returns the vertex with the smallest key.  Requires !isEmpty(). */
+    abstract int min();
+
+    /** Returns true iff V is in me. */
+    abstract boolean contains(int v);
+
+    /** Returns the key of V, which must be in me. */
+    abstract double key(int v);
+
+    /** Returns the number of vertices in me. */
+    abstract int size();
+
+    /** Returns true iff I am empty. */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Add V with key KEY if it is not in me, and otherwise lower its key
+     *  to KEY, if that is smaller. */
+    void addOrDecrease(int v, double key) {
+        if (!contains(v)) {
+            add(v, key);
+        } else if (key < key(v)) {
+            decreaseKey(v, key);
+        }
+    }
+
+    /** An indexed d-ary heap.  The heap is an array of vertices, alongside
+     *  which are kept arrays, indexed by vertex, of keys and of positions
+     *  in the heap, so that a vertex can be found and moved up when its
+     *  key decreases.  Wider heaps are shallower, making decreaseKey
+     *  cheaper and removeMin costlier; 4 suits Dijkstra's algorithm on
+     *  sparse graphs, where decreases outnumber removals. */
+    static class DAry extends PathFringe {
+
+        /** A heap of arity 4. */
+        DAry() {
+            this(DEFAULT_ARITY);
+        }
+
+        /** A heap of arity D >= 2. */
+        DAry(int d) {
+            if (d < 2) {
+                throw new IllegalArgumentException("arity must be >= 2");
+            }
+            _d = d;
+        }
+
+        @Override
+        void clear(int maxVertex) {
+            for (int k = 0; k < _size; k += 1) {
+                _pos[_heap[k]] = 0;
+            }
+            _size = 0;
+            ensure(maxVertex);
+        }
+
+        @Override
+        void add(int v, double key) {
+            if (v >= _pos.length) {
+                ensure(Math.max(v, 2 * _pos.length));
+            }
+            if (_size == _heap.length) {
+                _heap = Arrays.copyOf(_heap,
+                                      Math.max(INITIAL_SIZE, 2 * _size));
+            }
+            _keys[v] = key;
+            _size += 1;
+            siftUp(v, _size - 1);
+        }
+
+        @Override
+        void decreaseKey(int v, double key) {
+            _keys[v] = key;
+            siftUp(v, _pos[v] - 1);
+        }
+
+        @Override
+        int removeMin() {
+            int min = _heap[0];
+            _pos[min] = 0;
+            _size -= 1;
+            if (_size > 0) {
+                siftDown(_heap[_size], 0);
+            }
+            return min;
+        }
+
+        @Override
+        int min() {
+            return _heap[0];
+        }
+
+        @Override
+        boolean contains(int v) {
+            return v < _pos.length && _pos[v] != 0;
+        }
+
+        @Override
+        double key(int v) {
+            return _keys[v];
+        }
+
+        @Override
+        int size() {
+            return _size;
+        }
+
+        /** Make room for vertices up to MAXVERTEX. */
+        private void ensure(int maxVertex) {
+            if (_pos.length <= maxVertex) {
+                _pos = Arrays.copyOf(_pos, maxVertex + 1);
+                _keys = Arrays.copyOf(_keys, maxVertex + 1);
+            }
+        }
+
+        /** Returns true iff vertex V precedes vertex W. */
+        private boolean less(int v, int w) {
+            double kv = _keys[v], kw = _keys[w];
+            return kv < kw || kv == kw && v < w;
+        }
+
+        /** Place V at position K or above, moving larger parents down. */
+        private void siftUp(int v, int k) {
+            while (k > 0) {
+                int p = (k - 1) / _d;
+                int u = _heap[p];
+                if (!less(v, u)) {
+                    break;
+                }
+                place(u, k);
+                k = p;
+            }
+            place(v, k);
+        }
+
+        /** Place V at position K or below, moving smaller children up. */
+        private void siftDown(int v, int k) {
+            while (true) {
+                int first = k * _d + 1;
+                if (first >= _size) {
+                    break;
+                }
+                int best = first;
+                for (int c = first + 1, end = Math.min(_size, first + _d);
+                     c < end; c += 1) {
+                    if (less(_heap[c], _heap[best])) {
+                        best = c;
+                    }
+                }
+                int u = _heap[best];
+                if (!less(u, v)) {
+                    break;
+                }
+                place(u, k);
+                k = best;
+            }
+            place(v, k);
+        }
+
+        /** Put V at position K. */
+        private void place(int v, int k) {
+            _heap[k] = v;
+            _pos[v] = k + 1;
+        }
+
+        /** Default arity. */
+        static final int DEFAULT_ARITY = 4;
+
+        /** My arity. */
+        private final int _d;
+        /** The heap, in its first _size elements. */
+        private int[] _heap = AdjacencyLists.EMPTY;
+        /** Position in _heap plus 1 of each vertex, or 0 if absent. */
+        private int[] _pos = AdjacencyLists.EMPTY;
+        /** Key of each vertex in me. */
+        private double[] _keys = new double[0];
+        /** Number of vertices in me. */
+        private int _size;
+    }
+
+    /** Capacity allocated on the first add. */
+    private static final int INITIAL_SIZE = 16;
+}
@@ -0,0 +1,84 @@
+package graph;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for shortest-path fringes.
+ *  @author Mina Kim
+ */
+public class PathFringeTest {
+
+    /** Check random adds, decreases and removals from heaps of several
+     *  arities against a TreeSet ordered by key, then vertex. */
+    @Test(timeout = 10000)
+    public void matchesTreeSet() {
+        for (int d = 2; d <= 8; d += 3) {
+            Random rand = new Random(d);
+            double[] keys = new double[1001];
+            TreeSet<Integer> expected = new TreeSet<>((v, w) -> {
+                int c = Double.compare(keys[v], keys[w]);
+                return c != 0 ? c : v - w;
+            });
+            PathFringe heap = new PathFringe.DAry(d);
+            heap.clear(100);
+            for (int step = 0; step < 20000; step += 1) {
+                int v = 1 + rand.nextInt(1000);
+                if (rand.nextInt(3) == 0 && !expected.isEmpty()) {
+                    assertEquals("wrong minimum", (int) expected.pollFirst(),
+                                 heap.removeMin());
+                } else if (expected.contains(v)) {
+                    double key = keys[v] - rand.nextInt(10);
+                    expected.remove(v);
+                    keys[v] = key;
+                    expected.add(v);
+                    heap.addOrDecrease(v, key);
+                } else {
+                    keys[v] = rand.nextInt(100);
+                    expected.add(v);
+                    heap.add(v, keys[v]);
+                }
+                assertEquals("wrong size", expected.size(), heap.size());
+                assertEquals("wrong membership", expected.contains(v),
+                             heap.contains(v));
+            }
+            heap.clear(1000);
+            assertTrue("not cleared", heap.isEmpty());
+            assertFalse("not cleared", heap.contains(expected.isEmpty() ? 1
+                                                     : expected.first()));
+        }
+    }
+
+    /** Check that shortest paths do not depend on the fringe's arity. */
+    @Test(timeout = 10000)
+    public void anyArity() {
+        Graph G = ParallelBFSTest.random(true, 2000, 8000, 15);
+        double[] base = null;
+        for (int d = 2; d <= 6; d += 1) {
+            SimpleShortestPaths paths = new SimpleShortestPaths(G, 1) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return (u * 31 + v * 17) % 23 + 1;
+                }
+            };
+            paths.setFringe(new PathFringe.DAry(d));
+            paths.setPaths();
+            double[] weights = new double[G.maxVertex() + 1];
+            for (int v = G.nextVertex(0); v != 0; v = G.nextVertex(v)) {
+                weights[v] = paths.getWeight(v);
+            }
+            if (base == null) {
+                base = weights;
+            } else {
+                assertArrayEquals("weights differ", base, weights, 0.0);
+            }
+        }
+    }
+}
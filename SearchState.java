@@ -0,0 +1,165 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/** The per-vertex working storage of a shortest-path search: weights,
+ *  predecessors, fringes, and (for bidirectional searches) the state of
+ *  the backward search.  Each search stamps the vertices it reaches with
+ *  a new epoch number, and vertices with older stamps count as
+ *  unreached, so beginning a search takes constant time rather than
+ *  time proportional to the graph; the arrays are reallocated only when
+ *  the graph outgrows them.  A ShortestPaths allocates a SearchState of
+ *  its own on first use, or may lease one from a Pool, so that a run of
+ *  queries, one after another, need neither allocate nor clear
+ *  per-vertex storage.
+ *  @author Mina Kim
+ */
+final class SearchState {
+
+    /** A bounded pool of SearchStates, which may be shared among
+     *  threads. */
+    static final class Pool {
+        /** A pool holding at most CAPACITY idle states. */
+        Pool(int capacity) {
+            _idle = new ArrayBlockingQueue<>(capacity);
+        }
+
+        /** Returns an idle state, or a new one if there is none. */
+        SearchState lease() {
+            SearchState state = _idle.poll();
+            return state == null ? new SearchState() : state;
+        }
+
+        /** Return STATE, which must no longer be in use, to me.  It is
+         *  dropped if I am full. */
+        void release(SearchState state) {
+            _idle.offer(state);
+        }
+
+        /** Returns the number of idle states in me. */
+        int idle() {
+            return _idle.size();
+        }
+
+        /** The idle states. */
+        private final ArrayBlockingQueue<SearchState> _idle;
+    }
+
+    /** An empty state. */
+    SearchState() {
+        _fringe = new PathFringe.DAry();
+    }
+
+    /** Start a new search of a graph whose vertices are at most
+     *  MAXVERTEX, in which no vertex has been reached.  Make room for
+     *  weights and predecessors as well iff RESULTS. */
+    void begin(int maxVertex, boolean results) {
+        if (_stamps.length <= maxVertex) {
+            _stamps = new int[maxVertex + 1];
+            _backStamps = AdjacencyLists.EMPTY;
+            _epoch = 0;
+        } else if (_epoch == Integer.MAX_VALUE) {
+            Arrays.fill(_stamps, 0);
+            Arrays.fill(_backStamps, 0);
+            _epoch = 0;
+        }
+        _epoch += 1;
+        if (results && _weights.length <= maxVertex) {
+            _weights = new double[maxVertex + 1];
+            _predecessors = new int[maxVertex + 1];
+        }
+        _fringe.clear(maxVertex);
+    }
+
+    /** Make room for a backward search in the current search (see
+     *  begin). */
+    void beginBackward(int maxVertex) {
+        if (_backStamps.length <= maxVertex) {
+            _backStamps = new int[maxVertex + 1];
+            _backWeights = new double[maxVertex + 1];
+            _backNext = new int[maxVertex + 1];
+            _back = new PathFringe.DAry();
+        }
+        _back.clear(maxVertex);
+    }
+
+    /** Returns true iff the current search has reached V. */
+    boolean reached(int v) {
+        return v > 0 && v < _stamps.length && _stamps[v] == _epoch;
+    }
+
+    /** Record that the current search has reached V. */
+    void reach(int v) {
+        _stamps[v] = _epoch;
+    }
+
+    /** Returns true iff the current backward search has reached V. */
+    boolean reachedBackward(int v) {
+        return _backStamps[v] == _epoch;
+    }
+
+    /** Record that the current backward search has reached V. */
+    void reachBackward(int v) {
+        _backStamps[v] = _epoch;
+    }
+
+    /** Returns the weights of reached vertices, indexed by vertex. */
+    double[] weights() {
+        return _weights;
+    }
+
+    /** Returns the predecessors of reached vertices, indexed by
+     *  vertex. */
+    int[] predecessors() {
+        return _predecessors;
+    }
+
+    /** Returns the distances to the destination of vertices reached
+     *  backward, indexed by vertex. */
+    double[] backWeights() {
+        return _backWeights;
+    }
+
+    /** Returns the successors on the way to the destination of vertices
+     *  reached backward, indexed by vertex. */
+    int[] backNext() {
+        return _backNext;
+    }
+
+    /** Returns the fringe of the forward search. */
+    PathFringe fringe() {
+        return _fringe;
+    }
+
+    /** Use FRINGE as the fringe of later forward searches. */
+    void setFringe(PathFringe fringe) {
+        _fringe = fringe;
+    }
+
+    /** Returns the fringe of the backward search. */
+    PathFringe backFringe() {
+        return _back;
+    }
+
+    /** Epoch of the last search to reach each vertex. */
+    private int[] _stamps = AdjacencyLists.EMPTY;
+    /** Epoch of the last backward search to reach each vertex. */
+    private int[] _backStamps = AdjacencyLists.EMPTY;
+    /** The epoch of the current search. */
+    private int _epoch;
+    /** Weights of reached vertices. */
+    private double[] _weights = new double[0];
+    /** Predecessors of reached vertices. */
+    private int[] _predecessors = AdjacencyLists.EMPTY;
+    /** Distances to the destination in the backward search. */
+    private double[] _backWeights;
+    /** Successors toward the destination in the backward search. */
+    private int[] _backNext;
+    /** The forward fringe. */
+    private PathFringe _fringe;
+    /** The backward fringe, once needed. */
+    private PathFringe _back;
+}
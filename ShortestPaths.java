@@ -2,18 +2,27 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
-import java.util.TreeSet;
-import java.util.PriorityQueue;
 
 /** The shortest paths through an edge-weighted graph.
  *  By overrriding methods getWeight, setWeight, getPredecessor, and
  *  setPredecessor, the client can determine how to represent the weighting
  *  and the search results.  By overriding estimatedDistance, clients
  *  can search for paths to specific destinations using A* search.
+ *  Vertices awaiting expansion are kept in a PathFringe, by default an
+ *  indexed 4-ary heap, keyed by weight plus estimated distance.  Only
+ *  vertices reached by the search enter it.  Each search stamps the
+ *  vertices it reaches with a new epoch number in its SearchState;
+ *  subclasses whose getWeight and getPredecessor treat unstamped vertices
+ *  as unreached (see tracksDiscovery) spare setPaths from initializing
+ *  every vertex, so that a search that stops at its destination costs
+ *  time in proportion only to the part of the graph it explores.  The
+ *  state may be leased from a pool (see leaseState) and so reused by
+ *  one query after another.  Searches with
+ *  a destination may also run from both ends at once (see
+ *  setBidirectional).
  *  @author Mina Kim
  */
 public abstract class ShortestPaths {
@@ -28,40 +37,233 @@ public abstract class ShortestPaths {
         _G = G;
         _source = source;
         _dest = dest;
-        tree = new AstarQ<Integer>(new Comparing());
-//        tree = new TreeSet<Integer>(compare);
+        _successors = G.successorCursor();
+        _csr = G.csr();
     }
 
     /** Initialize the shortest paths.  Must be called before using
      *  getWeight, getPredecessor, and pathTo. */
     public void setPaths() {
-
-        tree.add(_source);
-        for (int i :  _G.vertices()) {
-            setWeight(i, Double.POSITIVE_INFINITY);
-            setPredecessor(i, 0);
-            tree.add(i);
-
+        SearchState state = state();
+        state.begin(_G.maxVertex(), tracksDiscovery());
+        _fringe = state.fringe();
+        if (!tracksDiscovery()) {
+            for (int i = _G.nextVertex(0); i != 0; i = _G.nextVertex(i)) {
+                setWeight(i, Double.POSITIVE_INFINITY);
+                setPredecessor(i, 0);
+            }
         }
+        discover(_source);
         setWeight(_source, 0);
-        while (!tree.isEmpty()) {
-            int poll = tree.poll();
+        setPredecessor(_source, 0);
+        _settled = 0;
+        if (_bidirectional && _dest != 0) {
+            searchBothWays();
+            return;
+        }
+        _fringe.add(_source, estimatedDistance(_source));
+        while (!_fringe.isEmpty()) {
+            int poll = _fringe.removeMin();
+            _settled += 1;
             if (poll == _dest) {
                 return;
             }
-            for (int temp : _G.successors(poll)) {
-                double value1 = getWeight(poll) + getWeight(poll, temp);
-                double value2 = getWeight(temp);
-                if (value1 < value2) {
-                    tree.remove(temp);
-                    setWeight(temp, value1);
-                    tree.add(temp);
-                    setPredecessor(temp, poll);
+            if (_csr != null) {
+                int[] targets = _csr.targets();
+                for (int k = _csr.offsets()[poll],
+                         end = _csr.offsets()[poll + 1]; k < end; k += 1) {
+                    relax(poll, targets[k], _weights == null
+                          ? getWeight(poll, targets[k]) : _weights[k]);
+                }
+            } else {
+                _successors.start(poll);
+                while (_successors.hasNext()) {
+                    int v = _successors.next();
+                    relax(poll, v, getWeight(poll, v));
+                }
+            }
+        }
+    }
+
+    /** Relax edge (U, V), of weight W, where U has just been removed from
+     *  the fringe.  V is returned to the fringe if its weight improves
+     *  after it has been removed, as may happen with an inconsistent
+     *  estimatedDistance. */
+    private void relax(int u, int v, double w) {
+        double value1 = getWeight(u) + w;
+        double value2 = getWeight(v);
+        if (value1 < value2) {
+            discover(v);
+            setWeight(v, value1);
+            _fringe.addOrDecrease(v, value1 + estimatedDistance(v));
+            setPredecessor(v, u);
+        }
+    }
+
+    /** Search forward from the source and backward from the destination
+     *  at once, each time expanding the side with the smaller fringe,
+     *  until no path through the fringes can be shorter than the best
+     *  path found where the searches meet.  The forward search keys
+     *  vertices by weight plus half the estimated distance, and the
+     *  backward search by distance to the destination less the same
+     *  amount; these potentials are consistent whenever estimatedDistance
+     *  is, and sum to 0, so that the search may stop once the sum of the
+     *  two smallest keys reaches the best path.  The part of that path
+     *  after the meeting vertex is then copied into the forward results,
+     *  as if the forward search had found it. */
+    private void searchBothWays() {
+        if (_predecessors == null) {
+            _predecessors = _G.predecessorCursor();
+        }
+        _state.beginBackward(_G.maxVertex());
+        PathFringe back = _state.backFringe();
+        double[] backWeights = _state.backWeights();
+        int[] backNext = _state.backNext();
+        _state.reachBackward(_dest);
+        backWeights[_dest] = 0;
+        backNext[_dest] = 0;
+        _fringe.add(_source, potential(_source));
+        back.add(_dest, -potential(_dest));
+        _best = _source == _dest ? 0 : Double.POSITIVE_INFINITY;
+        _meeting = _source == _dest ? _source : 0;
+
+        while (!_fringe.isEmpty() && !back.isEmpty()
+               && _fringe.key(_fringe.min()) + back.key(back.min())
+                  < _best) {
+            _settled += 1;
+            if (_fringe.size() <= back.size()) {
+                int u = _fringe.removeMin();
+                _successors.start(u);
+                while (_successors.hasNext()) {
+                    int v = _successors.next();
+                    double w = getWeight(u) + getWeight(u, v);
+                    if (w < getWeight(v)) {
+                        discover(v);
+                        setWeight(v, w);
+                        _fringe.addOrDecrease(v, w + potential(v));
+                        setPredecessor(v, u);
+                    }
+                    meet(v);
                 }
+            } else {
+                int u = back.removeMin();
+                _predecessors.start(u);
+                while (_predecessors.hasNext()) {
+                    int v = _predecessors.next();
+                    double w = backWeights[u] + getWeight(v, u);
+                    if (!_state.reachedBackward(v) || w < backWeights[v]) {
+                        _state.reachBackward(v);
+                        backWeights[v] = w;
+                        backNext[v] = u;
+                        back.addOrDecrease(v, w - potential(v));
+                    }
+                    meet(v);
+                }
+            }
+        }
+
+        if (_meeting != 0) {
+            for (int v = _meeting; v != _dest; v = backNext[v]) {
+                int next = backNext[v];
+                discover(next);
+                setWeight(next, getWeight(v) + getWeight(v, next));
+                setPredecessor(next, v);
             }
         }
     }
 
+    /** Record V as the meeting vertex if it has been reached from both
+     *  ends by a path shorter than the best so far. */
+    private void meet(int v) {
+        if (_state.reachedBackward(v) && discovered(v)
+            && getWeight(v) + _state.backWeights()[v] < _best) {
+            _best = getWeight(v) + _state.backWeights()[v];
+            _meeting = v;
+        }
+    }
+
+    /** Returns the potential of V in a bidirectional search. */
+    private double potential(int v) {
+        return estimatedDistance(v) / 2;
+    }
+
+    /** Record that the current search has reached V. */
+    private void discover(int v) {
+        _state.reach(v);
+    }
+
+    /** Returns true iff the last or current call of setPaths has reached
+     *  V, giving it a finite weight. */
+    boolean discovered(int v) {
+        return _state != null && _state.reached(v);
+    }
+
+    /** Returns true iff getWeight and getPredecessor report vertices that
+     *  are not discovered as infinitely distant and without predecessor,
+     *  whatever was last set for them, so that setPaths need not set
+     *  every vertex before searching.  False by default. */
+    boolean tracksDiscovery() {
+        return false;
+    }
+
+    /** Search from both ends when there is a destination iff ON (see
+     *  searchBothWays).  In that case, estimatedDistance must be
+     *  consistent: it may not exceed the weight of any edge (U, V) plus
+     *  its value at V. */
+    void setBidirectional(boolean on) {
+        _bidirectional = on;
+    }
+
+    /** Returns the number of vertices removed from the fringes by the
+     *  last call of setPaths. */
+    int settled() {
+        return _settled;
+    }
+
+    /** Take the weight of each edge scanned through the CSR form of the
+     *  graph from WEIGHTS, parallel to its targets, rather than from
+     *  getWeight(u, v).  Requires that the graph have a CSR form. */
+    void useWeights(double[] weights) {
+        if (_csr == null) {
+            throw new IllegalStateException("graph has no CSR form");
+        }
+        _weights = weights;
+    }
+
+    /** Use FRINGE to order the vertices awaiting expansion in later calls
+     *  of setPaths. */
+    void setFringe(PathFringe fringe) {
+        state().setFringe(fringe);
+    }
+
+    /** Returns the working storage of my searches, which holds the
+     *  results of the last one, allocating it if I have none. */
+    SearchState state() {
+        if (_state == null) {
+            _state = new SearchState();
+        }
+        return _state;
+    }
+
+    /** Use a state leased from POOL for my searches, in place of any I
+     *  have.  The results of earlier searches are lost. */
+    void leaseState(SearchState.Pool pool) {
+        releaseState();
+        _pool = pool;
+        _state = pool.lease();
+    }
+
+    /** Return my leased state, if any, to its pool.  My results are lost,
+     *  and my next search will lease no state unless leaseState is called
+     *  again. */
+    void releaseState() {
+        if (_pool != null) {
+            _pool.release(_state);
+            _pool = null;
+            _state = null;
+        }
+    }
+
     /** Returns the starting vertex. */
     public int getSource() {
         return _source;
@@ -138,8 +340,9 @@ public abstract class ShortestPaths {
         @Override
         protected boolean visit(int v) {
             if (v != ShortestPaths.this.getDest()) {
-                Iteration<Integer> shortest = _G.successors(v);
-                for (Integer succ : shortest) {
+                _successors.start(v);
+                while (_successors.hasNext()) {
+                    int succ = _successors.next();
                     if (getWeight(succ) > (getWeight(v, succ) + getWeight(v))) {
                         setWeight(succ, (getWeight(v, succ) + getWeight(v)));
                         setPredecessor(succ, v);
@@ -151,107 +354,36 @@ public abstract class ShortestPaths {
             }
         }
     }
-    /** class for AstarQ queue. */
-    private class AstarQ<Integer> extends PriorityQueue<Integer> {
-
-        /** comparator for AstarQ class. */
-        private Comparator<Integer> comp;
-
-        /** Treeset in AstarQ class. */
-        private TreeSet<Integer> treeSet;
-
-        /** constructor. @param comp1 */
-        public AstarQ(Comparator<Integer> comp1) {
-            this.comp = comp1;
-            treeSet = new TreeSet<>(this.comp);
-        }
-
-
-        @Override
-        public Integer poll() {
-            return treeSet.pollFirst();
-        }
-
-        @Override
-        public boolean remove(Object x) {
-            treeSet.remove(x);
-            return true;
-        }
-
-        @Override
-        public boolean contains(Object x) {
-            return treeSet.contains(x);
-        }
-
-        @Override
-        public boolean isEmpty() {
-            if (treeSet.size() > 0) {
-                return false;
-            }
-            return true;
-        }
-
-        @Override
-        public boolean add(Integer x) {
-            treeSet.add(x);
-            return true;
-        }
-
-        @Override
-        public int size() {
-            return treeSet.size();
-        }
-
-
-    }
-//    private final Comparator<Integer> compare = new Comparator<Integer>() {
-//        @Override
-//        public int compare(Integer o1, Integer o2) {
-//            double edge1 = getWeight(o1) + estimatedDistance(o1);
-//            double edge2 = getWeight(o2) + estimatedDistance(o2);
-//            if (edge1 > edge2) {
-//                return 1;
-//            }
-//            if (edge1 == edge2) {
-//                return o1 - o2;
-//            }
-//            return -1;
-//        }
-//
-//    };
-    /** Comparator and heuristic for my TreeSet. */
-    private class Comparing implements Comparator<Integer> {
-
-        @Override
-        public int compare(Integer i1, Integer i2) {
-            double edge1 = getWeight(i1) + estimatedDistance(i1);
-            double edge2 = getWeight(i2) + estimatedDistance(i2);
-            if (edge1 > edge2) {
-                return 1;
-            }
-            if (edge1 == edge2) {
-                if (i1 < i2) {
-                    return -1;
-                } else if (i1 > i2) {
-                    return 1;
-                } else {
-                    return i1 - i2;
-                }
-            }
-            return -1;
-        }
-    }
-
 
     /** The graph being searched. */
     protected final Graph _G;
+    /** Cursor over the successors of the vertex being expanded. */
+    private final IntCursor _successors;
+    /** The CSR form of _G, if it has one, else null. */
+    private final CSRGraph _csr;
     /** The starting vertex. */
     private final int _source;
     /** The target vertex. */
     private final int _dest;
-    /** The fringe. */
-//    private TreeSet<Integer> tree;
-    private AstarQ<Integer> tree;
+    /** Working storage of the last or current search. */
+    private SearchState _state;
+    /** Pool from which _state was leased, or null. */
+    private SearchState.Pool _pool;
+    /** The fringe of the current search. */
+    private PathFringe _fringe;
+    /** Edge weights parallel to _csr.targets(), or null. */
+    private double[] _weights;
+    /** Number of vertices settled by the last search. */
+    private int _settled;
+    /** True iff point-to-point searches go both ways. */
+    private boolean _bidirectional;
+    /** Cursor over the predecessors of the vertex being expanded
+     *  backward, once needed. */
+    private IntCursor _predecessors;
+    /** Weight of the best path found where the two searches meet. */
+    private double _best;
+    /** Vertex at which the best path meets, or 0. */
+    private int _meeting;
 
 
 }
@@ -0,0 +1,280 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for the shortest-path engine.
+ *  @author Mina Kim
+ */
+public class ShortestPathsTest {
+
+    /** Returns an arbitrary positive weight for edge (U, V). */
+    static double weight(int u, int v) {
+        return (u * 31 + v * 17) % 23 + 1;
+    }
+
+    /** Shortest paths using weight(u, v), counting the edges relaxed. */
+    static class Counting extends SimpleShortestPaths {
+        /** Paths in G from SOURCE to DEST. */
+        Counting(Graph G, int source, int dest) {
+            super(G, source, dest);
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            relaxed += 1;
+            return weight(u, v);
+        }
+
+        /** Number of calls of getWeight(u, v). */
+        int relaxed;
+    }
+
+    /** Shortest paths using weight(u, v) that keep their own results, and
+     *  so rely on setPaths to initialize every vertex. */
+    static class Plain extends ShortestPaths {
+        /** Paths in G from SOURCE. */
+        Plain(Graph G, int source) {
+            super(G, source);
+            _weights = new double[G.maxVertex() + 1];
+            _preds = new int[G.maxVertex() + 1];
+        }
+
+        @Override
+        public double getWeight(int v) {
+            return _weights[v];
+        }
+
+        @Override
+        protected void setWeight(int v, double w) {
+            _weights[v] = w;
+        }
+
+        @Override
+        public int getPredecessor(int v) {
+            return _preds[v];
+        }
+
+        @Override
+        protected void setPredecessor(int v, int u) {
+            _preds[v] = u;
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return weight(u, v);
+        }
+
+        /** Weights. */
+        private final double[] _weights;
+        /** Predecessors. */
+        private final int[] _preds;
+    }
+
+    /** Check that searches that initialize lazily agree with ones that do
+     *  not, including on unreachable vertices, and that repeating a
+     *  search gives the same results. */
+    @Test(timeout = 10000)
+    public void lazyMatchesPlain() {
+        Graph G = ParallelBFSTest.random(true, 3000, 6000, 16);
+        Plain plain = new Plain(G, 1);
+        plain.setPaths();
+        Counting lazy = new Counting(G, 1, 0);
+        for (int round = 0; round < 2; round += 1) {
+            lazy.setPaths();
+            for (int v = G.nextVertex(0); v != 0; v = G.nextVertex(v)) {
+                assertEquals("wrong weight", plain.getWeight(v),
+                             lazy.getWeight(v), 0.0);
+                assertEquals("wrong predecessor", plain.getPredecessor(v),
+                             lazy.getPredecessor(v));
+            }
+        }
+        assertEquals("missing vertex has weight",
+                     Double.POSITIVE_INFINITY, lazy.getWeight(2), 0.0);
+    }
+
+    /** Check that a search stopping at a nearby destination examines
+     *  only the nearby part of a long path. */
+    @Test(timeout = 10000)
+    public void earlyExitIsLocal() {
+        int n = 200000;
+        int[] src = new int[n - 1], dst = new int[n - 1];
+        for (int k = 0; k < n - 1; k += 1) {
+            src[k] = k + 1;
+            dst[k] = k + 2;
+        }
+        Graph G = GraphLoader.load(new UndirectedGraph(), n, src, dst);
+        Counting paths = new Counting(G, 1000, 1050);
+        paths.setPaths();
+        assertEquals("wrong path length", 51, paths.pathTo().size());
+        assertTrue("examined too much", paths.relaxed < 500);
+        assertEquals("far vertex reached", Double.POSITIVE_INFINITY,
+                     paths.getWeight(n), 0.0);
+    }
+
+    /** Width of the grid built by grid(). */
+    private static final int WIDTH = 120;
+
+    /** Returns an undirected WIDTH x WIDTH grid, whose vertex in row R
+     *  and column C is R * WIDTH + C + 1. */
+    private static Graph grid() {
+        int n = WIDTH * WIDTH;
+        int[] src = new int[2 * n], dst = new int[2 * n];
+        int m;
+        m = 0;
+        for (int v = 1; v <= n; v += 1) {
+            if ((v - 1) % WIDTH < WIDTH - 1) {
+                src[m] = v;
+                dst[m] = v + 1;
+                m += 1;
+            }
+            if (v + WIDTH <= n) {
+                src[m] = v;
+                dst[m] = v + WIDTH;
+                m += 1;
+            }
+        }
+        return GraphLoader.load(new UndirectedGraph(), n,
+                                Arrays.copyOf(src, m),
+                                Arrays.copyOf(dst, m));
+    }
+
+    /** Shortest paths through a grid with weights symmetric in their
+     *  ends, optionally guided by grid distance. */
+    static class GridPaths extends SimpleShortestPaths {
+        /** Paths in G from SOURCE to DEST, using A* iff ASTAR. */
+        GridPaths(Graph G, int source, int dest, boolean astar) {
+            super(G, source, dest);
+            _astar = astar;
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return weight(Math.min(u, v), Math.max(u, v));
+        }
+
+        @Override
+        protected double estimatedDistance(int v) {
+            if (!_astar) {
+                return 0;
+            }
+            int d = getDest() - 1, w = v - 1;
+            return Math.abs(d / WIDTH - w / WIDTH)
+                + Math.abs(d % WIDTH - w % WIDTH);
+        }
+
+        /** True iff searches use A*. */
+        private final boolean _astar;
+    }
+
+    /** Check that bidirectional searches, with and without potentials,
+     *  find paths as short as one-sided ones, and that the stitched paths
+     *  are consistent with the weights.  Without potentials, they should
+     *  settle markedly fewer vertices (on this small grid, edges limit
+     *  the savings). */
+    @Test(timeout = 20000)
+    public void bidirectional() {
+        Graph G = grid();
+        Random rand = new Random(17);
+        long oneSided, twoSided;
+        oneSided = twoSided = 0;
+        for (boolean astar : new boolean[] { false, true }) {
+            for (int k = 0; k < 20; k += 1) {
+                int s = 1 + rand.nextInt(WIDTH * WIDTH),
+                    t = 1 + rand.nextInt(WIDTH * WIDTH);
+                GridPaths one = new GridPaths(G, s, t, astar),
+                    two = new GridPaths(G, s, t, astar);
+                two.setBidirectional(true);
+                one.setPaths();
+                two.setPaths();
+                if (!astar) {
+                    oneSided += one.settled();
+                    twoSided += two.settled();
+                }
+                assertEquals("wrong distance", one.getWeight(t),
+                             two.getWeight(t), 1e-9);
+                List<Integer> path = two.pathTo();
+                assertEquals("path starts wrongly", s, (int) path.get(0));
+                assertEquals("path ends wrongly", t,
+                             (int) path.get(path.size() - 1));
+                double total;
+                total = 0;
+                for (int i = 1; i < path.size(); i += 1) {
+                    int u = path.get(i - 1), v = path.get(i);
+                    assertTrue("missing edge", G.contains(u, v));
+                    total += two.getWeight(u, v);
+                    assertEquals("inconsistent weight", total,
+                                 two.getWeight(v), 1e-9);
+                }
+            }
+        }
+        assertTrue("settled too many", twoSided < 0.8 * oneSided);
+    }
+
+    /** Check bidirectional searches with no path and with equal ends. */
+    @Test(timeout = 10000)
+    public void bidirectionalEdgeCases() {
+        Graph G = ParallelBFSTest.random(true, 3000, 6000, 18);
+        for (int t = 1; t <= 60; t += 1) {
+            if (!G.contains(t)) {
+                continue;
+            }
+            Counting one = new Counting(G, 1, t), two = new Counting(G, 1, t);
+            two.setBidirectional(true);
+            one.setPaths();
+            two.setPaths();
+            assertEquals("wrong distance", one.getWeight(t),
+                         two.getWeight(t), 0.0);
+        }
+        Counting same = new Counting(G, 5, 5);
+        same.setBidirectional(true);
+        same.setPaths();
+        assertEquals("wrong distance to self", 0.0, same.getWeight(5), 0.0);
+        assertEquals("wrong path to self", Arrays.asList(5),
+                     same.pathTo());
+    }
+
+    /** Check that back-to-back queries sharing pooled states give the
+     *  same results as ones with states of their own, and reuse the
+     *  states. */
+    @Test(timeout = 10000)
+    public void pooledStates() {
+        Graph G = ParallelBFSTest.random(false, 3000, 6000, 21);
+        SearchState.Pool pool = new SearchState.Pool(1);
+        SearchState shared = null;
+        for (int k = 0; k < 40; k += 1) {
+            int s = G.nextVertex(k * 70), t = G.nextVertex(k * 70 + 35);
+            Counting own = new Counting(G, s, t),
+                pooled = new Counting(G, s, t);
+            pooled.leaseState(pool);
+            pooled.setBidirectional(k % 2 == 1);
+            own.setPaths();
+            pooled.setPaths();
+            if (shared == null) {
+                shared = pooled.state();
+            }
+            assertSame("state not reused", shared, pooled.state());
+            assertEquals("wrong distance", own.getWeight(t),
+                         pooled.getWeight(t), 0.0);
+            for (int v = 1; v <= G.maxVertex(); v += 97) {
+                if (!pooled.discovered(v)) {
+                    assertEquals("stale weight", Double.POSITIVE_INFINITY,
+                                 pooled.getWeight(v), 0.0);
+                    assertEquals("stale predecessor", 0,
+                                 pooled.getPredecessor(v));
+                }
+            }
+            pooled.releaseState();
+            assertEquals("state not returned", 1, pool.idle());
+        }
+    }
+}
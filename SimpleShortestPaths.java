@@ -4,7 +4,11 @@ package graph;
 
 /** A partial implementation of ShortestPaths that contains the weights of
  *  the vertices and the predecessor edges.   The client needs to
- *  supply only the two-argument getWeight method.
+ *  supply only the two-argument getWeight method.  Vertices not reached
+ *  by the last search have infinite weight and no predecessor, without
+ *  being initialized.  Weights and predecessors are kept in the
+ *  search's SearchState, so that nothing proportional to the graph is
+ *  allocated per instance when states are leased from a pool.
  *  @author Mina Kim
  */
 public abstract class SimpleShortestPaths extends ShortestPaths {
@@ -26,27 +30,27 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     @Override
     public double getWeight(int v) {
-        return weightv[v];
+        return discovered(v) ? state().weights()[v]
+            : Double.POSITIVE_INFINITY;
     }
 
     @Override
     protected void setWeight(int v, double w) {
-        weightv[v] = w;
+        state().weights()[v] = w;
     }
 
     @Override
     public int getPredecessor(int v) {
-        return predecessor[v];
+        return discovered(v) ? state().predecessors()[v] : 0;
     }
 
     @Override
     protected void setPredecessor(int v, int u) {
-        predecessor[v] = u;
+        state().predecessors()[v] = u;
     }
 
-    /** weight of the vertices. */
-    private double[] weightv = new double[_G.maxVertex() + 1];
-
-    /** Edges of the predecessors of int v. */
-    private int[] predecessor = new int[_G.maxVertex() + 1];
+    @Override
+    boolean tracksDiscovery() {
+        return true;
+    }
 }
@@ -15,7 +15,23 @@ public class SimpleUnitTest {
     /** Run all JUnit tests in the graph package. */
     public static void main(String... ignored) {
         System.exit(textui.runClasses(grader.GraphTest.class,
-                                      grader.LabeledGraphTest.class));
+                                      grader.LabeledGraphTest.class,
+                                      graph.CSRGraphTest.class,
+                                      graph.GraphLoaderTest.class,
+                                      graph.GraphFileTest.class,
+                                      graph.EdgeListImporterTest.class,
+                                      graph.OffHeapGraphTest.class,
+                                      graph.CompressedGraphTest.class,
+                                      graph.TraversalTest.class,
+                                      graph.ParallelBFSTest.class,
+                                      graph.MultiSourceBFSTest.class,
+                                      graph.BidirectionalBFSTest.class,
+                                      graph.IterativeDFSTest.class,
+                                      graph.PathFringeTest.class,
+                                      graph.ShortestPathsTest.class,
+                                      graph.WeightedGraphTest.class,
+                                      graph.DeltaSteppingTest.class,
+                                      graph.ContractionHierarchyTest.class));
     }
 
 }
@@ -2,7 +2,6 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Queue;
@@ -16,83 +15,309 @@ import java.util.Queue;
  *  Generally, the client will extend Traversal.  By overriding the visit
  *  method, the client can determine what happens when a node is visited.
  *  By supplying an appropriate type of Queue object to the constructor,
- *  the client can control the behavior of the fringe. By overriding the
- *  shouldPostVisit and postVisit methods, the client can arrange for
- *  post-visits of a node (as in depth-first search).  By overriding
- *  the reverseSuccessors and processSuccessor methods, the client can control
- *  the addition of neighbor vertices to the fringe when a vertex is visited.
+ *  the client can control the behavior of the fringe.  (Within this
+ *  package, an IntFringe may be supplied instead, which avoids boxing
+ *  vertices.)  By overriding the shouldPostVisit and postVisit methods,
+ *  the client can arrange for post-visits of a node (as in depth-first
+ *  search).  By overriding the reverseSuccessors and processSuccessor
+ *  methods, the client can control the addition of neighbor vertices to
+ *  the fringe when a vertex is visited.
  *
  *  Traversals may be interrupted or restarted, remembering the previously
- *  marked vertices.
+ *  marked vertices.  A traversal stops when visit or postVisit returns
+ *  false, or when it exceeds one of the limits set by setMaxVisits,
+ *  setMaxEdges or setTimeLimit, each of which applies to a single call
+ *  of traverse or resume.  The fringe is left intact, so that resume()
+ *  continues where the traversal left off (starting, after a false
+ *  visit, with the expansion of the vertex visited).  A depth limit,
+ *  set by setMaxDepth, keeps the successors of vertices at that depth
+ *  off the fringe; they are held back, and added by a resume() after the
+ *  limit is raised.  Depths are counted from the vertices given to
+ *  traverse (or added to the fringe by clients), each successor being
+ *  one deeper than the shallowest vertex that added it.
+ *
+ *  Marks are kept as stamps in an array indexed by vertex, relative to
+ *  an epoch number: a vertex has been reached through a successor in the
+ *  current epoch if its stamp is at least the epoch, marked if it is
+ *  greater, and post-visited as well if it is 2 greater.  Clearing starts
+ *  a new epoch, so it takes constant time, and the array grows as needed
+ *  if the graph gains vertices, so that a Traversal may be reused
+ *  indefinitely without reallocation.
  *  @author Mina Kim
  */
 public abstract class Traversal {
 
+    /** Reasons for the end of a call of traverse or resume. */
+    enum Stop {
+        /** The fringe was exhausted. */
+        DONE,
+        /** The fringe was exhausted, but vertices were held back by the
+         *  depth limit. */
+        DEPTH,
+        /** visit returned false. */
+        VISIT,
+        /** postVisit returned false. */
+        POST_VISIT,
+        /** The limit on visits was reached. */
+        VISITS,
+        /** The limit on edges examined was reached. */
+        EDGES,
+        /** The time limit expired. */
+        TIME
+    }
+
     /**
      * A Traversal of G, using FRINGE as the fringe.
      */
     protected Traversal(Graph G, Queue<Integer> fringe) {
-        _G = G;
-        _fringe = fringe;
-        marked = new boolean[G.maxVertex()];
-        mark = new ArrayList<>();
-        postvisit = new ArrayList<>();
+        this(G, new IntFringe.Boxed(fringe));
+    }
 
+    /** A Traversal of G, using FRINGE as the fringe. */
+    Traversal(Graph G, IntFringe fringe) {
+        _G = G;
+        _work = fringe;
+        _fringe = fringe.asQueue();
+        _successors = G.successorCursor();
+        _csr = G.csr();
+        _stamps = new int[G.maxVertex() + 1];
+        _epoch = 1;
+        _held = new IntFringe.Ring();
+        _maxDepth = Integer.MAX_VALUE;
+        _maxVisits = _maxEdges = _timeLimit = Long.MAX_VALUE;
+        _stop = Stop.DONE;
     }
 
     /**
-     * Unmark all vertices in the graph.
+     * Unmark all vertices in the graph, abandoning any stopped
+     * traversal.
      */
     public void clear() {
-        for (int i = 0; i < _G.vertexSize(); i++) {
-            marked[i] = false;
+        if (_epoch >= Integer.MAX_VALUE - 2 * EPOCH_STEP) {
+            Arrays.fill(_stamps, 0);
+            _epoch = 1;
+        } else {
+            _epoch += EPOCH_STEP;
         }
+        _work.clear();
+        _held.clear();
+        _pending = 0;
+        _stop = Stop.DONE;
     }
 
     /**
      * Initialize the fringe to V0 and perform a traversal.
      */
     public void traverse(Collection<Integer> V0) {
-        _fringe.addAll(V0);
-        while (!_fringe.isEmpty()) {
-            int removed = _fringe.remove();
+        for (int v : V0) {
+            _work.add(v);
+        }
+        run();
+    }
+
+    /** Initialize the fringe to { V0 } and perform a traversal. */
+    public void traverse(int v0) {
+        traverse(Arrays.<Integer>asList(v0));
+    }
+
+    /** Continue the traversal from where it last stopped.  Returns true
+     *  iff it runs to completion, leaving nothing on the fringe or held
+     *  back by the depth limit. */
+    boolean resume() {
+        return run();
+    }
+
+    /** Returns the reason the last call of traverse or resume ended. */
+    Stop stopReason() {
+        return _stop;
+    }
+
+    /** Do not expand vertices at depth DEPTH or more (see the class
+     *  comment).  Integer.MAX_VALUE removes the limit.  Depths are
+     *  recorded only while there is a limit, so it should be set before
+     *  the traversal starts. */
+    void setMaxDepth(int depth) {
+        _maxDepth = depth;
+        if (depth != Integer.MAX_VALUE && _depths.length < _stamps.length) {
+            _depths = Arrays.copyOf(_depths, _stamps.length);
+        }
+    }
+
+    /** Stop each call of traverse or resume after N visits. */
+    void setMaxVisits(long n) {
+        _maxVisits = n;
+    }
+
+    /** Stop each call of traverse or resume once the successors of
+     *  vertices expanded in it number N or more.  The limit is checked
+     *  between vertices, and so may be exceeded by one vertex's
+     *  out-degree. */
+    void setMaxEdges(long n) {
+        _maxEdges = n;
+    }
+
+    /** Stop each call of traverse or resume after about NANOS
+     *  nanoseconds. */
+    void setTimeLimit(long nanos) {
+        _timeLimit = nanos;
+    }
+
+    /** Returns the number of visits in the last call of traverse or
+     *  resume. */
+    long visits() {
+        return _visits;
+    }
+
+    /** Returns the number of successors of the vertices expanded in the
+     *  last call of traverse or resume. */
+    long edgesExamined() {
+        return _edges;
+    }
+
+    /** Traverse from the current fringe until it is exhausted or a limit
+     *  is reached, setting _stop.  Returns true iff the traversal is
+     *  complete. */
+    private boolean run() {
+        _visits = _edges = 0;
+        long start = _timeLimit == Long.MAX_VALUE ? 0 : System.nanoTime();
+        if (_pending != 0) {
+            int u = _pending;
+            _pending = 0;
+            expand(u);
+        }
+        release();
+        int ticks;
+        ticks = 0;
+        while (!_work.isEmpty()) {
+            if (_visits >= _maxVisits) {
+                return stop(Stop.VISITS);
+            } else if (_edges >= _maxEdges) {
+                return stop(Stop.EDGES);
+            } else if (start != 0 && (ticks & CLOCK_MASK) == 0
+                       && System.nanoTime() - start >= _timeLimit) {
+                return stop(Stop.TIME);
+            }
+            ticks += 1;
+            int removed = _work.remove();
             if (marked(removed)) {
-                if (shouldPostVisit(removed) && !postvisit.contains(removed)) {
-                    postVisit(removed);
-                    postvisit.add(removed);
+                if (shouldPostVisit(removed) && !postVisited(removed)) {
+                    _stamps[removed] = _epoch + POST_VISITED;
+                    if (!postVisit(removed)) {
+                        return stop(Stop.POST_VISIT);
+                    }
                 }
             } else {
+                if (depthLimited() && !reached(removed)) {
+                    ensureVertex(removed);
+                    _depths[removed] = 0;
+                }
                 mark(removed);
-                visit(removed);
-                _fringe.add(removed);
-                for (int i : _G.successors(removed)) {
-                    if (processSuccessor(removed, i)) {
-                        _fringe.add(i);
-                    }
+                _visits += 1;
+                if (!visit(removed)) {
+                    _pending = removed;
+                    return stop(Stop.VISIT);
                 }
+                expand(removed);
             }
         }
+        return stop(_held.isEmpty() ? Stop.DONE : Stop.DEPTH);
     }
 
+    /** Record REASON as the reason for stopping, and return true iff the
+     *  traversal is complete. */
+    private boolean stop(Stop reason) {
+        _stop = reason;
+        return reason == Stop.DONE;
+    }
 
-    /** Initialize the fringe to { V0 } and perform a traversal. */
-    public void traverse(int v0) {
-        traverse(Arrays.<Integer>asList(v0));
+    /** Schedule the post-visit of visited vertex U, if any, and add its
+     *  successors to the fringe, or hold U back if it is at the depth
+     *  limit. */
+    private void expand(int u) {
+        if (shouldPostVisit(u)) {
+            _work.add(u);
+        }
+        if (depthLimited() && _depths[u] >= _maxDepth) {
+            _held.add(u);
+        } else {
+            addSuccessors(u);
+        }
+    }
+
+    /** Add the successors of U to the fringe, recording their depths if
+     *  there is a depth limit. */
+    private void addSuccessors(int u) {
+        processSuccessors(u);
+        _edges += _G.outDegree(u);
+        if (depthLimited()) {
+            int depth = _depths[u] + 1;
+            _successors.start(u);
+            while (_successors.hasNext()) {
+                int v = _successors.next();
+                if (!reached(v)) {
+                    ensureVertex(v);
+                    _stamps[v] = _epoch;
+                    _depths[v] = depth;
+                } else if (!marked(v) && depth < _depths[v]) {
+                    _depths[v] = depth;
+                }
+            }
+        }
+    }
+
+    /** Expand those vertices held back by the depth limit that are now
+     *  within it. */
+    private void release() {
+        for (int k = _held.size(); k > 0; k -= 1) {
+            int u = _held.remove();
+            if (depthLimited() && _depths[u] >= _maxDepth) {
+                _held.add(u);
+            } else {
+                addSuccessors(u);
+            }
+        }
+    }
+
+    /** Returns true iff there is a depth limit. */
+    private boolean depthLimited() {
+        return _maxDepth != Integer.MAX_VALUE;
+    }
+
+    /** Returns true iff V has been marked or recorded as a successor of a
+     *  marked vertex. */
+    private boolean reached(int v) {
+        return v < _stamps.length && _stamps[v] >= _epoch;
+    }
+
+    /** Make room in _stamps (and _depths, if in use) for vertex V. */
+    private void ensureVertex(int v) {
+        if (v >= _stamps.length) {
+            int size = Math.max(v, _G.maxVertex()) + 1;
+            _stamps = Arrays.copyOf(_stamps, size);
+            if (depthLimited()) {
+                _depths = Arrays.copyOf(_depths, size);
+            }
+        }
     }
 
     /** Returns true iff V has been marked. */
     protected boolean marked(int v) {
-        if (marked[v - 1]) {
-            return true;
-        }
-        return false;
+        return v < _stamps.length && _stamps[v] > _epoch;
     }
 
     /** Mark vertex V. */
     protected void mark(int v) {
-        marked[v - 1] = true;
+        ensureVertex(v);
+        if (_stamps[v] <= _epoch) {
+            _stamps[v] = _epoch + MARKED;
+        }
     }
 
+    /** Returns true iff V has been post-visited since it was marked.
+     *  Requires that V be marked. */
+    private boolean postVisited(int v) {
+        return _stamps[v] == _epoch + POST_VISITED;
+    }
     /** Perform a visit on vertex V.  Returns false iff the traversal is to
      *  terminate immediately. */
     protected boolean visit(int v) {
@@ -121,9 +346,21 @@ public abstract class Traversal {
      *  default implementation simply processes each successor using
      *  processSuccessor. */
     protected void processSuccessors(int u) {
-        for (int v : _G.successors(u)) {
+        if (_csr != null && _csr.contains(u)) {
+            int[] targets = _csr.targets();
+            for (int k = _csr.offsets()[u], end = _csr.offsets()[u + 1];
+                 k < end; k += 1) {
+                if (processSuccessor(u, targets[k])) {
+                    _work.add(targets[k]);
+                }
+            }
+            return;
+        }
+        _successors.start(u);
+        while (_successors.hasNext()) {
+            int v = _successors.next();
             if (processSuccessor(u, v)) {
-                _fringe.add(v);
+                _work.add(v);
             }
         }
     }
@@ -134,18 +371,49 @@ public abstract class Traversal {
         return !marked(v);
     }
 
+    /** Difference between successive epochs. */
+    private static final int EPOCH_STEP = 3;
+    /** Offset from the epoch of the stamps of marked vertices. */
+    private static final int MARKED = 1;
+    /** Offset from the epoch of the stamps of post-visited vertices. */
+    private static final int POST_VISITED = 2;
+    /** Mask on the count of vertices removed that selects those at which
+     *  to consult the clock. */
+    private static final int CLOCK_MASK = 0xff;
+
     /** The graph being traversed. */
     private final Graph _G;
-    /** The fringe. */
+    /** The fringe, as a Queue. */
     protected final Queue<Integer> _fringe;
+    /** The fringe. */
+    private final IntFringe _work;
+    /** Cursor over the successors of the vertex being processed. */
+    private final IntCursor _successors;
+    /** The CSR form of _G, if it has one, else null. */
+    private final CSRGraph _csr;
 
-    /** boolean of marked vertices. */
-    protected boolean[] marked;
-
-    /** arraylist of marked vertices. */
-    protected ArrayList<Integer> mark;
-
-    /** Arraylist of post visited. */
-    protected ArrayList<Integer> postvisit;
-
+    /** Mark stamps, indexed by vertex. */
+    private int[] _stamps;
+    /** The current epoch: vertex v has been reached iff _stamps[v] >=
+     *  _epoch, marked iff _stamps[v] >= _epoch + MARKED, and post-visited
+     *  iff _stamps[v] == _epoch + POST_VISITED. */
+    private int _epoch;
+    /** Depths of reached vertices, indexed by vertex, when there is a
+     *  depth limit. */
+    private int[] _depths = AdjacencyLists.EMPTY;
+    /** Visited vertices whose successors are held back by the depth
+     *  limit. */
+    private final IntFringe _held;
+    /** Vertex whose visit stopped the traversal, and which has yet to be
+     *  expanded, or 0. */
+    private int _pending;
+    /** Limit set by setMaxDepth. */
+    private int _maxDepth;
+    /** Limits set by setMaxVisits, setMaxEdges and setTimeLimit. */
+    private long _maxVisits, _maxEdges, _timeLimit;
+    /** Visits and edges examined in the current call of traverse or
+     *  resume. */
+    private long _visits, _edges;
+    /** Why the last call of traverse or resume ended. */
+    private Stop _stop;
 }
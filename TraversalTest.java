@@ -0,0 +1,316 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for traversals.
+ *  @author Mina Kim
+ */
+public class TraversalTest {
+
+    /** A depth-first traversal recording its visits and post-visits. */
+    static class Recorder extends DepthFirstTraversal {
+        /** A recording traversal of G. */
+        Recorder(Graph G) {
+            super(G);
+        }
+
+        @Override
+        protected boolean visit(int v) {
+            visits.add(v);
+            return true;
+        }
+
+        @Override
+        protected boolean postVisit(int v) {
+            postVisits.add(v);
+            return true;
+        }
+
+        /** Vertices visited, in order. */
+        final List<Integer> visits = new ArrayList<>();
+        /** Vertices post-visited, in order. */
+        final List<Integer> postVisits = new ArrayList<>();
+    }
+
+    /** Check that each vertex is post-visited once, after all the vertices
+     *  first reached through it. */
+    @Test(timeout = 1000)
+    public void postVisitOnce() {
+        Graph G = CSRGraphTest.fill(new DirectedGraph());
+        Recorder T = new Recorder(G);
+        T.traverse(2);
+        assertEquals("wrong vertices visited",
+                     Arrays.asList(1, 2, 3, 5, 6, 7, 8, 9, 10),
+                     sorted(T.visits));
+        assertEquals("wrong vertices post-visited", sorted(T.visits),
+                     sorted(T.postVisits));
+        for (int u : T.visits) {
+            for (int w : G.successors(u)) {
+                if (T.visits.indexOf(w) > T.visits.indexOf(u)) {
+                    assertTrue(w + " post-visited after " + u,
+                               T.postVisits.indexOf(w)
+                               < T.postVisits.indexOf(u));
+                }
+            }
+        }
+    }
+
+    /** Returns a sorted copy of L. */
+    private static List<Integer> sorted(List<Integer> L) {
+        List<Integer> result = new ArrayList<>(L);
+        Collections.sort(result);
+        return result;
+    }
+
+    /** Check that clear() unmarks every vertex, even in a graph with
+     *  holes, and that a cleared traversal repeats itself. */
+    @Test(timeout = 1000)
+    public void clearWithHoles() {
+        Graph G = CSRGraphTest.fill(new DirectedGraph());
+        G.remove(1);
+        Recorder T = new Recorder(G);
+        T.traverse(8);
+        List<Integer> visits = new ArrayList<>(T.visits);
+        List<Integer> postVisits = new ArrayList<>(T.postVisits);
+        for (int k = 0; k < 1000; k += 1) {
+            T.clear();
+            T.visits.clear();
+            T.postVisits.clear();
+            T.traverse(8);
+            assertEquals("visits differ after clear", visits, T.visits);
+            assertEquals("post-visits differ after clear",
+                         postVisits, T.postVisits);
+        }
+        assertTrue("vertex 10 not visited", T.visits.contains(10));
+    }
+
+    /** Check that without clear(), marked vertices stay marked. */
+    @Test(timeout = 1000)
+    public void restartRemembers() {
+        Graph G = CSRGraphTest.fill(new DirectedGraph());
+        Recorder T = new Recorder(G);
+        T.traverse(7);
+        assertEquals("wrong first traversal", Arrays.asList(7), T.visits);
+        T.visits.clear();
+        T.traverse(3);
+        assertEquals("wrong vertices visited",
+                     Arrays.asList(1, 2, 3, 5, 6, 8, 9, 10),
+                     sorted(T.visits));
+    }
+
+    /** Check that a traversal reaches vertices added after it was
+     *  made. */
+    @Test(timeout = 1000)
+    public void graphGrows() {
+        Graph G = CSRGraphTest.fill(new DirectedGraph());
+        Recorder T = new Recorder(G);
+        T.traverse(10);
+        for (int k = 0; k < 100; k += 1) {
+            G.add(G.maxVertex(), G.add());
+        }
+        T.clear();
+        T.visits.clear();
+        T.traverse(10);
+        assertTrue("new vertex not visited",
+                   T.visits.contains(G.maxVertex()));
+        assertEquals("wrong visit count", 2 + 100, T.visits.size());
+    }
+
+    /** Check the orders of the primitive fringes, across growth and
+     *  wrap-around. */
+    @Test(timeout = 1000)
+    public void fringeOrder() {
+        IntFringe ring = new IntFringe.Ring(), stack = new IntFringe.Stack();
+        int next;
+        next = 0;
+        for (int round = 1; round <= 50; round += 1) {
+            for (int k = 0; k < round; k += 1) {
+                ring.add(round * 1000 + k);
+                stack.add(k);
+            }
+            for (int k = round - 1; k >= round / 2; k -= 1) {
+                assertEquals("wrong stack order", k, stack.remove());
+            }
+            stack.clear();
+            while (ring.size() > round / 2) {
+                int v = ring.remove();
+                assertTrue("wrong ring order", v > next);
+                next = v;
+            }
+        }
+        assertEquals("wrong ring view", ring.size(), ring.asQueue().size());
+        assertEquals("wrong ring view", (Integer) ring.peek(),
+                     ring.asQueue().peek());
+    }
+
+    /** Check that a traversal with a client-supplied Queue delivers
+     *  vertices in that queue's order. */
+    @Test(timeout = 1000)
+    public void queueFringe() {
+        Graph G = CSRGraphTest.fill(new UndirectedGraph());
+        final List<Integer> visits = new ArrayList<>();
+        new Traversal(G, new PriorityQueue<Integer>()) {
+            @Override
+            protected boolean visit(int v) {
+                visits.add(v);
+                return true;
+            }
+        }.traverse(5);
+        assertEquals("wrong visit order",
+                     Arrays.asList(5, 2, 1, 3, 6, 7, 8, 9, 10), visits);
+    }
+
+    /** A breadth-first traversal that records its visits and stops at
+     *  the first visit of a given vertex. */
+    static class Stopper extends BreadthFirstTraversal {
+        /** A traversal of G that stops when it visits LAST. */
+        Stopper(Graph G, int last) {
+            super(G);
+            _last = last;
+        }
+
+        @Override
+        protected boolean visit(int v) {
+            visits.add(v);
+            return v != _last;
+        }
+
+        /** Vertices visited, in order. */
+        final List<Integer> visits = new ArrayList<>();
+        /** Vertex at which to stop. */
+        private final int _last;
+    }
+
+    /** Returns a directed path 1 -> 2 -> ... -> N. */
+    private static Graph chain(int n) {
+        Graph G = new DirectedGraph();
+        for (int v = 1; v <= n; v += 1) {
+            G.add();
+            if (v > 1) {
+                G.add(v - 1, v);
+            }
+        }
+        return G;
+    }
+
+    /** Check that a false visit stops the traversal at once, and that
+     *  resuming finishes it as if it had not stopped. */
+    @Test(timeout = 1000)
+    public void visitStops() {
+        Graph G = CSRGraphTest.fill(new UndirectedGraph());
+        Stopper all = new Stopper(G, 0);
+        all.traverse(5);
+        Stopper T = new Stopper(G, 1);
+        T.traverse(5);
+        assertEquals("wrong stop reason", Traversal.Stop.VISIT,
+                     T.stopReason());
+        assertEquals("visited past the stop", 1,
+                     (int) T.visits.get(T.visits.size() - 1));
+        assertTrue("did not finish", T.resume());
+        assertEquals("resumed traversal differs", all.visits, T.visits);
+        assertEquals("wrong stop reason", Traversal.Stop.DONE,
+                     T.stopReason());
+    }
+
+    /** Check that a false post-visit stops a depth-first traversal. */
+    @Test(timeout = 1000)
+    public void postVisitStops() {
+        Recorder T = new Recorder(chain(6)) {
+            @Override
+            protected boolean postVisit(int v) {
+                super.postVisit(v);
+                return v != 4;
+            }
+        };
+        T.traverse(1);
+        assertEquals("wrong stop reason", Traversal.Stop.POST_VISIT,
+                     T.stopReason());
+        assertEquals("wrong post-visits", Arrays.asList(6, 5, 4),
+                     T.postVisits);
+        T.resume();
+        assertEquals("wrong post-visits", Arrays.asList(6, 5, 4, 3, 2, 1),
+                     T.postVisits);
+    }
+
+    /** Check the visit and edge budgets, which apply to each call. */
+    @Test(timeout = 1000)
+    public void budgets() {
+        Stopper T = new Stopper(chain(10), 0);
+        T.setMaxVisits(3);
+        T.traverse(1);
+        assertEquals("wrong stop reason", Traversal.Stop.VISITS,
+                     T.stopReason());
+        assertEquals("wrong visits", Arrays.asList(1, 2, 3), T.visits);
+        assertEquals("wrong count", 3, T.visits());
+        T.setMaxVisits(Long.MAX_VALUE);
+        T.setMaxEdges(2);
+        assertFalse("finished early", T.resume());
+        assertEquals("wrong stop reason", Traversal.Stop.EDGES,
+                     T.stopReason());
+        assertEquals("wrong visits", Arrays.asList(1, 2, 3, 4, 5),
+                     T.visits);
+        assertEquals("wrong count", 2, T.edgesExamined());
+        T.setMaxEdges(Long.MAX_VALUE);
+        T.setTimeLimit(0);
+        assertFalse("ignored time limit", T.resume());
+        assertEquals("wrong stop reason", Traversal.Stop.TIME,
+                     T.stopReason());
+        T.setTimeLimit(Long.MAX_VALUE);
+        assertTrue("did not finish", T.resume());
+        assertEquals("wrong visits", 10, T.visits.size());
+    }
+
+    /** Check that a depth limit holds back the successors of the deepest
+     *  vertices, and that raising it releases them. */
+    @Test(timeout = 1000)
+    public void depthLimit() {
+        Graph G = chain(8);
+        G.add(1, 4);
+        Stopper T = new Stopper(G, 0);
+        T.setMaxDepth(2);
+        T.traverse(1);
+        assertEquals("wrong stop reason", Traversal.Stop.DEPTH,
+                     T.stopReason());
+        assertEquals("wrong visits", Arrays.asList(1, 2, 4, 3, 5),
+                     T.visits);
+        T.setMaxDepth(3);
+        assertFalse("finished early", T.resume());
+        assertEquals("wrong visits", Arrays.asList(1, 2, 4, 3, 5, 6),
+                     T.visits);
+        T.setMaxDepth(Integer.MAX_VALUE);
+        assertTrue("did not finish", T.resume());
+        assertEquals("wrong visits", Arrays.asList(1, 2, 4, 3, 5, 6, 7, 8),
+                     T.visits);
+        T.clear();
+        assertTrue("clear left work", T.resume());
+    }
+
+    /** Check a depth-limited traversal from a vertex added to the graph
+     *  after the traversal was created. */
+    @Test(timeout = 1000)
+    public void depthLimitNewVertex() {
+        Graph G = chain(2);
+        Stopper T = new Stopper(G, 0);
+        for (int v = 3; v <= 7; v += 1) {
+            G.add();
+            G.add(v - 1, v);
+        }
+        T.setMaxDepth(3);
+        T.traverse(6);
+        assertEquals("wrong stop reason", Traversal.Stop.DONE,
+                     T.stopReason());
+        assertEquals("wrong visits", Arrays.asList(6, 7), T.visits);
+    }
+}
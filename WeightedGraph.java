@@ -0,0 +1,128 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** An immutable graph with a double weight on each edge.  The structure is
+ *  a CSRGraph, and the weights sit in an array parallel to its targets:
+ *  the weight of the edge from u to the vertex at targets()[k] is
+ *  weights()[k].  An undirected edge appears, with its weight, in the
+ *  rows of both its ends.  Searches can thus read the weight of each edge
+ *  they scan from the same position as its target, with no lookup (see
+ *  WeightedShortestPaths).  Weights may be replaced in bulk, but the
+ *  structure may not change.
+ *  @author Mina Kim
+ */
+final class WeightedGraph {
+
+    /** Computes the weight of an edge. */
+    interface Weigher {
+        /** Returns the weight of edge (U, V). */
+        double weight(int u, int v);
+    }
+
+    /** Returns a graph, directed iff DIRECTED, with vertices 1 .. NV and
+     *  an edge SRC[k] -> DST[k] of weight WEIGHTS[k] for each k.  Of
+     *  repeated edges, the lightest is kept. */
+    static WeightedGraph load(boolean directed, int nv, int[] src,
+                              int[] dst, double[] weights) {
+        GraphObj G = GraphLoader.load(directed ? new DirectedGraph()
+                                      : new UndirectedGraph(),
+                                      nv, src, dst);
+        WeightedGraph result = new WeightedGraph(CSRGraph.freeze(G));
+        Arrays.fill(result._weights, Double.POSITIVE_INFINITY);
+        result.setWeights(src, dst, weights, true);
+        return result;
+    }
+
+    /** Returns a weighted copy of G whose edge (U, V) has weight
+     *  WEIGHER.weight(U, V). */
+    static WeightedGraph of(Graph G, Weigher weigher) {
+        WeightedGraph result = new WeightedGraph(CSRGraph.freeze(G));
+        int[] offsets = result._csr.offsets(), targets = result._csr.targets();
+        for (int u = G.nextVertex(0); u != 0; u = G.nextVertex(u)) {
+            for (int k = offsets[u]; k < offsets[u + 1]; k += 1) {
+                result._weights[k] = weigher.weight(u, targets[k]);
+            }
+        }
+        return result;
+    }
+
+    /** Returns a weighted copy of G whose weights are its edge labels. */
+    static WeightedGraph of(LabeledGraph<?, ? extends Number> G) {
+        return of(G, (u, v) -> G.getLabel(u, v).doubleValue());
+    }
+
+    /** A graph with the structure of CSR and all weights 0. */
+    private WeightedGraph(CSRGraph csr) {
+        _csr = csr;
+        _weights = new double[csr.targets().length];
+    }
+
+    /** Returns my structure. */
+    CSRGraph graph() {
+        return _csr;
+    }
+
+    /** Returns my weights, parallel to graph().targets(). */
+    double[] weights() {
+        return _weights;
+    }
+
+    /** Returns the weight of edge (U, V), or positive infinity if there
+     *  is no such edge. */
+    double weight(int u, int v) {
+        int k = position(u, v);
+        return k < 0 ? Double.POSITIVE_INFINITY : _weights[k];
+    }
+
+    /** Set the weight of edge SRC[k] -> DST[k] to WEIGHTS[k] for each k.
+     *  Every such edge must be present. */
+    void setWeights(int[] src, int[] dst, double[] weights) {
+        setWeights(src, dst, weights, false);
+    }
+
+    /** Set the weight of edge SRC[k] -> DST[k] to WEIGHTS[k] for each k,
+     *  or only lower it to that, if MIN.  Every such edge must be
+     *  present. */
+    private void setWeights(int[] src, int[] dst, double[] weights,
+                            boolean min) {
+        if (src.length != dst.length || src.length != weights.length) {
+            throw new IllegalArgumentException("edge arrays differ in length");
+        }
+        for (int k = 0; k < src.length; k += 1) {
+            set(src[k], dst[k], weights[k], min);
+            if (!_csr.isDirected() && src[k] != dst[k]) {
+                set(dst[k], src[k], weights[k], min);
+            }
+        }
+    }
+
+    /** Set the weight of the entry for V in the row of U to W, or lower
+     *  it to W, if MIN. */
+    private void set(int u, int v, double w, boolean min) {
+        int k = position(u, v);
+        if (k < 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        _weights[k] = min ? Math.min(_weights[k], w) : w;
+    }
+
+    /** Returns the position of V in the row of U in my targets, or -1 if
+     *  there is none. */
+    private int position(int u, int v) {
+        if (!_csr.contains(u) || !_csr.contains(v)) {
+            return -1;
+        }
+        int[] offsets = _csr.offsets();
+        int k = Arrays.binarySearch(_csr.targets(), offsets[u],
+                                    offsets[u + 1], v);
+        return k < 0 ? -1 : k;
+    }
+
+    /** My structure. */
+    private final CSRGraph _csr;
+    /** My weights, parallel to _csr.targets(). */
+    private final double[] _weights;
+}
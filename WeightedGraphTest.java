@@ -0,0 +1,80 @@
+package graph;
+
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/* You MAY add public @Test methods to this class.  You may also add
+ * additional public classes containing "Test" in their name. These
+ * may not be part of your graph package per se (that is, it must be
+ * possible to remove them and still have your package work). */
+
+/** Unit tests for weighted graphs and their shortest paths.
+ *  @author Mina Kim
+ */
+public class WeightedGraphTest {
+
+    /** Check that bulk loading keeps the lightest of repeated edges, and
+     *  gives an undirected edge its weight in both rows. */
+    @Test(timeout = 1000)
+    public void load() {
+        WeightedGraph W =
+            WeightedGraph.load(false, 4, new int[] { 1, 2, 2, 4 },
+                               new int[] { 2, 1, 3, 4 },
+                               new double[] { 5, 3, 2.5, 1 });
+        assertEquals("wrong weight", 3.0, W.weight(1, 2), 0.0);
+        assertEquals("wrong weight", 3.0, W.weight(2, 1), 0.0);
+        assertEquals("wrong weight", 2.5, W.weight(3, 2), 0.0);
+        assertEquals("wrong weight", 1.0, W.weight(4, 4), 0.0);
+        assertEquals("missing edge has weight", Double.POSITIVE_INFINITY,
+                     W.weight(1, 3), 0.0);
+        W.setWeights(new int[] { 1 }, new int[] { 2 }, new double[] { 7 });
+        assertEquals("weight not set", 7.0, W.weight(2, 1), 0.0);
+        assertEquals("wrong edge count", 3, W.graph().edgeSize());
+    }
+
+    /** Check that labels become weights. */
+    @Test(timeout = 1000)
+    public void fromLabels() {
+        LabeledGraph<String, Integer> G =
+            new LabeledGraph<>(new DirectedGraph());
+        G.add("a");
+        G.add("b");
+        G.add("c");
+        G.add(1, 2, 4);
+        G.add(2, 3, 6);
+        WeightedGraph W = WeightedGraph.of(G);
+        assertEquals("wrong weight", 4.0, W.weight(1, 2), 0.0);
+        assertEquals("wrong weight", 6.0, W.weight(2, 3), 0.0);
+    }
+
+    /** Check that searches reading the weight array agree with ones
+     *  calling getWeight(u, v). */
+    @Test(timeout = 10000)
+    public void shortestPaths() {
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph G = ParallelBFSTest.random(directed, 3000, 9000, 19);
+            Random rand = new Random(20);
+            double[] weights = new double[G.edgeIdBound()];
+            for (int k = 0; k < weights.length; k += 1) {
+                weights[k] = 1 + rand.nextInt(50);
+            }
+            SimpleShortestPaths plain = new SimpleShortestPaths(G, 1) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return weights[_G.edgeId(u, v)];
+                }
+            };
+            WeightedGraph W =
+                WeightedGraph.of(G, (u, v) -> weights[G.edgeId(u, v)]);
+            ShortestPaths fast = new WeightedShortestPaths(W, 1);
+            plain.setPaths();
+            fast.setPaths();
+            for (int v = G.nextVertex(0); v != 0; v = G.nextVertex(v)) {
+                assertEquals("wrong weight", plain.getWeight(v),
+                             fast.getWeight(v), 0.0);
+            }
+        }
+    }
+}
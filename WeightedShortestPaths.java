@@ -0,0 +1,31 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** Shortest paths through a WeightedGraph.  The search reads the weight
+ *  of each edge it relaxes from the graph's weight array, at the same
+ *  position as the edge's target, rather than calling getWeight(u, v).
+ *  @author Mina Kim
+ */
+final class WeightedShortestPaths extends SimpleShortestPaths {
+
+    /** The shortest paths in G from SOURCE. */
+    WeightedShortestPaths(WeightedGraph G, int source) {
+        this(G, source, 0);
+    }
+
+    /** A shortest path in G from SOURCE to DEST. */
+    WeightedShortestPaths(WeightedGraph G, int source, int dest) {
+        super(G.graph(), source, dest);
+        _W = G;
+        useWeights(G.weights());
+    }
+
+    @Override
+    protected double getWeight(int u, int v) {
+        return _W.weight(u, v);
+    }
+
+    /** The weighted graph searched. */
+    private final WeightedGraph _W;
+}